@@ -0,0 +1,272 @@
+package com.ryanheise.just_audio;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.SystemClock;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.util.Util;
+import java.util.Map;
+
+/**
+ * A LoadControl whose buffer targets can be changed while the player runs.
+ *
+ * The buffering logic follows DefaultLoadControl. Targets come from a named
+ * preset or from explicit values, and may be replaced at any time with
+ * setTargets. With memory scaling enabled, the byte target is scaled by the
+ * app's memory class relative to a 128MB heap, and reduced further for a
+ * minute after the system reports memory pressure.
+ *
+ * setTargets and the memory callbacks may be called from any thread. The
+ * LoadControl methods are called on the playback thread.
+ */
+public class AdaptiveLoadControl implements LoadControl, ComponentCallbacks2 {
+    private static final long MIN_LOADING_BUFFER_US = 500_000;
+    private static final int DEFAULT_AUDIO_BUFFER_SIZE = 200 * C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    private static final int MIN_TARGET_BUFFER_SIZE = 16 * C.DEFAULT_BUFFER_SEGMENT_SIZE;
+    private static final int REFERENCE_MEMORY_CLASS = 128;
+    private static final long PRESSURE_DURATION_MS = 60_000;
+
+    private final Context context;
+    private final DefaultAllocator allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+    private final boolean memoryScaling;
+    private final float memoryClassScale;
+    private volatile Targets targets;
+    // Guarded by this.
+    private float pressureScale = 1;
+    private long pressureTime;
+    // Accessed on the playback thread.
+    private int trackBufferSize = DEFAULT_AUDIO_BUFFER_SIZE;
+    private int targetBufferSize;
+    private boolean isLoading;
+
+    public AdaptiveLoadControl(Context context, Targets targets, boolean memoryScaling) {
+        this.context = context;
+        this.targets = targets;
+        this.memoryScaling = memoryScaling;
+        float scale = 1;
+        if (memoryScaling) {
+            ActivityManager activityManager = (ActivityManager)context.getSystemService(Context.ACTIVITY_SERVICE);
+            scale = Math.max(0.25f, Math.min(2f, activityManager.getMemoryClass() / (float)REFERENCE_MEMORY_CLASS));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && activityManager.isLowRamDevice()) {
+                scale = Math.min(scale, 0.5f);
+            }
+            context.registerComponentCallbacks(this);
+        }
+        memoryClassScale = scale;
+        targetBufferSize = computeTargetBufferSize();
+    }
+
+    /** Replaces the buffer targets, taking effect at the next loading decision. */
+    public void setTargets(Targets targets) {
+        this.targets = targets;
+    }
+
+    /** Unregisters from memory pressure callbacks. */
+    public void release() {
+        if (memoryScaling) {
+            context.unregisterComponentCallbacks(this);
+        }
+    }
+
+    private int computeTargetBufferSize() {
+        Targets targets = this.targets;
+        int size = targets.targetBufferBytes != C.LENGTH_UNSET ? targets.targetBufferBytes : trackBufferSize;
+        if (!memoryScaling) return size;
+        return Math.max(MIN_TARGET_BUFFER_SIZE, (int)(size * memoryClassScale * getPressureScale()));
+    }
+
+    private synchronized float getPressureScale() {
+        if (pressureScale < 1 && SystemClock.elapsedRealtime() - pressureTime > PRESSURE_DURATION_MS) {
+            pressureScale = 1;
+        }
+        return pressureScale;
+    }
+
+    private synchronized void onMemoryPressure(float scale) {
+        pressureScale = Math.min(scale, pressureScale);
+        pressureTime = SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_COMPLETE) {
+            onMemoryPressure(0.25f);
+        } else if (level == TRIM_MEMORY_RUNNING_LOW || level >= TRIM_MEMORY_MODERATE) {
+            onMemoryPressure(0.5f);
+        } else if (level == TRIM_MEMORY_RUNNING_MODERATE || level >= TRIM_MEMORY_BACKGROUND) {
+            onMemoryPressure(0.75f);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onMemoryPressure(0.25f);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private void updateTargetBufferSize() {
+        int size = computeTargetBufferSize();
+        if (size != targetBufferSize) {
+            targetBufferSize = size;
+            allocator.setTargetBufferSize(size);
+        }
+    }
+
+    @Override
+    public void onPrepared() {
+        reset(false);
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, ExoTrackSelection[] trackSelections) {
+        int size = 0;
+        for (int i = 0; i < renderers.length; i++) {
+            if (trackSelections[i] != null) {
+                size += renderers[i].getTrackType() == C.TRACK_TYPE_VIDEO ? 10 * DEFAULT_AUDIO_BUFFER_SIZE : DEFAULT_AUDIO_BUFFER_SIZE;
+            }
+        }
+        trackBufferSize = Math.max(DEFAULT_AUDIO_BUFFER_SIZE, size);
+        targetBufferSize = computeTargetBufferSize();
+        allocator.setTargetBufferSize(targetBufferSize);
+    }
+
+    @Override
+    public void onStopped() {
+        reset(true);
+    }
+
+    @Override
+    public void onReleased() {
+        reset(true);
+    }
+
+    private void reset(boolean resetAllocator) {
+        trackBufferSize = DEFAULT_AUDIO_BUFFER_SIZE;
+        targetBufferSize = computeTargetBufferSize();
+        isLoading = false;
+        if (resetAllocator) {
+            allocator.reset();
+        }
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return targets.backBufferDurationUs;
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+        updateTargetBufferSize();
+        Targets targets = this.targets;
+        boolean targetBufferSizeReached = allocator.getTotalBytesAllocated() >= targetBufferSize;
+        long minBufferUs = targets.minBufferUs;
+        if (playbackSpeed > 1) {
+            // The playback speed is faster than real time, so scale up the
+            // minimum required media duration to keep enough media buffered
+            // for a playout duration of minBufferUs.
+            minBufferUs = Math.min(Util.getMediaDurationForPlayoutDuration(minBufferUs, playbackSpeed), targets.maxBufferUs);
+        }
+        minBufferUs = Math.max(minBufferUs, MIN_LOADING_BUFFER_US);
+        if (bufferedDurationUs < minBufferUs) {
+            isLoading = targets.prioritizeTimeOverSizeThresholds || !targetBufferSizeReached;
+        } else if (bufferedDurationUs >= targets.maxBufferUs || targetBufferSizeReached) {
+            isLoading = false;
+        }
+        return isLoading;
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering, long targetLiveOffsetUs) {
+        Targets targets = this.targets;
+        bufferedDurationUs = Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed);
+        long minBufferDurationUs = rebuffering ? targets.bufferForPlaybackAfterRebufferUs : targets.bufferForPlaybackUs;
+        if (targetLiveOffsetUs != C.TIME_UNSET) {
+            minBufferDurationUs = Math.min(targetLiveOffsetUs / 2, minBufferDurationUs);
+        }
+        return minBufferDurationUs <= 0
+            || bufferedDurationUs >= minBufferDurationUs
+            || (!targets.prioritizeTimeOverSizeThresholds && allocator.getTotalBytesAllocated() >= targetBufferSize);
+    }
+
+    /** Buffer targets. Durations are in microseconds. */
+    public static class Targets {
+        final long minBufferUs;
+        final long maxBufferUs;
+        final long bufferForPlaybackUs;
+        final long bufferForPlaybackAfterRebufferUs;
+        final int targetBufferBytes;
+        final boolean prioritizeTimeOverSizeThresholds;
+        final long backBufferDurationUs;
+
+        Targets(long minBufferUs, long maxBufferUs, long bufferForPlaybackUs, long bufferForPlaybackAfterRebufferUs, int targetBufferBytes, boolean prioritizeTimeOverSizeThresholds, long backBufferDurationUs) {
+            this.minBufferUs = minBufferUs;
+            this.maxBufferUs = maxBufferUs;
+            this.bufferForPlaybackUs = bufferForPlaybackUs;
+            this.bufferForPlaybackAfterRebufferUs = bufferForPlaybackAfterRebufferUs;
+            this.targetBufferBytes = targetBufferBytes;
+            this.prioritizeTimeOverSizeThresholds = prioritizeTimeOverSizeThresholds;
+            this.backBufferDurationUs = backBufferDurationUs;
+        }
+
+        /** Decodes targets in the format of AndroidLoadControlMessage. */
+        public static Targets fromMap(Map<?, ?> map) {
+            Integer targetBufferBytes = (Integer)map.get("targetBufferBytes");
+            return new Targets(
+                AudioPlayer.getLong(map.get("minBufferDuration")),
+                AudioPlayer.getLong(map.get("maxBufferDuration")),
+                AudioPlayer.getLong(map.get("bufferForPlaybackDuration")),
+                AudioPlayer.getLong(map.get("bufferForPlaybackAfterRebufferDuration")),
+                targetBufferBytes != null ? targetBufferBytes : C.LENGTH_UNSET,
+                (Boolean)map.get("prioritizeTimeOverSizeThresholds"),
+                AudioPlayer.getLong(map.get("backBufferDuration")));
+        }
+
+        /**
+         * Returns the targets of a named preset:
+         *
+         *   default          the DefaultLoadControl targets
+         *   lowMemory        a short buffer capped at 4MB with no back buffer
+         *   lowLatencyStart  starts playback after 500ms of audio is buffered
+         *   podcast          buffers up to 5 minutes ahead, by time over size
+         *   live             a short buffer near the live edge
+         */
+        public static Targets forPreset(String preset) {
+            switch (preset) {
+            case "default":
+                return new Targets(50_000_000, 50_000_000, 2_500_000, 5_000_000, C.LENGTH_UNSET, false, 0);
+            case "lowMemory":
+                return new Targets(15_000_000, 30_000_000, 1_000_000, 2_500_000, 4 * 1024 * 1024, false, 0);
+            case "lowLatencyStart":
+                return new Targets(15_000_000, 50_000_000, 500_000, 2_500_000, C.LENGTH_UNSET, false, 0);
+            case "podcast":
+                return new Targets(60_000_000, 300_000_000, 2_500_000, 5_000_000, C.LENGTH_UNSET, true, 30_000_000);
+            case "live":
+                return new Targets(10_000_000, 20_000_000, 1_500_000, 3_000_000, C.LENGTH_UNSET, false, 0);
+            default:
+                throw new IllegalArgumentException("Unknown load control preset: " + preset);
+            }
+        }
+    }
+}
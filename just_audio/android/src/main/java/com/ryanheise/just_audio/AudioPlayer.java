@@ -7,7 +7,10 @@ import android.media.audiofx.LoudnessEnhancer;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.DefaultLivePlaybackSpeedControl;
 import com.google.android.exoplayer2.DefaultLoadControl;
@@ -23,26 +26,34 @@ import com.google.android.exoplayer2.Player.PositionInfo;
 import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.Tracks;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
 import com.google.android.exoplayer2.audio.AudioAttributes;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.metadata.MetadataOutput;
 import com.google.android.exoplayer2.metadata.icy.IcyHeaders;
 import com.google.android.exoplayer2.metadata.icy.IcyInfo;
 import com.google.android.exoplayer2.source.ClippingMediaSource;
 import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.ProgressiveMediaSource;
 import com.google.android.exoplayer2.source.ShuffleOrder;
-import com.google.android.exoplayer2.source.ShuffleOrder.DefaultShuffleOrder;
 import com.google.android.exoplayer2.source.SilenceMediaSource;
 import com.google.android.exoplayer2.source.TrackGroup;
 import com.google.android.exoplayer2.source.dash.DashMediaSource;
 import com.google.android.exoplayer2.source.hls.HlsMediaSource;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.DefaultDataSource;
 import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.util.Clock;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.Util;
 import io.flutter.Log;
@@ -53,22 +64,40 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class AudioPlayer implements MethodCallHandler, Player.Listener, MetadataOutput {
+public class AudioPlayer implements MethodCallHandler, Player.Listener, MetadataOutput, MediaPreloader.Listener, PlaybackTimings.Listener {
 
     static final String TAG = "AudioPlayer";
 
     private static Random random = new Random();
 
+    /**
+     * Creates the media source of a progressive audio source from the factory
+     * and media item decoded for it. Tests use this to play fake media.
+     */
+    @VisibleForTesting
+    interface ProgressiveMediaSourceFactory {
+        MediaSource createMediaSource(ProgressiveMediaSource.Factory factory, MediaItem mediaItem);
+    }
+
     private final Context context;
+    private final BinaryMessenger messenger;
     private final MethodChannel methodChannel;
     private final BetterEventChannel eventChannel;
     private final BetterEventChannel dataEventChannel;
@@ -80,17 +109,38 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     private Long start;
     private Long end;
     private Long seekPos;
-    private long initialPos;
-    private Integer initialIndex;
     private Result prepareResult;
     private Result playResult;
     private Result seekResult;
     private Map<String, MediaSource> mediaSources = new HashMap<String, MediaSource>();
+    // The child ids of clipping and looping audio sources, which cannot be
+    // read back from their MediaSources.
+    private final Map<String, String> childIds = new HashMap<String, String>();
+    private long evictedMediaSourceCount;
+    // Keyed by [userAgent, headers].
+    private final Map<List<Object>, DataSource.Factory> upstreamDataSourceFactories = new HashMap<>();
+    private final Map<List<Object>, CacheDataSource.Factory> preloadDataSourceFactories = new HashMap<>();
+    // The [userAgent, headers] of each progressive audio source, so that it
+    // can be preloaded with the same request headers.
+    private final Map<String, List<Object>> sourceHeaders = new HashMap<>();
     private IcyInfo icyInfo;
     private IcyHeaders icyHeaders;
     private int errorCount;
+    private LoadErrorPolicy loadErrorPolicy = new LoadErrorPolicy();
+    // The item being retried after a player error and the attempts so far.
+    private int retryIndex = C.INDEX_UNSET;
+    private int retryCount;
+    private boolean retryPending;
+    private final Runnable retrier = () -> {
+        retryPending = false;
+        player.prepare();
+    };
     private AudioAttributes pendingAudioAttributes;
     private LoadControl loadControl;
+    private AdaptiveLoadControl adaptiveLoadControl;
+    // Wraps the player's LoadControl to apply the settings below.
+    private PlaybackLoadControl playbackLoadControl;
+    private boolean canUseNetworkResourcesForLiveStreamingWhilePaused;
     private boolean offloadSchedulingEnabled;
     private LivePlaybackSpeedControl livePlaybackSpeedControl;
     private List<Object> rawAudioEffects;
@@ -98,50 +148,156 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     private Map<String, AudioEffect> audioEffectsMap = new HashMap<String, AudioEffect>();
     private int lastPlaylistLength = 0;
     private Map<String, Object> pendingPlaybackEvent;
+    private final String binaryEventChannelName;
+    private final String streamChannelName;
+    private PlaybackEventEncoder playbackEventEncoder;
+    private boolean playbackEventPending;
+    private long eventCoalescingWindow;
+    private long lastPlaybackEventTime;
+    private Cache cache;
+    private NormalizingCacheKeyFactory cacheKeyFactory;
+    private boolean memoryMappedFiles;
+    private File seekIndexDirectory;
+    private MediaPreloader preloader;
+    private final AtomicLong cacheHitBytes = new AtomicLong();
+    private final AtomicLong cacheMissBytes = new AtomicLong();
+    // Bytes read from the cache are reported when each cache read completes.
+    private final CacheDataSource.EventListener cacheEventListener = new CacheDataSource.EventListener() {
+        @Override
+        public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+            cacheHitBytes.addAndGet(cachedBytesRead);
+        }
+
+        @Override
+        public void onCacheIgnored(int reason) {
+        }
+    };
+    // Bytes that had to be fetched from the network are cache misses.
+    private final TransferListener cacheMissListener = new TransferListener() {
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            if (isNetwork) cacheMissBytes.addAndGet(bytesTransferred);
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+    };
+
+    // Null unless timings are enabled by the load configuration.
+    private PlaybackTimings playbackTimings;
+    private final PlaybackMetrics playbackMetrics = new PlaybackMetrics();
+    private long metricsSnapshotInterval;
+    private final Runnable metricsSnapshotter = new Runnable() {
+        @Override
+        public void run() {
+            dataEventChannel.success(mapOf("metrics", playbackMetrics.toMap()));
+            handler.postDelayed(this, metricsSnapshotInterval);
+        }
+    };
 
     private ExoPlayer player;
     private DefaultExtractorsFactory extractorsFactory = new DefaultExtractorsFactory();
     private Integer audioSessionId;
     private MediaSource mediaSource;
     private Integer currentIndex;
-    private final Handler handler = new Handler(Looper.getMainLooper());
+    // When the player thread is enabled, the player, its listener callbacks
+    // and method call handling all run on playerThread and handler is bound
+    // to it. Otherwise handler is bound to the main looper.
+    private HandlerThread playerThread;
+    private final PlayerPool playerPool;
+    // Null outside tests.
+    private final Clock clock;
+    private final ProgressiveMediaSourceFactory progressiveMediaSourceFactory;
+    private final Handler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Set on the player thread once released, after which method calls are
+    // answered with an error.
+    private boolean released;
+    // The callbacks of the dispose calls still waiting for the release, or
+    // null once disposed. Only used on the main thread.
+    private List<Runnable> disposeCallbacks = new ArrayList<Runnable>();
+    private final Runnable playbackEventFlusher = () -> sendPendingPlaybackEvent();
+    private long bufferedPositionUpdateInterval = 500;
+    private long bufferedPositionUpdateThreshold = 0;
+    // The buffered position only changes while the player is loading, so the
+    // buffer is only watched between onIsLoadingChanged(true) and
+    // onIsLoadingChanged(false). A progressive source is read by a single
+    // load that reports no progress until it ends, so it is polled.
     private final Runnable bufferWatcher = new Runnable() {
         @Override
         public void run() {
             if (player == null) {
                 return;
             }
-
-            long newBufferedPosition = player.getBufferedPosition();
-            if (newBufferedPosition != bufferedPosition) {
-                // This method updates bufferedPosition.
-                broadcastImmediatePlaybackEvent();
+            checkBufferedPosition();
+            if (player.isLoading()) {
+                handler.postDelayed(this, bufferedPositionUpdateInterval);
             }
-            switch (player.getPlaybackState()) {
-            case Player.STATE_BUFFERING:
-                handler.postDelayed(this, 200);
-                break;
-            case Player.STATE_READY:
-                if (player.getPlayWhenReady()) {
-                    handler.postDelayed(this, 500);
-                } else {
-                    handler.postDelayed(this, 1000);
-                }
-                break;
-            default:
-                // Stop watching buffer
+        }
+    };
+    // Segmented streams complete a load for each segment, which is when their
+    // buffered position moves, so it is checked then and the next poll is
+    // put back by a full interval.
+    private final AnalyticsListener bufferLoadListener = new AnalyticsListener() {
+        @Override
+        public void onLoadCompleted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+            if (player == null || !player.isLoading()) {
+                return;
             }
+            checkBufferedPosition();
+            handler.removeCallbacks(bufferWatcher);
+            handler.postDelayed(bufferWatcher, bufferedPositionUpdateInterval);
         }
     };
 
-    public AudioPlayer(final Context applicationContext, final BinaryMessenger messenger, final String id, Map<?, ?> audioLoadConfiguration, List<Object> rawAudioEffects, Boolean offloadSchedulingEnabled) {
+    public AudioPlayer(final Context applicationContext, final BinaryMessenger messenger, final String id, Map<?, ?> audioLoadConfiguration, List<Object> rawAudioEffects, Boolean offloadSchedulingEnabled, Boolean binaryPlaybackEventsEnabled, Long eventCoalescingWindow, Boolean playerThreadEnabled, Long metricsSnapshotInterval, PlayerPool playerPool) {
+        this(applicationContext, messenger, id, audioLoadConfiguration, rawAudioEffects, offloadSchedulingEnabled, binaryPlaybackEventsEnabled, eventCoalescingWindow, playerThreadEnabled, metricsSnapshotInterval, playerPool, null, null);
+    }
+
+    @VisibleForTesting
+    AudioPlayer(final Context applicationContext, final BinaryMessenger messenger, final String id, Map<?, ?> audioLoadConfiguration, List<Object> rawAudioEffects, Boolean offloadSchedulingEnabled, Boolean binaryPlaybackEventsEnabled, Long eventCoalescingWindow, Boolean playerThreadEnabled, Long metricsSnapshotInterval, PlayerPool playerPool, Clock clock, ProgressiveMediaSourceFactory progressiveMediaSourceFactory) {
         this.context = applicationContext;
+        this.messenger = messenger;
+        this.playerPool = playerPool;
+        this.clock = clock;
+        this.progressiveMediaSourceFactory = progressiveMediaSourceFactory;
         this.rawAudioEffects = rawAudioEffects;
         this.offloadSchedulingEnabled = offloadSchedulingEnabled != null ? offloadSchedulingEnabled : false;
-        methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.methods." + id);
+        if (playerThreadEnabled != null && playerThreadEnabled) {
+            playerThread = new HandlerThread("just_audio:" + id);
+            playerThread.start();
+            handler = new Handler(playerThread.getLooper());
+            // Decode method calls off the platform thread too, if supported.
+            BinaryMessenger.TaskQueue taskQueue = null;
+            try {
+                taskQueue = messenger.makeBackgroundTaskQueue();
+            } catch (UnsupportedOperationException e) {
+                Log.w(TAG, "Background task queues are not supported by this BinaryMessenger");
+            }
+            methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.methods." + id, StandardMethodCodec.INSTANCE, taskQueue);
+        } else {
+            handler = mainHandler;
+            methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.methods." + id);
+        }
         methodChannel.setMethodCallHandler(this);
-        eventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.events." + id);
+        eventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.events." + id, true);
         dataEventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.data." + id);
+        binaryEventChannelName = "com.ryanheise.just_audio.binary_events." + id;
+        streamChannelName = "com.ryanheise.just_audio.stream." + id;
+        if (binaryPlaybackEventsEnabled != null && binaryPlaybackEventsEnabled) {
+            playbackEventEncoder = new PlaybackEventEncoder();
+        }
+        this.eventCoalescingWindow = eventCoalescingWindow != null ? eventCoalescingWindow / 1000 : 0;
+        this.metricsSnapshotInterval = metricsSnapshotInterval != null ? metricsSnapshotInterval / 1000 : 0;
         processingState = ProcessingState.none;
         extractorsFactory.setConstantBitrateSeekingEnabled(true);
         if (audioLoadConfiguration != null) {
@@ -161,6 +317,20 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 }
                 loadControl = builder.build();
             }
+            Map<?, ?> loadErrorPolicyMap = (Map<?, ?>)audioLoadConfiguration.get("androidLoadErrorPolicy");
+            if (loadErrorPolicyMap != null) {
+                loadErrorPolicy = LoadErrorPolicy.fromMap(loadErrorPolicyMap);
+            }
+            Map<?, ?> adaptiveLoadControlMap = (Map<?, ?>)audioLoadConfiguration.get("androidAdaptiveLoadControl");
+            if (adaptiveLoadControlMap != null) {
+                String preset = (String)adaptiveLoadControlMap.get("preset");
+                Boolean memoryScaling = (Boolean)adaptiveLoadControlMap.get("memoryScaling");
+                AdaptiveLoadControl.Targets targets = preset == null && loadControlMap != null
+                    ? AdaptiveLoadControl.Targets.fromMap(loadControlMap)
+                    : AdaptiveLoadControl.Targets.forPreset(preset != null ? preset : "default");
+                adaptiveLoadControl = new AdaptiveLoadControl(context, targets, memoryScaling != null && memoryScaling);
+                loadControl = adaptiveLoadControl;
+            }
             Map<?, ?> livePlaybackSpeedControlMap = (Map<?, ?>)audioLoadConfiguration.get("androidLivePlaybackSpeedControl");
             if (livePlaybackSpeedControlMap != null) {
                 DefaultLivePlaybackSpeedControl.Builder builder = new DefaultLivePlaybackSpeedControl.Builder()
@@ -173,6 +343,37 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                     .setMinPossibleLiveOffsetSmoothingFactor((float)((double)((Double)livePlaybackSpeedControlMap.get("minPossibleLiveOffsetSmoothingFactor"))));
                 livePlaybackSpeedControl = builder.build();
             }
+            Map<?, ?> bufferedPositionUpdatesMap = (Map<?, ?>)audioLoadConfiguration.get("androidBufferedPositionUpdates");
+            if (bufferedPositionUpdatesMap != null) {
+                bufferedPositionUpdateInterval = getLong(bufferedPositionUpdatesMap.get("minUpdateInterval")) / 1000;
+                bufferedPositionUpdateThreshold = getLong(bufferedPositionUpdatesMap.get("minUpdateDelta")) / 1000;
+            }
+            Boolean playbackTimings = (Boolean)audioLoadConfiguration.get("androidPlaybackTimings");
+            if (playbackTimings != null && playbackTimings) {
+                this.playbackTimings = new PlaybackTimings(this);
+            }
+            Boolean memoryMappedFiles = (Boolean)audioLoadConfiguration.get("androidMemoryMappedFiles");
+            this.memoryMappedFiles = memoryMappedFiles != null && memoryMappedFiles;
+            Boolean seekIndexCache = (Boolean)audioLoadConfiguration.get("androidSeekIndexCache");
+            if (seekIndexCache != null && seekIndexCache) {
+                seekIndexDirectory = new File(context.getCacheDir(), "just_audio_seek_index");
+            }
+            Map<?, ?> mediaCacheMap = (Map<?, ?>)audioLoadConfiguration.get("androidMediaCache");
+            if (mediaCacheMap != null) {
+                cache = MediaCache.getInstance(context, getLong(mediaCacheMap.get("maxCacheSize")));
+                cacheKeyFactory = new NormalizingCacheKeyFactory((List<?>)mediaCacheMap.get("ignoredQueryParameters"));
+                preloader = new MediaPreloader(handler, this);
+            }
+        }
+    }
+
+    // Broadcasts the buffered position if it has moved by more than the
+    // threshold since it was last broadcast.
+    private void checkBufferedPosition() {
+        long newBufferedPosition = player.getBufferedPosition();
+        if (Math.abs(newBufferedPosition - bufferedPosition) > bufferedPositionUpdateThreshold) {
+            // This method updates bufferedPosition.
+            broadcastImmediatePlaybackEvent();
         }
     }
 
@@ -181,6 +382,10 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         handler.post(bufferWatcher);
     }
 
+    private void stopWatchingBuffer() {
+        handler.removeCallbacks(bufferWatcher);
+    }
+
     private void setAudioSessionId(int audioSessionId) {
         if (audioSessionId == C.AUDIO_SESSION_ID_UNSET) {
             this.audioSessionId = null;
@@ -208,6 +413,23 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         broadcastPendingPlaybackEvent();
     }
 
+    @Override
+    public void onPreloadProgress(String id, long bytesCached, long requestLength, boolean completed) {
+        dataEventChannel.success(mapOf(
+            "preloadProgress", mapOf(
+                "id", id,
+                "bytesCached", bytesCached,
+                "length", requestLength,
+                "completed", completed
+            )
+        ));
+    }
+
+    @Override
+    public void onTimingRecord(Map<String, Object> record) {
+        dataEventChannel.success(mapOf("timing", record));
+    }
+
     @Override
     public void onMetadata(Metadata metadata) {
         for (int i = 0; i < metadata.length(); i++) {
@@ -240,6 +462,19 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
     }
 
+    @Override
+    public void onIsLoadingChanged(boolean isLoading) {
+        if (isLoading) {
+            startWatchingBuffer();
+        } else {
+            stopWatchingBuffer();
+            // Report the final buffered position of this load.
+            if (player.getBufferedPosition() != bufferedPosition) {
+                broadcastImmediatePlaybackEvent();
+            }
+        }
+    }
+
     private boolean updatePositionIfChanged() {
         if (getCurrentPosition() == updatePosition) return false;
         updatePosition = getCurrentPosition();
@@ -266,12 +501,6 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     @Override
     public void onTimelineChanged(Timeline timeline, int reason) {
-        if (initialPos != C.TIME_UNSET || initialIndex != null) {
-            int windowIndex = initialIndex != null ? initialIndex : 0;
-            player.seekTo(windowIndex, initialPos);
-            initialIndex = null;
-            initialPos = C.TIME_UNSET;
-        }
         if (updateCurrentIndex()) {
             broadcastImmediatePlaybackEvent();
         }
@@ -293,6 +522,15 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             }
         }
         lastPlaylistLength = player.getMediaItemCount();
+        // The current item may only now be known to be live.
+        maybeSuspendLiveLoading();
+    }
+
+    @Override
+    public void onIsPlayingChanged(boolean isPlaying) {
+        if (!isPlaying) {
+            maybeSuspendLiveLoading();
+        }
     }
 
     private boolean updateCurrentIndex() {
@@ -310,10 +548,12 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     public void onPlaybackStateChanged(int playbackState) {
         switch (playbackState) {
         case Player.STATE_READY:
+            retryCount = 0;
             if (player.getPlayWhenReady())
                 updatePosition();
             processingState = ProcessingState.ready;
             broadcastImmediatePlaybackEvent();
+            maybeSuspendLiveLoading();
             if (prepareResult != null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("duration", getDuration() == C.TIME_UNSET ? null : (1000 * getDuration()));
@@ -334,7 +574,6 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 processingState = ProcessingState.buffering;
                 broadcastImmediatePlaybackEvent();
             }
-            startWatchingBuffer();
             break;
         case Player.STATE_ENDED:
             if (processingState != ProcessingState.completed) {
@@ -379,34 +618,87 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             default:
                 Log.e(TAG, "default ExoPlaybackException: " + exoError.getUnexpectedException().getMessage());
             }
-            // TODO: send both errorCode and type
-            sendError(String.valueOf(exoError.type), exoError.getMessage());
         } else {
             Log.e(TAG, "default PlaybackException: " + error.getMessage());
+        }
+        if (retry(error)) return;
+        if (error instanceof ExoPlaybackException) {
+            // TODO: send both errorCode and type
+            sendError(String.valueOf(((ExoPlaybackException)error).type), error.getMessage());
+        } else {
             sendError(String.valueOf(error.errorCode), error.getMessage());
         }
         errorCount++;
-        if (player.hasNextMediaItem() && currentIndex != null && errorCount <= 5) {
+        if (player.hasNextMediaItem() && currentIndex != null && errorCount <= loadErrorPolicy.maxSkippedItems) {
             int nextIndex = currentIndex + 1;
             Timeline timeline = player.getCurrentTimeline();
             // This condition is due to: https://github.com/ryanheise/just_audio/pull/310
             if (nextIndex < timeline.getWindowCount()) {
-                // TODO: pass in initial position here.
-                player.setMediaSource(mediaSource);
-                player.prepare();
+                // The playlist is kept, so other prepared items are not lost.
+                playbackMetrics.onSkip();
                 player.seekTo(nextIndex, 0);
+                player.prepare();
             }
         }
     }
 
+    // Schedules the failing item to be prepared again at its last position,
+    // unless the error is permanent or the item has run out of retries.
+    private boolean retry(PlaybackException error) {
+        int index = player.getCurrentMediaItemIndex();
+        if (index != retryIndex) {
+            retryIndex = index;
+            retryCount = 0;
+        }
+        if (retryCount >= loadErrorPolicy.maxItemRetries || !LoadErrorPolicy.isRetryable(error)) {
+            return false;
+        }
+        retryCount++;
+        playbackMetrics.onRetry();
+        if (error.errorCode == PlaybackException.ERROR_CODE_BEHIND_LIVE_WINDOW) {
+            player.seekToDefaultPosition(index);
+        }
+        if (processingState != ProcessingState.loading && processingState != ProcessingState.buffering) {
+            processingState = ProcessingState.buffering;
+            broadcastImmediatePlaybackEvent();
+        }
+        retryPending = true;
+        handler.postDelayed(retrier, loadErrorPolicy.getRetryDelayMs(retryCount));
+        return true;
+    }
+
+    private void cancelRetry() {
+        handler.removeCallbacks(retrier);
+        retryPending = false;
+        retryIndex = C.INDEX_UNSET;
+    }
+
     private void completeSeek() {
+        if (playbackTimings != null) {
+            playbackTimings.onSeekCompleted(playbackTimings.getMediaItemId(player.getCurrentTimeline(), player.getCurrentMediaItemIndex()));
+        }
         seekPos = null;
         seekResult.success(new HashMap<String, Object>());
         seekResult = null;
     }
 
+    private boolean isPlayerThread() {
+        return Looper.myLooper() == handler.getLooper();
+    }
+
     @Override
     public void onMethodCall(final MethodCall call, final Result result) {
+        if (!isPlayerThread()) {
+            // The player thread no longer accepts calls once it has quit.
+            if (!handler.post(() -> onMethodCall(call, new MainThreadResult(result)))) {
+                result.error("Player has been disposed", null, null);
+            }
+            return;
+        }
+        if (released) {
+            result.error("Player has been disposed", null, null);
+            return;
+        }
         ensurePlayerInitialized();
 
         try {
@@ -417,6 +709,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 load(getAudioSource(call.argument("audioSource")),
                         initialPosition == null ? C.TIME_UNSET : initialPosition / 1000,
                         initialIndex, result);
+                releaseUnusedMediaSources();
                 break;
             case "play":
                 play(result);
@@ -446,20 +739,25 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 result.success(new HashMap<String, Object>());
                 break;
             case "setShuffleMode":
+                cancelPreloads();
                 setShuffleModeEnabled((Integer) call.argument("shuffleMode") == 1);
                 result.success(new HashMap<String, Object>());
                 break;
             case "setShuffleOrder":
+                cancelPreloads();
                 setShuffleOrder(call.argument("audioSource"));
                 result.success(new HashMap<String, Object>());
                 break;
             case "setAutomaticallyWaitsToMinimizeStalling":
+                playbackLoadControl.setWaitsToMinimizeStalling((Boolean)call.argument("enabled"));
                 result.success(new HashMap<String, Object>());
                 break;
             case "setCanUseNetworkResourcesForLiveStreamingWhilePaused":
+                setCanUseNetworkResourcesForLiveStreamingWhilePaused((Boolean)call.argument("enabled"));
                 result.success(new HashMap<String, Object>());
                 break;
             case "setPreferredPeakBitRate":
+                setPreferredPeakBitRate((Double)call.argument("bitRate"));
                 result.success(new HashMap<String, Object>());
                 break;
             case "seek":
@@ -468,18 +766,22 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 seek(position == null ? C.TIME_UNSET : position / 1000, index, result);
                 break;
             case "concatenatingInsertAll":
+                cancelPreloads();
                 concatenating(call.argument("id"))
                         .addMediaSources(call.argument("index"), getAudioSources(call.argument("children")), handler, () -> result.success(new HashMap<String, Object>()));
                 concatenating(call.argument("id"))
                         .setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
                 break;
             case "concatenatingRemoveRange":
+                cancelPreloads();
                 concatenating(call.argument("id"))
                         .removeMediaSourceRange(call.argument("startIndex"), call.argument("endIndex"), handler, () -> result.success(new HashMap<String, Object>()));
                 concatenating(call.argument("id"))
                         .setShuffleOrder(decodeShuffleOrder(call.argument("shuffleOrder")));
+                releaseUnusedMediaSources();
                 break;
             case "concatenatingMove":
+                cancelPreloads();
                 concatenating(call.argument("id"))
                         .moveMediaSource(call.argument("currentIndex"), call.argument("newIndex"), handler, () -> result.success(new HashMap<String, Object>()));
                 concatenating(call.argument("id"))
@@ -504,6 +806,34 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
                 equalizerBandSetGain(call.argument("bandIndex"), call.argument("gain"));
                 result.success(new HashMap<String, Object>());
                 break;
+            case "androidEventChannelGetStatistics":
+                result.success(mapOf(
+                    "emittedCount", eventChannel.getEmittedCount(),
+                    "suppressedCount", eventChannel.getSuppressedCount()
+                ));
+                break;
+            case "getMetrics":
+                result.success(mapOf("metrics", playbackMetrics.toMap()));
+                break;
+            case "androidSetLoadControl":
+                setLoadControl(call.argument("preset"), call.argument("loadControl"));
+                result.success(new HashMap<String, Object>());
+                break;
+            case "androidMediaSourcesGetStatistics":
+                Runtime runtime = Runtime.getRuntime();
+                result.success(mapOf(
+                    "count", mediaSources.size(),
+                    "evictedCount", evictedMediaSourceCount,
+                    "heapUsed", runtime.totalMemory() - runtime.freeMemory()
+                ));
+                break;
+            case "androidCacheGetStatistics":
+                result.success(cacheGetStatistics());
+                break;
+            case "preload":
+                preload(call.argument("ids"), call.argument("count"), getLong(call.argument("maxBytes")));
+                result.success(new HashMap<String, Object>());
+                break;
             default:
                 result.notImplemented();
                 break;
@@ -520,37 +850,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     private ShuffleOrder decodeShuffleOrder(List<Integer> indexList) {
-        int[] shuffleIndices = new int[indexList.size()];
-        for (int i = 0; i < shuffleIndices.length; i++) {
-            shuffleIndices[i] = indexList.get(i);
-        }
-        return new DefaultShuffleOrder(shuffleIndices, random.nextLong());
-    }
-
-    private static int[] shuffle(int length, Integer firstIndex) {
-        final int[] shuffleOrder = new int[length];
-        for (int i = 0; i < length; i++) {
-            final int j = random.nextInt(i + 1);
-            shuffleOrder[i] = shuffleOrder[j];
-            shuffleOrder[j] = i;
-        }
-        if (firstIndex != null) {
-            for (int i = 1; i < length; i++) {
-                if (shuffleOrder[i] == firstIndex) {
-                    final int v = shuffleOrder[0];
-                    shuffleOrder[0] = shuffleOrder[i];
-                    shuffleOrder[i] = v;
-                    break;
-                }
-            }
-        }
-        return shuffleOrder;
-    }
-
-    // Create a shuffle order optionally fixing the first index.
-    private ShuffleOrder createShuffleOrder(int length, Integer firstIndex) {
-        int[] shuffleIndices = shuffle(length, firstIndex);
-        return new DefaultShuffleOrder(shuffleIndices, random.nextLong());
+        return ShuffleOrders.decode(indexList, random);
     }
 
     private ConcatenatingMediaSource concatenating(final Object index) {
@@ -577,7 +877,48 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
     }
 
-    private MediaSource getAudioSource(final Object json) {
+    // Removes the audio sources that are no longer part of the loaded tree so
+    // that they and their timelines can be garbage collected. The Dart side
+    // always sends the full description of each audio source, so a removed
+    // source that is added again is simply decoded again.
+    private void releaseUnusedMediaSources() {
+        Map<MediaSource, String> ids = new IdentityHashMap<MediaSource, String>();
+        for (Map.Entry<String, MediaSource> entry : mediaSources.entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+        }
+        Set<String> reachableIds = new HashSet<String>();
+        if (mediaSource != null) {
+            markReachable(mediaSource, ids, reachableIds);
+        }
+        Iterator<Map.Entry<String, MediaSource>> it = mediaSources.entrySet().iterator();
+        while (it.hasNext()) {
+            String id = it.next().getKey();
+            if (!reachableIds.contains(id)) {
+                it.remove();
+                childIds.remove(id);
+                sourceHeaders.remove(id);
+                evictedMediaSourceCount++;
+            }
+        }
+    }
+
+    private void markReachable(MediaSource mediaSource, Map<MediaSource, String> ids, Set<String> reachableIds) {
+        String id = ids.get(mediaSource);
+        if (id == null || !reachableIds.add(id)) return;
+        String childId = childIds.get(id);
+        if (childId != null) {
+            MediaSource child = mediaSources.get(childId);
+            if (child != null) markReachable(child, ids, reachableIds);
+        } else if (mediaSource instanceof ConcatenatingMediaSource) {
+            ConcatenatingMediaSource concatenatingMediaSource = (ConcatenatingMediaSource)mediaSource;
+            for (int i = 0; i < concatenatingMediaSource.getSize(); i++) {
+                markReachable(concatenatingMediaSource.getMediaSource(i), ids, reachableIds);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    MediaSource getAudioSource(final Object json) {
         Map<?, ?> map = (Map<?, ?>)json;
         String id = (String)map.get("id");
         MediaSource mediaSource = mediaSources.get(id);
@@ -592,24 +933,50 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         Map<?, ?> map = (Map<?, ?>)json;
         String id = (String)map.get("id");
         switch ((String)map.get("type")) {
-        case "progressive":
-            return new ProgressiveMediaSource.Factory(buildDataSourceFactory(), extractorsFactory)
-                    .createMediaSource(new MediaItem.Builder()
-                            .setUri(Uri.parse((String)map.get("uri")))
-                            .setTag(id)
-                            .build());
+        case "progressive": {
+            Uri uri = Uri.parse((String)map.get("uri"));
+            DataSource.Factory dataSourceFactory;
+            if (StreamDataSource.SCHEME.equals(uri.getScheme())) {
+                // StreamAudioSources are read from Dart over a binary channel.
+                dataSourceFactory = new StreamDataSource.Factory(messenger, streamChannelName, createTransferListener(id));
+            } else if (FlutterAssetDataSource.SCHEME.equals(uri.getScheme())) {
+                dataSourceFactory = new FlutterAssetDataSource.Factory(context, createTransferListener(id));
+            } else if (memoryMappedFiles && (uri.getScheme() == null || "file".equals(uri.getScheme()))) {
+                dataSourceFactory = new MappedFileDataSource.Factory(createTransferListener(id));
+            } else {
+                dataSourceFactory = buildDataSourceFactory(map);
+                sourceHeaders.put(id, Arrays.asList(map.get("userAgent"), map.get("headers")));
+            }
+            ExtractorsFactory sourceExtractorsFactory = buildExtractorsFactory(uri, (String)map.get("mimeType"));
+            if (seekIndexDirectory != null) {
+                sourceExtractorsFactory = new SeekIndexExtractor.Factory(sourceExtractorsFactory, seekIndexDirectory);
+            }
+            ProgressiveMediaSource.Factory factory = new ProgressiveMediaSource.Factory(dataSourceFactory, sourceExtractorsFactory)
+                    .setLoadErrorHandlingPolicy(loadErrorPolicy);
+            MediaItem mediaItem = new MediaItem.Builder()
+                    .setUri(uri)
+                    .setCustomCacheKey((String)map.get("cacheKey"))
+                    .setTag(id)
+                    .build();
+            return progressiveMediaSourceFactory != null
+                    ? progressiveMediaSourceFactory.createMediaSource(factory, mediaItem)
+                    : factory.createMediaSource(mediaItem);
+        }
         case "dash":
-            return new DashMediaSource.Factory(buildDataSourceFactory())
+            return new DashMediaSource.Factory(buildDataSourceFactory(map))
+                    .setLoadErrorHandlingPolicy(loadErrorPolicy)
                     .createMediaSource(new MediaItem.Builder()
                             .setUri(Uri.parse((String)map.get("uri")))
                             .setMimeType(MimeTypes.APPLICATION_MPD)
                             .setTag(id)
                             .build());
         case "hls":
-            return new HlsMediaSource.Factory(buildDataSourceFactory())
+            return new HlsMediaSource.Factory(buildDataSourceFactory(map))
+                    .setLoadErrorHandlingPolicy(loadErrorPolicy)
                     .createMediaSource(new MediaItem.Builder()
                             .setUri(Uri.parse((String)map.get("uri")))
                             .setMimeType(MimeTypes.APPLICATION_M3U8)
+                            .setTag(id)
                             .build());
         case "silence":
             return new SilenceMediaSource.Factory()
@@ -626,12 +993,14 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         case "clipping":
             Long start = getLong(map.get("start"));
             Long end = getLong(map.get("end"));
+            childIds.put(id, (String)((Map<?, ?>)map.get("child")).get("id"));
             return new ClippingMediaSource(getAudioSource(map.get("child")),
                     start != null ? start : 0,
                     end != null ? end : C.TIME_END_OF_SOURCE);
         case "looping":
             Integer count = (Integer)map.get("count");
             MediaSource looperChild = getAudioSource(map.get("child"));
+            childIds.put(id, (String)((Map<?, ?>)map.get("child")).get("id"));
             MediaSource[] looperChildren = new MediaSource[count];
             for (int i = 0; i < looperChildren.length; i++) {
                 looperChildren[i] = looperChild;
@@ -687,17 +1056,202 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         audioEffectsMap.clear();
     }
 
-    private DataSource.Factory buildDataSourceFactory() {
-        String userAgent = Util.getUserAgent(context, "just_audio");
-        DataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory()
-            .setUserAgent(userAgent)
+    private DefaultHttpDataSource.Factory buildHttpDataSourceFactory(String userAgent, Map<String, String> headers) {
+        return buildHttpDataSourceFactory(context, userAgent, headers);
+    }
+
+    static DefaultHttpDataSource.Factory buildHttpDataSourceFactory(Context context, String userAgent, Map<String, String> headers) {
+        if (userAgent == null && headers != null) {
+            // DefaultHttpDataSource would replace a User-Agent request header
+            // with its own user agent.
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase("User-Agent")) {
+                    userAgent = entry.getValue();
+                }
+            }
+        }
+        DefaultHttpDataSource.Factory factory = new DefaultHttpDataSource.Factory()
+            .setUserAgent(userAgent != null ? userAgent : Util.getUserAgent(context, "just_audio"))
             .setAllowCrossProtocolRedirects(true);
-        return new DefaultDataSource.Factory(context, httpDataSourceFactory);
+        if (headers != null) {
+            factory.setDefaultRequestProperties(headers);
+        }
+        return factory;
+    }
+
+    // Only playback is counted in the cache statistics, so preloads pass
+    // countStatistics as false.
+    private CacheDataSource.Factory buildCacheDataSourceFactory(DefaultHttpDataSource.Factory httpDataSourceFactory, boolean countStatistics) {
+        if (countStatistics) {
+            httpDataSourceFactory.setTransferListener(cacheMissListener);
+        }
+        CacheDataSource.Factory factory = new CacheDataSource.Factory()
+            .setCache(cache)
+            .setCacheKeyFactory(cacheKeyFactory)
+            .setUpstreamDataSourceFactory(httpDataSourceFactory)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+            .setEventListener(countStatistics ? cacheEventListener : null);
+        if (memoryMappedFiles) {
+            factory.setCacheReadDataSourceFactory(new MappedFileDataSource.Factory(null));
+        }
+        return factory;
+    }
+
+    // Reads downloaded media from the download cache only, so that playing it
+    // never touches the network.
+    private CacheDataSource.Factory buildDownloadDataSourceFactory() {
+        CacheDataSource.Factory factory = new CacheDataSource.Factory()
+            .setCache(MediaDownloads.getCache())
+            .setCacheKeyFactory(MediaDownloads.getCacheKeyFactory())
+            .setCacheWriteDataSinkFactory(null);
+        if (memoryMappedFiles) {
+            factory.setCacheReadDataSourceFactory(new MappedFileDataSource.Factory(null));
+        }
+        return factory;
+    }
+
+    // Builds the data source factory for a progressive, dash or hls audio
+    // source, applying its headers and user agent to HTTP requests.
+    @SuppressWarnings("unchecked")
+    private DataSource.Factory buildDataSourceFactory(Map<?, ?> map) {
+        String userAgent = (String)map.get("userAgent");
+        Map<String, String> headers = (Map<String, String>)map.get("headers");
+        DataSource.Factory upstreamFactory;
+        if (MediaDownloads.isDownloaded(Uri.parse((String)map.get("uri")), (String)map.get("cacheKey"))) {
+            upstreamFactory = buildDownloadDataSourceFactory();
+        } else {
+            // Sources with the same headers share their upstream factory.
+            List<Object> key = Arrays.asList(userAgent, headers);
+            upstreamFactory = upstreamDataSourceFactories.get(key);
+            if (upstreamFactory == null) {
+                DefaultHttpDataSource.Factory httpDataSourceFactory = buildHttpDataSourceFactory(userAgent, headers);
+                // Only remote data is cached. Local files, assets and content
+                // URIs are still served directly by DefaultDataSource.
+                upstreamFactory = cache != null ? buildCacheDataSourceFactory(httpDataSourceFactory, true) : httpDataSourceFactory;
+                upstreamDataSourceFactories.put(key, upstreamFactory);
+            }
+        }
+        return new DefaultDataSource.Factory(context, upstreamFactory)
+            .setTransferListener(createTransferListener((String)map.get("id")));
+    }
+
+    // Returns a listener that times the transfers of the item with the given
+    // id, or null if timings are disabled.
+    private TransferListener createTransferListener(String id) {
+        return playbackTimings != null ? playbackTimings.createTransferListener(id) : null;
+    }
+
+    // Preloads the first maxBytes of the given audio sources and/or the next
+    // count items in playback order into the media cache.
+    private void preload(List<String> ids, Integer count, long maxBytes) {
+        if (preloader == null) {
+            throw new IllegalStateException("Preloading requires androidMediaCache to be enabled");
+        }
+        Map<String, MediaItem> mediaItems = new HashMap<>();
+        if (ids != null) {
+            for (String id : ids) {
+                MediaSource mediaSource = mediaSources.get(id);
+                if (mediaSource != null) {
+                    mediaItems.put(id, mediaSource.getMediaItem());
+                }
+            }
+        }
+        if (count != null) {
+            Timeline timeline = player.getCurrentTimeline();
+            Timeline.Window window = new Timeline.Window();
+            int repeatMode = player.getRepeatMode() == Player.REPEAT_MODE_ONE ? Player.REPEAT_MODE_OFF : player.getRepeatMode();
+            int index = player.getCurrentMediaItemIndex();
+            for (int i = 0; i < count && !timeline.isEmpty(); i++) {
+                index = timeline.getNextWindowIndex(index, repeatMode, player.getShuffleModeEnabled());
+                if (index == C.INDEX_UNSET) break;
+                MediaItem mediaItem = timeline.getWindow(index, window).mediaItem;
+                Object tag = mediaItem.localConfiguration != null ? mediaItem.localConfiguration.tag : null;
+                mediaItems.put(tag instanceof String ? (String)tag : mediaItem.mediaId, mediaItem);
+            }
+        }
+        for (Map.Entry<String, MediaItem> entry : mediaItems.entrySet()) {
+            MediaItem.LocalConfiguration localConfiguration = entry.getValue().localConfiguration;
+            if (localConfiguration == null) continue;
+            // Only progressive remote media can be meaningfully preloaded as
+            // a byte range. Local and downloaded media need no preloading.
+            if (MimeTypes.APPLICATION_M3U8.equals(localConfiguration.mimeType) || MimeTypes.APPLICATION_MPD.equals(localConfiguration.mimeType)) continue;
+            String scheme = localConfiguration.uri.getScheme();
+            if (!"http".equals(scheme) && !"https".equals(scheme)) continue;
+            if (MediaDownloads.isDownloaded(localConfiguration.uri, localConfiguration.customCacheKey)) continue;
+            preloader.preload(entry.getKey(), localConfiguration.uri, localConfiguration.customCacheKey, maxBytes, getPreloadDataSourceFactory(entry.getKey()));
+        }
+    }
+
+    // Returns the factory that preloads the audio source with the given id
+    // using its headers and user agent.
+    @VisibleForTesting
+    @SuppressWarnings("unchecked")
+    CacheDataSource.Factory getPreloadDataSourceFactory(String id) {
+        List<Object> key = sourceHeaders.get(id);
+        if (key == null) key = Arrays.asList(null, null);
+        CacheDataSource.Factory factory = preloadDataSourceFactories.get(key);
+        if (factory == null) {
+            factory = buildCacheDataSourceFactory(buildHttpDataSourceFactory((String)key.get(0), (Map<String, String>)key.get(1)), false);
+            preloadDataSourceFactories.put(key, factory);
+        }
+        return factory;
+    }
+
+    private void setLoadControl(String preset, Map<?, ?> loadControlMap) {
+        if (adaptiveLoadControl == null) {
+            throw new IllegalStateException("Changing the load control requires androidAdaptiveLoadControl to be enabled");
+        }
+        adaptiveLoadControl.setTargets(preset != null
+            ? AdaptiveLoadControl.Targets.forPreset(preset)
+            : AdaptiveLoadControl.Targets.fromMap(loadControlMap));
+    }
+
+    // Caps the bitrate of the audio variants that adaptive streams may select.
+    // A bitrate of 0 removes the cap.
+    private void setPreferredPeakBitRate(double bitRate) {
+        player.setTrackSelectionParameters(player.getTrackSelectionParameters().buildUpon()
+            .setMaxAudioBitrate(bitRate > 0 ? (int)Math.min(bitRate, Integer.MAX_VALUE) : Integer.MAX_VALUE)
+            .build());
+    }
+
+    private void setCanUseNetworkResourcesForLiveStreamingWhilePaused(boolean enabled) {
+        canUseNetworkResourcesForLiveStreamingWhilePaused = enabled;
+        if (enabled) {
+            playbackLoadControl.setLoadingSuspended(false);
+        } else {
+            maybeSuspendLiveLoading();
+        }
+    }
+
+    // Stops a paused live stream from loading further if it may not use the
+    // network. Since the stream moves on without us, playback resumes from
+    // the live edge. Loading is only suspended once ready, as the player would
+    // otherwise never become ready to complete a load or seek.
+    private void maybeSuspendLiveLoading() {
+        if (!canUseNetworkResourcesForLiveStreamingWhilePaused && !player.getPlayWhenReady() && processingState == ProcessingState.ready && player.isCurrentMediaItemLive()) {
+            playbackLoadControl.setLoadingSuspended(true);
+        }
+    }
+
+    @VisibleForTesting
+    boolean isLiveLoadingSuspended() {
+        return playbackLoadControl.isLoadingSuspended();
+    }
+
+    private void resumeLiveLoading() {
+        if (playbackLoadControl.isLoadingSuspended()) {
+            playbackLoadControl.setLoadingSuspended(false);
+            player.seekToDefaultPosition();
+        }
+    }
+
+    private void cancelPreloads() {
+        if (preloader != null) {
+            preloader.cancelAll();
+        }
     }
 
     private void load(final MediaSource mediaSource, final long initialPosition, final Integer initialIndex, final Result result) {
-        this.initialPos = initialPosition;
-        this.initialIndex = initialIndex;
         currentIndex = initialIndex != null ? initialIndex : 0;
         switch (processingState) {
         case none:
@@ -711,32 +1265,72 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             break;
         }
         errorCount = 0;
+        cancelRetry();
+        cancelPreloads();
+        playbackLoadControl.setLoadingSuspended(false);
+        if (playbackTimings != null) playbackTimings.onLoad();
         prepareResult = result;
         updatePosition();
         processingState = ProcessingState.loading;
         enqueuePlaybackEvent();
         this.mediaSource = mediaSource;
-        // TODO: pass in initial position here.
-        player.setMediaSource(mediaSource);
+        if (initialPosition != C.TIME_UNSET || initialIndex != null) {
+            player.setMediaSources(Collections.singletonList(mediaSource), initialIndex != null ? initialIndex : 0, initialPosition);
+        } else {
+            player.setMediaSource(mediaSource);
+        }
         player.prepare();
     }
 
+    // Only players built with the default configuration on the main looper
+    // can be shared through the pool.
+    private boolean isPoolable() {
+        return playerPool != null && playerThread == null && loadControl == null && livePlaybackSpeedControl == null && !offloadSchedulingEnabled;
+    }
+
+    // Creates a builder with the settings shared by pooled and unpooled
+    // players.
+    static ExoPlayer.Builder createPlayerBuilder(Context context, Clock clock) {
+        ExoPlayer.Builder builder = new ExoPlayer.Builder(context);
+        builder.setBandwidthMeter(PersistedBandwidthMeter.getInstance(context));
+        if (clock != null) {
+            builder.setClock(clock);
+        }
+        return builder;
+    }
+
     private void ensurePlayerInitialized() {
         if (player == null) {
-            ExoPlayer.Builder builder = new ExoPlayer.Builder(context);
-            if (loadControl != null) {
-                builder.setLoadControl(loadControl);
-            }
-            if (livePlaybackSpeedControl != null) {
-                builder.setLivePlaybackSpeedControl(livePlaybackSpeedControl);
-            }
-            if (offloadSchedulingEnabled) {
-                builder.setRenderersFactory(new DefaultRenderersFactory(context).setEnableAudioOffload(true));
+            if (isPoolable()) {
+                player = playerPool.acquire();
+                if (player == null) {
+                    player = playerPool.buildPlayer();
+                }
+                playbackLoadControl = playerPool.getLoadControl(player);
+            } else {
+                playbackLoadControl = new PlaybackLoadControl(loadControl != null ? loadControl : new DefaultLoadControl());
+                ExoPlayer.Builder builder = createPlayerBuilder(context, clock);
+                builder.setLooper(handler.getLooper());
+                builder.setLoadControl(playbackLoadControl);
+                if (livePlaybackSpeedControl != null) {
+                    builder.setLivePlaybackSpeedControl(livePlaybackSpeedControl);
+                }
+                if (offloadSchedulingEnabled) {
+                    builder.setRenderersFactory(new DefaultRenderersFactory(context).setEnableAudioOffload(true));
+                }
+                player = builder.build();
             }
-            player = builder.build();
             player.experimentalSetOffloadSchedulingEnabled(offloadSchedulingEnabled);
             setAudioSessionId(player.getAudioSessionId());
             player.addListener(this);
+            if (playbackTimings != null) {
+                player.addAnalyticsListener(playbackTimings);
+            }
+            player.addAnalyticsListener(playbackMetrics);
+            player.addAnalyticsListener(bufferLoadListener);
+            if (metricsSnapshotInterval > 0) {
+                handler.postDelayed(metricsSnapshotter, metricsSnapshotInterval);
+            }
         }
     }
 
@@ -790,8 +1384,23 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         ((Equalizer)audioEffectsMap.get("AndroidEqualizer")).setBandLevel((short)bandIndex, (short)(Math.round(gain * 1000.0)));
     }
 
+    private Map<String, Object> cacheGetStatistics() {
+        if (cache == null) {
+            return mapOf("statistics", null);
+        }
+        return mapOf(
+            "statistics", mapOf(
+                "hitBytes", cacheHitBytes.get(),
+                "missBytes", cacheMissBytes.get(),
+                "cacheSize", cache.getCacheSpace(),
+                "maxCacheSize", MediaCache.getMaxCacheSize()
+            )
+        );
+    }
+
     /// Creates an event based on the current state.
-    private Map<String, Object> createPlaybackEvent() {
+    @VisibleForTesting
+    Map<String, Object> createPlaybackEvent() {
         final Map<String, Object> event = new HashMap<String, Object>();
         Long duration = getDuration() == C.TIME_UNSET ? null : (1000 * getDuration());
         bufferedPosition = player != null ? player.getBufferedPosition() : 0L;
@@ -799,16 +1408,74 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         event.put("updatePosition", 1000 * updatePosition);
         event.put("updateTime", updateTime);
         event.put("bufferedPosition", 1000 * Math.max(updatePosition, bufferedPosition));
-        event.put("icyMetadata", collectIcyMetadata());
+        event.put("icyMetadata", collectIcyMetadata(icyInfo, icyHeaders));
         event.put("duration", duration);
         event.put("currentIndex", currentIndex);
         event.put("androidAudioSessionId", audioSessionId);
         return event;
     }
 
+    // Writes the current state into the binary encoder. Only used when
+    // binary playback events are enabled.
+    private void encodePlaybackEvent() {
+        final long duration = getDuration();
+        bufferedPosition = player != null ? player.getBufferedPosition() : 0L;
+        playbackEventEncoder.set(PlaybackEventEncoder.PROCESSING_STATE, processingState.ordinal());
+        playbackEventEncoder.set(PlaybackEventEncoder.UPDATE_POSITION, 1000 * updatePosition);
+        playbackEventEncoder.set(PlaybackEventEncoder.UPDATE_TIME, updateTime);
+        playbackEventEncoder.set(PlaybackEventEncoder.BUFFERED_POSITION, 1000 * Math.max(updatePosition, bufferedPosition));
+        playbackEventEncoder.set(PlaybackEventEncoder.DURATION, duration == C.TIME_UNSET ? PlaybackEventEncoder.NULL : 1000 * duration);
+        playbackEventEncoder.set(PlaybackEventEncoder.CURRENT_INDEX, currentIndex);
+        playbackEventEncoder.set(PlaybackEventEncoder.ANDROID_AUDIO_SESSION_ID, audioSessionId);
+        playbackEventEncoder.setIcyMetadata(icyInfo, icyHeaders);
+    }
+
+    private boolean hasPendingPlaybackEvent() {
+        return playbackEventEncoder != null ? playbackEventPending : pendingPlaybackEvent != null;
+    }
+
     // Broadcast the pending playback event if it was set.
+    //
+    // If event coalescing is enabled and an event was sent less than
+    // eventCoalescingWindow ago, the broadcast is deferred until the window
+    // has passed, and any events enqueued in the meantime replace it. The
+    // completed and idle states are never deferred.
     private void broadcastPendingPlaybackEvent() {
-        if (pendingPlaybackEvent != null) {
+        if (!hasPendingPlaybackEvent()) return;
+        if (eventCoalescingWindow > 0 && processingState != ProcessingState.completed && processingState != ProcessingState.none) {
+            long delay = lastPlaybackEventTime + eventCoalescingWindow - SystemClock.elapsedRealtime();
+            if (delay > 0) {
+                handler.removeCallbacks(playbackEventFlusher);
+                handler.postDelayed(playbackEventFlusher, delay);
+                return;
+            }
+        }
+        sendPendingPlaybackEvent();
+    }
+
+    private void sendPendingPlaybackEvent() {
+        handler.removeCallbacks(playbackEventFlusher);
+        if (!hasPendingPlaybackEvent()) return;
+        lastPlaybackEventTime = SystemClock.elapsedRealtime();
+        if (playbackEventEncoder != null) {
+            playbackEventPending = false;
+            ByteBuffer message = playbackEventEncoder.encode();
+            if (message != null) {
+                if (playerThread != null) {
+                    // The encoder reuses its buffer, so copy it before handing
+                    // it over to the platform thread.
+                    final ByteBuffer copy = ByteBuffer.allocateDirect(message.position());
+                    message.flip();
+                    copy.put(message);
+                    mainHandler.post(() -> messenger.send(binaryEventChannelName, copy));
+                } else {
+                    messenger.send(binaryEventChannelName, message);
+                }
+                eventChannel.countEmitted();
+            } else {
+                eventChannel.countSuppressed();
+            }
+        } else {
             eventChannel.success(pendingPlaybackEvent);
             pendingPlaybackEvent = null;
         }
@@ -825,8 +1492,15 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     // broadcastPendingPlaybackEvent, only the last event is
     // broadcast.
     private void enqueuePlaybackEvent() {
-        final Map<String, Object> event = new HashMap<String, Object>();
-        pendingPlaybackEvent = createPlaybackEvent();
+        if (hasPendingPlaybackEvent()) {
+            eventChannel.countSuppressed();
+        }
+        if (playbackEventEncoder != null) {
+            encodePlaybackEvent();
+            playbackEventPending = true;
+        } else {
+            pendingPlaybackEvent = createPlaybackEvent();
+        }
     }
 
     // Broadcasts a new event immediately.
@@ -835,7 +1509,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         broadcastPendingPlaybackEvent();
     }
 
-    private Map<String, Object> collectIcyMetadata() {
+    static Map<String, Object> collectIcyMetadata(IcyInfo icyInfo, IcyHeaders icyHeaders) {
         final Map<String, Object> icyData = new HashMap<>();
         if (icyInfo != null) {
             final Map<String, String> info = new HashMap<>();
@@ -857,9 +1531,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     private long getCurrentPosition() {
-        if (initialPos != C.TIME_UNSET) {
-            return initialPos;
-        } else if (processingState == ProcessingState.none || processingState == ProcessingState.loading) {
+        if (processingState == ProcessingState.none || processingState == ProcessingState.loading) {
             long pos = player.getCurrentPosition();
             if (pos < 0) pos = 0;
             return pos;
@@ -879,6 +1551,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
     }
 
     private void sendError(String errorCode, String errorMsg) {
+        // Errors must not overtake a deferred playback event.
+        sendPendingPlaybackEvent();
         if (prepareResult != null) {
             prepareResult.error(errorCode, errorMsg, null);
             prepareResult = null;
@@ -887,6 +1561,29 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         eventChannel.error(errorCode, errorMsg, null);
     }
 
+    /**
+     * Returns the extractors factory for a progressive source, hinted with
+     * the container format when the app supplied one that the default
+     * factory cannot infer by itself: an explicit MIME type or an extension
+     * in the URL fragment. The hint only reorders the extractors.
+     */
+    @VisibleForTesting
+    ExtractorsFactory buildExtractorsFactory(Uri uri, String mimeType) {
+        String scheme = uri.getScheme();
+        if (StreamDataSource.SCHEME.equals(scheme) || FlutterAssetDataSource.SCHEME.equals(scheme) || "content".equals(scheme)) {
+            return extractorsFactory;
+        }
+        String fragment = uri.getFragment();
+        String extension = fragment != null && fragment.contains(".") ? getLowerCaseExtension(uri) : null;
+        if (extension != null && (extension.isEmpty() || extension.contains("/"))) {
+            extension = null;
+        }
+        if (mimeType == null && extension == null) {
+            return extractorsFactory;
+        }
+        return new HintedExtractorsFactory(extractorsFactory, mimeType, extension);
+    }
+
     private String getLowerCaseExtension(Uri uri) {
         // Until ExoPlayer provides automatic detection of media source types, we
         // rely on the file extension. When this is absent, as a temporary
@@ -894,6 +1591,7 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         // fragment. e.g.  https://somewhere.com/somestream?x=etc#.m3u8
         String fragment = uri.getFragment();
         String filename = fragment != null && fragment.contains(".") ? fragment : uri.getPath();
+        if (filename == null) return null;
         return filename.replaceAll("^.*\\.", "").toLowerCase();
     }
 
@@ -906,6 +1604,8 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             playResult.success(new HashMap<String, Object>());
         }
         playResult = result;
+        if (playbackTimings != null) playbackTimings.onPlay();
+        resumeLiveLoading();
         player.setPlayWhenReady(true);
         updatePosition();
         if (processingState == ProcessingState.completed && playResult != null) {
@@ -916,7 +1616,10 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
 
     public void pause() {
         if (!player.getPlayWhenReady()) return;
+        if (playbackTimings != null) playbackTimings.onPause();
+        PersistedBandwidthMeter.save(context);
         player.setPlayWhenReady(false);
+        maybeSuspendLiveLoading();
         updatePosition();
         if (playResult != null) {
             playResult.success(new HashMap<String, Object>());
@@ -964,9 +1667,17 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         abortSeek();
         seekPos = position;
         seekResult = result;
+        if (playbackTimings != null) playbackTimings.onSeek();
+        // An explicit seek overrides the jump to the live edge on resume.
+        playbackLoadControl.setLoadingSuspended(false);
         try {
             int windowIndex = index != null ? index : player.getCurrentMediaItemIndex();
             player.seekTo(windowIndex, position);
+            if (retryPending) {
+                // Retry at the new position straight away.
+                cancelRetry();
+                player.prepare();
+            }
         } catch (RuntimeException e) {
             seekResult = null;
             seekPos = null;
@@ -974,7 +1685,46 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
         }
     }
 
-    public void dispose() {
+    /**
+     * Releases the player, then runs onDisposed on the main thread. Since the
+     * final events are also delivered on the main thread, onDisposed runs
+     * after them, so a player created with the same id afterwards cannot
+     * receive them.
+     */
+    // Releases the player and runs onDisposed once it is released. Must be
+    // called on the main thread. Disposing again runs onDisposed once the
+    // first dispose completes, or straight away if it already has.
+    public void dispose(final Runnable onDisposed) {
+        if (disposeCallbacks == null) {
+            onDisposed.run();
+            return;
+        }
+        disposeCallbacks.add(onDisposed);
+        if (disposeCallbacks.size() > 1) return;
+        if (!isPlayerThread()) {
+            // Release the player on its own thread without blocking the
+            // caller, then stop the thread.
+            handler.post(() -> {
+                release();
+                playerThread.quit();
+                mainHandler.post(this::onDisposed);
+            });
+            return;
+        }
+        release();
+        onDisposed();
+    }
+
+    private void onDisposed() {
+        List<Runnable> callbacks = disposeCallbacks;
+        disposeCallbacks = null;
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private void release() {
+        released = true;
         if (processingState == ProcessingState.loading) {
             abortExistingConnection();
         }
@@ -982,15 +1732,39 @@ public class AudioPlayer implements MethodCallHandler, Player.Listener, Metadata
             playResult.success(new HashMap<String, Object>());
             playResult = null;
         }
+        cancelPreloads();
+        stopWatchingBuffer();
+        handler.removeCallbacks(metricsSnapshotter);
+        cancelRetry();
+        PersistedBandwidthMeter.save(context);
         mediaSources.clear();
+        childIds.clear();
+        sourceHeaders.clear();
+        upstreamDataSourceFactories.clear();
+        preloadDataSourceFactories.clear();
         mediaSource = null;
         clearAudioEffects();
         if (player != null) {
-            player.release();
+            if (isPoolable()) {
+                player.removeListener(this);
+                if (playbackTimings != null) {
+                    player.removeAnalyticsListener(playbackTimings);
+                }
+                player.removeAnalyticsListener(playbackMetrics);
+                player.removeAnalyticsListener(bufferLoadListener);
+                playerPool.release(player);
+            } else {
+                player.release();
+            }
             player = null;
             processingState = ProcessingState.none;
             broadcastImmediatePlaybackEvent();
         }
+        // The load control listens for memory pressure from construction,
+        // even if no player was ever built.
+        if (adaptiveLoadControl != null) {
+            adaptiveLoadControl.release();
+        }
         eventChannel.endOfStream();
         dataEventChannel.endOfStream();
     }
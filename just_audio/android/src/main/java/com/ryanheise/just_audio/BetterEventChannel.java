@@ -1,18 +1,40 @@
 package com.ryanheise.just_audio;
 
+import android.os.Handler;
+import android.os.Looper;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.EventChannel.EventSink;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Events may be emitted from any thread. Events emitted off the platform
+// thread are forwarded to it in order, and all state other than the counters
+// is only touched on the platform thread.
 public class BetterEventChannel implements EventSink {
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final boolean deduplicate;
     private EventSink eventSink;
+    private Object lastEvent;
+    private final AtomicLong emittedCount = new AtomicLong();
+    private final AtomicLong suppressedCount = new AtomicLong();
 
 	public BetterEventChannel(final BinaryMessenger messenger, final String id) {
+        this(messenger, id, false);
+    }
+
+    // If deduplicate is true, events equal to the last event sent are
+    // dropped. This suits channels whose events are complete states rather
+    // than a sequence of messages.
+	public BetterEventChannel(final BinaryMessenger messenger, final String id, final boolean deduplicate) {
+        this.deduplicate = deduplicate;
         EventChannel eventChannel = new EventChannel(messenger, id);
         eventChannel.setStreamHandler(new EventChannel.StreamHandler() {
             @Override
             public void onListen(final Object arguments, final EventSink eventSink) {
                 BetterEventChannel.this.eventSink = eventSink;
+                // A new listener has not seen any event yet.
+                lastEvent = null;
             }
 
             @Override
@@ -22,18 +44,66 @@ public class BetterEventChannel implements EventSink {
         });
 	}
 
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
     @Override
-    public void success(Object event) {
-        if (eventSink != null) eventSink.success(event);
+    public void success(final Object event) {
+        if (!isMainThread()) {
+            mainHandler.post(() -> success(event));
+            return;
+        }
+        if (eventSink == null) return;
+        if (deduplicate) {
+            if (event != null && event.equals(lastEvent)) {
+                suppressedCount.incrementAndGet();
+                return;
+            }
+            lastEvent = event;
+        }
+        emittedCount.incrementAndGet();
+        eventSink.success(event);
     }
 
     @Override
-    public void error(String errorCode, String errorMessage, Object errorDetails) {
-        if (eventSink != null) eventSink.error(errorCode, errorMessage, errorDetails);
+    public void error(final String errorCode, final String errorMessage, final Object errorDetails) {
+        if (!isMainThread()) {
+            mainHandler.post(() -> error(errorCode, errorMessage, errorDetails));
+            return;
+        }
+        if (eventSink == null) return;
+        lastEvent = null;
+        emittedCount.incrementAndGet();
+        eventSink.error(errorCode, errorMessage, errorDetails);
     }
 
     @Override
     public void endOfStream() {
+        if (!isMainThread()) {
+            mainHandler.post(() -> endOfStream());
+            return;
+        }
         if (eventSink != null) eventSink.endOfStream();
     }
+
+    // Counts an event that was sent by other means on behalf of this
+    // channel.
+    public void countEmitted() {
+        emittedCount.incrementAndGet();
+    }
+
+    // Counts an event that was merged into a later one before reaching this
+    // channel.
+    public void countSuppressed() {
+        suppressedCount.incrementAndGet();
+    }
+
+    public long getEmittedCount() {
+        return emittedCount.get();
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
 }
@@ -0,0 +1,171 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.net.Uri;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.upstream.BaseDataSource;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceException;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import io.flutter.FlutterInjector;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A DataSource that plays Flutter assets straight out of the APK.
+ *
+ * URIs have the form asset:///{assetKey}, where the asset key is resolved to
+ * its location in the APK through the Flutter loader. Assets stored
+ * uncompressed are read in place by offset through their file descriptor.
+ * Compressed assets are streamed through the AssetManager instead.
+ */
+public class FlutterAssetDataSource extends BaseDataSource {
+    public static final String SCHEME = "asset";
+
+    private final AssetManager assetManager;
+    private Uri uri;
+    private AssetFileDescriptor assetFileDescriptor;
+    private FileInputStream fileInputStream;
+    private FileChannel channel;
+    private long filePosition;
+    private InputStream inputStream;
+    private long bytesRemaining;
+    private boolean opened;
+
+    public FlutterAssetDataSource(Context context) {
+        super(false);
+        this.assetManager = context.getAssets();
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        uri = dataSpec.uri;
+        String path = uri.getPath();
+        if (path == null) {
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_FILE_NOT_FOUND);
+        }
+        String assetKey = path.startsWith("/") ? path.substring(1) : path;
+        String lookupKey = FlutterInjector.instance().flutterLoader().getLookupKeyForAsset(assetKey);
+        transferInitializing(dataSpec);
+        long length;
+        try {
+            assetFileDescriptor = assetManager.openFd(lookupKey);
+        } catch (FileNotFoundException e) {
+            // Thrown for compressed assets as well as missing ones.
+            assetFileDescriptor = null;
+        }
+        try {
+            if (assetFileDescriptor != null) {
+                fileInputStream = new FileInputStream(assetFileDescriptor.getFileDescriptor());
+                channel = fileInputStream.getChannel();
+                length = assetFileDescriptor.getLength();
+                if (length == AssetFileDescriptor.UNKNOWN_LENGTH) {
+                    length = channel.size() - assetFileDescriptor.getStartOffset();
+                }
+                if (dataSpec.position > length) {
+                    throw new DataSourceException(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE);
+                }
+                // Positional reads leave the descriptor's shared offset alone.
+                filePosition = assetFileDescriptor.getStartOffset() + dataSpec.position;
+                length -= dataSpec.position;
+            } else {
+                inputStream = assetManager.open(lookupKey, AssetManager.ACCESS_RANDOM);
+                long skipped = inputStream.skip(dataSpec.position);
+                if (skipped < dataSpec.position) {
+                    throw new DataSourceException(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE);
+                }
+                int available = inputStream.available();
+                length = available == Integer.MAX_VALUE ? C.LENGTH_UNSET : available;
+            }
+        } catch (DataSourceException e) {
+            throw e;
+        } catch (FileNotFoundException e) {
+            throw new DataSourceException(e, PlaybackException.ERROR_CODE_IO_FILE_NOT_FOUND);
+        } catch (IOException e) {
+            throw new DataSourceException(e, PlaybackException.ERROR_CODE_IO_UNSPECIFIED);
+        }
+        if (dataSpec.length != C.LENGTH_UNSET) {
+            bytesRemaining = length == C.LENGTH_UNSET ? dataSpec.length : Math.min(dataSpec.length, length);
+        } else {
+            bytesRemaining = length;
+        }
+        opened = true;
+        transferStarted(dataSpec);
+        return bytesRemaining;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (bytesRemaining == 0) return C.RESULT_END_OF_INPUT;
+        int count = bytesRemaining == C.LENGTH_UNSET ? length : (int)Math.min(length, bytesRemaining);
+        int read;
+        try {
+            if (channel != null) {
+                read = channel.read(ByteBuffer.wrap(buffer, offset, count), filePosition);
+                if (read > 0) filePosition += read;
+            } else {
+                read = inputStream.read(buffer, offset, count);
+            }
+        } catch (IOException e) {
+            throw new DataSourceException(e, PlaybackException.ERROR_CODE_IO_UNSPECIFIED);
+        }
+        if (read == -1) return C.RESULT_END_OF_INPUT;
+        if (bytesRemaining != C.LENGTH_UNSET) bytesRemaining -= read;
+        bytesTransferred(read);
+        return read;
+    }
+
+    @Override
+    public Uri getUri() {
+        return uri;
+    }
+
+    @Override
+    public void close() throws IOException {
+        uri = null;
+        try {
+            if (fileInputStream != null) fileInputStream.close();
+            if (inputStream != null) inputStream.close();
+            if (assetFileDescriptor != null) assetFileDescriptor.close();
+        } catch (IOException e) {
+            throw new DataSourceException(e, PlaybackException.ERROR_CODE_IO_UNSPECIFIED);
+        } finally {
+            fileInputStream = null;
+            channel = null;
+            inputStream = null;
+            assetFileDescriptor = null;
+            if (opened) {
+                opened = false;
+                transferEnded();
+            }
+        }
+    }
+
+    public static class Factory implements DataSource.Factory {
+        private final Context context;
+        private final TransferListener transferListener;
+
+        public Factory(Context context, TransferListener transferListener) {
+            this.context = context;
+            this.transferListener = transferListener;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            FlutterAssetDataSource dataSource = new FlutterAssetDataSource(context);
+            if (transferListener != null) {
+                dataSource.addTransferListener(transferListener);
+            }
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ExtractorsFactory that puts the extractor for a known container format
+ * first, so that preparing a source of that format sniffs one extractor
+ * rather than working through the whole list.
+ *
+ * The format is taken from an explicit MIME type if there is one, otherwise
+ * from the extension in the URL fragment (e.g. #.mp3). A path extension is
+ * not needed as a hint since the delegate already orders by it. The hint
+ * only reorders the extractors: the remaining ones are still returned after
+ * the hinted one, so if the hint turns out to be wrong the input falls back
+ * to being sniffed by all of them.
+ */
+public class HintedExtractorsFactory implements ExtractorsFactory {
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final ExtractorsFactory delegate;
+    private final String mimeType;
+    private final String extension;
+
+    public HintedExtractorsFactory(ExtractorsFactory delegate, String mimeType, String extension) {
+        this.delegate = delegate;
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    @Override
+    public Extractor[] createExtractors() {
+        return delegate.createExtractors();
+    }
+
+    @Override
+    public Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+        // The delegate orders extractors by the Content-Type header and then
+        // by the last path segment of the URI, so the hints are passed in
+        // that form.
+        if (mimeType != null) {
+            Map<String, List<String>> hintedHeaders = new HashMap<>(responseHeaders);
+            hintedHeaders.remove(CONTENT_TYPE);
+            hintedHeaders.put(CONTENT_TYPE, Collections.singletonList(mimeType));
+            responseHeaders = hintedHeaders;
+        } else if (extension != null && !extension.isEmpty()) {
+            uri = uri.buildUpon().path("/hint." + extension).build();
+        }
+        return delegate.createExtractors(uri, responseHeaders);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ryanheise.just_audio;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Decides how load errors are retried.
+ *
+ * Within a load, a failed request is retried up to maxRetries times, or as
+ * many times as DefaultLoadErrorHandlingPolicy would if null, after an
+ * exponentially increasing delay starting at initialRetryDelayMs and capped
+ * at maxRetryDelayMs, randomised by up to +/- jitter of itself so that many
+ * clients do not retry in lockstep. Errors that DefaultLoadErrorHandlingPolicy
+ * treats as permanent are not retried.
+ *
+ * Once ExoPlayer gives up and reports a player error, the player resumes the
+ * failing item at its last position up to maxItemRetries times, using the
+ * same backoff, before skipping to the next item. After maxSkippedItems items
+ * of a playlist have failed, playback stops at the next failing item.
+ */
+public class LoadErrorPolicy extends DefaultLoadErrorHandlingPolicy {
+    private final Random random = new Random();
+    public final Integer maxRetries;
+    public final long initialRetryDelayMs;
+    public final long maxRetryDelayMs;
+    public final double jitter;
+    public final int maxItemRetries;
+    public final int maxSkippedItems;
+
+    public LoadErrorPolicy(Integer maxRetries, long initialRetryDelayMs, long maxRetryDelayMs, double jitter, int maxItemRetries, int maxSkippedItems) {
+        // DefaultLoadErrorHandlingPolicy only picks its retry count by data
+        // type, such as 6 for progressive live streams, when none is given.
+        super();
+        this.maxRetries = maxRetries;
+        this.initialRetryDelayMs = initialRetryDelayMs;
+        this.maxRetryDelayMs = maxRetryDelayMs;
+        this.jitter = jitter;
+        this.maxItemRetries = maxItemRetries;
+        this.maxSkippedItems = maxSkippedItems;
+    }
+
+    public LoadErrorPolicy() {
+        this(null, 500, 8000, 0.2, 3, 5);
+    }
+
+    /** Decodes a policy in the format of AndroidLoadErrorPolicyMessage. */
+    public static LoadErrorPolicy fromMap(Map<?, ?> map) {
+        return new LoadErrorPolicy(
+            (Integer)map.get("maxRetries"),
+            AudioPlayer.getLong(map.get("initialRetryDelay")) / 1000,
+            AudioPlayer.getLong(map.get("maxRetryDelay")) / 1000,
+            (Double)map.get("jitter"),
+            (Integer)map.get("maxItemRetries"),
+            (Integer)map.get("maxSkippedItems"));
+    }
+
+    @Override
+    public int getMinimumLoadableRetryCount(int dataType) {
+        return maxRetries != null ? maxRetries : super.getMinimumLoadableRetryCount(dataType);
+    }
+
+    @Override
+    public long getRetryDelayMsFor(LoadErrorInfo loadErrorInfo) {
+        if (super.getRetryDelayMsFor(loadErrorInfo) == C.TIME_UNSET) return C.TIME_UNSET;
+        return getRetryDelayMs(loadErrorInfo.errorCount);
+    }
+
+    /** Returns the delay before the given attempt, counting from 1. */
+    public long getRetryDelayMs(int attempt) {
+        double delay = initialRetryDelayMs * Math.pow(2, Math.max(0, attempt - 1));
+        delay = Math.min(delay, maxRetryDelayMs);
+        synchronized (random) {
+            delay *= 1 + jitter * (2 * random.nextDouble() - 1);
+        }
+        return Math.max(0, (long)delay);
+    }
+
+    /**
+     * Returns whether the item that failed with this error may play if it is
+     * prepared again, as opposed to failing the same way.
+     */
+    public static boolean isRetryable(PlaybackException error) {
+        switch (error.errorCode) {
+        case PlaybackException.ERROR_CODE_BEHIND_LIVE_WINDOW:
+        case PlaybackException.ERROR_CODE_TIMEOUT:
+        case PlaybackException.ERROR_CODE_IO_UNSPECIFIED:
+        case PlaybackException.ERROR_CODE_IO_NETWORK_CONNECTION_FAILED:
+        case PlaybackException.ERROR_CODE_IO_NETWORK_CONNECTION_TIMEOUT:
+            return true;
+        case PlaybackException.ERROR_CODE_IO_BAD_HTTP_STATUS:
+            // Server errors may be transient, client errors are not.
+            Throwable cause = error.getCause();
+            return cause instanceof HttpDataSource.InvalidResponseCodeException
+                && ((HttpDataSource.InvalidResponseCodeException)cause).responseCode >= 500;
+        default:
+            return false;
+        }
+    }
+}
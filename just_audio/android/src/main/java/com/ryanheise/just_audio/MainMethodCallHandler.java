@@ -1,7 +1,10 @@
 package com.ryanheise.just_audio;
 
 import android.content.Context;
+import android.os.Build;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.exoplayer2.util.Clock;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
@@ -17,11 +20,31 @@ public class MainMethodCallHandler implements MethodCallHandler {
     private final BinaryMessenger messenger;
 
     private final Map<String, AudioPlayer> players = new HashMap<>();
+    private final Map<String, SoundEffectPlayer> soundEffectPlayers = new HashMap<>();
+    private final PlayerPool playerPool;
+    // Null outside tests.
+    private final Clock clock;
+    private final AudioPlayer.ProgressiveMediaSourceFactory progressiveMediaSourceFactory;
+    private MediaDownloader mediaDownloader;
 
     public MainMethodCallHandler(Context applicationContext,
             BinaryMessenger messenger) {
+        this(applicationContext, messenger, null, null);
+    }
+
+    /**
+     * Creates a handler whose players run on clock and create the media
+     * sources of progressive audio sources with progressiveMediaSourceFactory.
+     */
+    @VisibleForTesting
+    MainMethodCallHandler(Context applicationContext,
+            BinaryMessenger messenger, Clock clock,
+            AudioPlayer.ProgressiveMediaSourceFactory progressiveMediaSourceFactory) {
         this.applicationContext = applicationContext;
         this.messenger = messenger;
+        this.clock = clock;
+        this.progressiveMediaSourceFactory = progressiveMediaSourceFactory;
+        this.playerPool = new PlayerPool(applicationContext, clock);
     }
 
     @Override
@@ -34,7 +57,7 @@ public class MainMethodCallHandler implements MethodCallHandler {
                 break;
             }
             List<Object> rawAudioEffects = call.argument("androidAudioEffects");
-            players.put(id, new AudioPlayer(applicationContext, messenger, id, call.argument("audioLoadConfiguration"), rawAudioEffects, call.argument("androidOffloadSchedulingEnabled")));
+            players.put(id, new AudioPlayer(applicationContext, messenger, id, call.argument("audioLoadConfiguration"), rawAudioEffects, call.argument("androidOffloadSchedulingEnabled"), call.argument("androidBinaryPlaybackEvents"), AudioPlayer.getLong(call.argument("androidEventCoalescingWindow")), call.argument("androidPlayerThreadEnabled"), AudioPlayer.getLong(call.argument("androidMetricsSnapshotInterval")), playerPool, clock, progressiveMediaSourceFactory));
             result.success(null);
             break;
         }
@@ -42,14 +65,66 @@ public class MainMethodCallHandler implements MethodCallHandler {
             String id = call.argument("id");
             AudioPlayer player = players.get(id);
             if (player != null) {
+                // Reply once the player is released so that a new player
+                // with the same id cannot receive its final events.
+                player.dispose(() -> {
+                    if (players.get(id) == player) {
+                        players.remove(id);
+                    }
+                    result.success(new HashMap<String, Object>());
+                });
+            } else {
+                result.success(new HashMap<String, Object>());
+            }
+            break;
+        }
+        case "disposeAllPlayers": {
+            dispose(() -> result.success(new HashMap<String, Object>()));
+            break;
+        }
+        case "initSoundEffectPlayer": {
+            String id = call.argument("id");
+            if (soundEffectPlayers.containsKey(id)) {
+                result.error("Platform sound effect player " + id + " already exists", null, null);
+                break;
+            }
+            if (Build.VERSION.SDK_INT < 21) {
+                result.error("SoundEffectPlayer requires API level 21", null, null);
+                break;
+            }
+            soundEffectPlayers.put(id, new SoundEffectPlayer(applicationContext, messenger, id, AudioPlayer.getLong(call.argument("maxCacheSize")), call.argument("maxVoices")));
+            result.success(new HashMap<String, Object>());
+            break;
+        }
+        case "disposeSoundEffectPlayer": {
+            String id = call.argument("id");
+            SoundEffectPlayer player = soundEffectPlayers.remove(id);
+            if (player != null && Build.VERSION.SDK_INT >= 21) {
                 player.dispose();
-                players.remove(id);
             }
             result.success(new HashMap<String, Object>());
             break;
         }
-        case "disposeAllPlayers": {
-            dispose();
+        case "configurePlayerPool": {
+            Long idleTimeout = AudioPlayer.getLong(call.argument("idleTimeout"));
+            playerPool.configure(call.argument("size"), call.argument("maxIdleCount"), idleTimeout != null ? idleTimeout / 1000 : 0);
+            result.success(new HashMap<String, Object>());
+            break;
+        }
+        case "initDownloadManager": {
+            Long progressInterval = AudioPlayer.getLong(call.argument("progressInterval"));
+            // Reporting progress with no interval would never yield.
+            if (progressInterval == null || progressInterval / 1000 <= 0) {
+                result.error("progressInterval must be at least 1ms", null, null);
+                break;
+            }
+            // Reinitializing applies the new configuration.
+            if (mediaDownloader != null) {
+                mediaDownloader.dispose();
+            }
+            Long maxBytes = AudioPlayer.getLong(call.argument("maxBytes"));
+            MediaDownloads.setIgnoredQueryParameters(call.argument("ignoredQueryParameters"));
+            mediaDownloader = new MediaDownloader(applicationContext, messenger, call.argument("maxParallelDownloads"), call.argument("maxParallelSegments"), maxBytes != null ? maxBytes : 0, progressInterval / 1000);
             result.success(new HashMap<String, Object>());
             break;
         }
@@ -60,9 +135,40 @@ public class MainMethodCallHandler implements MethodCallHandler {
     }
 
     void dispose() {
-        for (AudioPlayer player : new ArrayList<AudioPlayer>(players.values())) {
-            player.dispose();
+        dispose(() -> {});
+    }
+
+    // Disposes of everything and runs onDisposed on the main thread once all
+    // players are released. Players stay registered until released, so that
+    // disposing again also waits for them.
+    private void dispose(final Runnable onDisposed) {
+        final List<Map.Entry<String, AudioPlayer>> disposedPlayers = new ArrayList<Map.Entry<String, AudioPlayer>>(players.entrySet());
+        if (Build.VERSION.SDK_INT >= 21) {
+            for (SoundEffectPlayer player : soundEffectPlayers.values()) {
+                player.dispose();
+            }
+        }
+        soundEffectPlayers.clear();
+        playerPool.clear();
+        if (mediaDownloader != null) {
+            mediaDownloader.dispose();
+            mediaDownloader = null;
+        }
+        final int[] remaining = { disposedPlayers.size() };
+        if (remaining[0] == 0) {
+            onDisposed.run();
+        }
+        for (Map.Entry<String, AudioPlayer> entry : disposedPlayers) {
+            final String id = entry.getKey();
+            final AudioPlayer player = entry.getValue();
+            player.dispose(() -> {
+                if (players.get(id) == player) {
+                    players.remove(id);
+                }
+                if (--remaining[0] == 0) {
+                    onDisposed.run();
+                }
+            });
         }
-        players.clear();
     }
 }
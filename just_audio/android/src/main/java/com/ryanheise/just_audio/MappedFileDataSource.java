@@ -0,0 +1,228 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import android.os.Build;
+import android.os.Process;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.upstream.BaseDataSource;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceException;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.FileDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import io.flutter.Log;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DataSource for local files that serves reads from memory mapped windows
+ * of the file rather than copying through RandomAccessFile reads.
+ *
+ * Files are mapped in windows of up to WINDOW_SIZE bytes. Windows are shared
+ * by all instances that have the same file open, and a file's windows are
+ * dropped once the last of them is closed. A window is identified by the
+ * file's path, length and modification time, so a replaced file is mapped
+ * afresh. Mappings are only released once garbage collected, so the windows
+ * held at once are limited to MAX_MAPPED_BYTES, which is much smaller in 32
+ * bit processes where address space is scarce. If a window cannot be mapped,
+ * the rest of the file is read through a FileDataSource instead.
+ */
+public class MappedFileDataSource extends BaseDataSource {
+    private static final String TAG = "MappedFileDataSource";
+    private static final boolean IS_64_BIT = Build.VERSION.SDK_INT >= 23 && Process.is64Bit();
+    private static final long WINDOW_SIZE = (IS_64_BIT ? 64 : 8) * 1024 * 1024;
+    private static final long MAX_MAPPED_BYTES = (IS_64_BIT ? 256 : 32) * 1024 * 1024;
+    // Guarded by windows. In access order, so the eldest window is the least
+    // recently used.
+    private static final LinkedHashMap<String, MappedByteBuffer> windows = new LinkedHashMap<String, MappedByteBuffer>(16, 0.75f, true);
+    private static long mappedBytes;
+    // Guarded by windows. The number of open instances of each file.
+    private static final Map<String, Integer> openCounts = new HashMap<>();
+
+    private Uri uri;
+    private File file;
+    private String fileKey;
+    private long fileLength;
+    private long position;
+    private long bytesRemaining;
+    private ByteBuffer window;
+    private long windowStart;
+    private FileDataSource fallback;
+    private boolean opened;
+
+    public MappedFileDataSource() {
+        super(false);
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        uri = dataSpec.uri;
+        String path = uri.getPath();
+        if (path == null) {
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_FILE_NOT_FOUND);
+        }
+        transferInitializing(dataSpec);
+        file = new File(path);
+        if (!file.isFile()) {
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_FILE_NOT_FOUND);
+        }
+        fileLength = file.length();
+        fileKey = path + ":" + fileLength + ":" + file.lastModified();
+        position = dataSpec.position;
+        if (position > fileLength) {
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE);
+        }
+        bytesRemaining = dataSpec.length != C.LENGTH_UNSET
+            ? Math.min(dataSpec.length, fileLength - position)
+            : fileLength - position;
+        window = null;
+        synchronized (windows) {
+            Integer count = openCounts.get(fileKey);
+            openCounts.put(fileKey, count != null ? count + 1 : 1);
+        }
+        opened = true;
+        transferStarted(dataSpec);
+        return bytesRemaining;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (bytesRemaining == 0) return C.RESULT_END_OF_INPUT;
+        int count;
+        if (fallback == null && (window == null || position < windowStart || position >= windowStart + window.limit())) {
+            windowStart = position / WINDOW_SIZE * WINDOW_SIZE;
+            MappedByteBuffer mapped = getWindow(windowStart);
+            if (mapped != null) {
+                // Each instance reads through its own view of the shared window.
+                window = mapped.duplicate();
+            } else {
+                window = null;
+                fallback = new FileDataSource();
+                fallback.open(new DataSpec.Builder()
+                    .setUri(uri)
+                    .setPosition(position)
+                    .setLength(bytesRemaining)
+                    .build());
+            }
+        }
+        if (fallback != null) {
+            count = fallback.read(buffer, offset, (int)Math.min(length, bytesRemaining));
+            if (count == C.RESULT_END_OF_INPUT) return count;
+        } else {
+            window.position((int)(position - windowStart));
+            count = (int)Math.min(Math.min(length, window.remaining()), bytesRemaining);
+            window.get(buffer, offset, count);
+        }
+        position += count;
+        bytesRemaining -= count;
+        bytesTransferred(count);
+        return count;
+    }
+
+    // Returns the window of the file at start, or null if it cannot be
+    // mapped.
+    private MappedByteBuffer getWindow(long start) throws IOException {
+        String key = fileKey + ":" + start;
+        synchronized (windows) {
+            MappedByteBuffer mapped = windows.get(key);
+            if (mapped != null) return mapped;
+        }
+        MappedByteBuffer mapped;
+        // The mapping stays valid after the file is closed.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            try {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileLength - start));
+            } catch (IOException e) {
+                // Mapping fails once the address space is exhausted.
+                Log.w(TAG, "Failed to map " + file, e);
+                return null;
+            }
+        }
+        synchronized (windows) {
+            if (windows.put(key, mapped) == null) {
+                mappedBytes += mapped.capacity();
+            }
+            // Evict the least recently used windows, but never the new one.
+            Iterator<MappedByteBuffer> iterator = windows.values().iterator();
+            while (mappedBytes > MAX_MAPPED_BYTES && windows.size() > 1) {
+                mappedBytes -= iterator.next().capacity();
+                iterator.remove();
+            }
+        }
+        return mapped;
+    }
+
+    // Drops the windows of the file with the given key.
+    private static void dropWindows(String fileKey) {
+        String prefix = fileKey + ":";
+        synchronized (windows) {
+            for (Iterator<Map.Entry<String, MappedByteBuffer>> iterator = windows.entrySet().iterator(); iterator.hasNext();) {
+                Map.Entry<String, MappedByteBuffer> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    mappedBytes -= entry.getValue().capacity();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Uri getUri() {
+        return uri;
+    }
+
+    @Override
+    public void close() throws IOException {
+        uri = null;
+        file = null;
+        window = null;
+        try {
+            if (fallback != null) {
+                fallback.close();
+            }
+        } finally {
+            fallback = null;
+            if (opened) {
+                opened = false;
+                synchronized (windows) {
+                    int count = openCounts.get(fileKey) - 1;
+                    if (count > 0) {
+                        openCounts.put(fileKey, count);
+                    } else {
+                        openCounts.remove(fileKey);
+                        dropWindows(fileKey);
+                    }
+                }
+                transferEnded();
+            }
+        }
+    }
+
+    public static class Factory implements DataSource.Factory {
+        private final TransferListener transferListener;
+
+        public Factory(TransferListener transferListener) {
+            this.transferListener = transferListener;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            MappedFileDataSource dataSource = new MappedFileDataSource();
+            if (transferListener != null) {
+                dataSource.addTransferListener(transferListener);
+            }
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import com.google.android.exoplayer2.database.DatabaseProvider;
+import com.google.android.exoplayer2.database.StandaloneDatabaseProvider;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import io.flutter.Log;
+import java.io.File;
+
+/**
+ * The on-disk media cache shared by all players in the process.
+ *
+ * ExoPlayer allows only one SimpleCache instance per directory, so the cache
+ * is created by the first player that requests it and is kept for the
+ * lifetime of the process. The maximum size is fixed by that first request.
+ */
+public class MediaCache {
+    static final String TAG = "MediaCache";
+    private static final String CACHE_DIR_NAME = "just_audio_media_cache";
+
+    private static DatabaseProvider databaseProvider;
+    private static SimpleCache cache;
+    private static long maxCacheSize;
+
+    /** Returns the database shared by the media cache and the downloads. */
+    public static synchronized DatabaseProvider getDatabaseProvider(Context context) {
+        if (databaseProvider == null) {
+            databaseProvider = new StandaloneDatabaseProvider(context);
+        }
+        return databaseProvider;
+    }
+
+    public static synchronized Cache getInstance(Context context, long maxCacheSize) {
+        if (cache == null) {
+            File cacheDir = new File(context.getCacheDir(), CACHE_DIR_NAME);
+            cache = new SimpleCache(cacheDir,
+                    new LeastRecentlyUsedCacheEvictor(maxCacheSize),
+                    getDatabaseProvider(context));
+            MediaCache.maxCacheSize = maxCacheSize;
+        } else if (maxCacheSize != MediaCache.maxCacheSize) {
+            Log.w(TAG, "Media cache already created with maxCacheSize " + MediaCache.maxCacheSize + ", ignoring " + maxCacheSize);
+        }
+        return cache;
+    }
+
+    public static synchronized long getMaxCacheSize() {
+        return maxCacheSize;
+    }
+}
@@ -0,0 +1,251 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.RenderersFactory;
+import com.google.android.exoplayer2.audio.MediaCodecAudioRenderer;
+import com.google.android.exoplayer2.mediacodec.MediaCodecSelector;
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadCursor;
+import com.google.android.exoplayer2.offline.DownloadHelper;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadRequest;
+import com.google.android.exoplayer2.util.MimeTypes;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONException;
+
+/**
+ * Handles the download method calls and reports the state of downloads.
+ *
+ * Each change of a download's state is sent on the event channel as it
+ * happens, and the progress of active downloads every progressInterval ms.
+ * The tracks of DASH and HLS streams are chosen with a DownloadHelper whose
+ * renderers factory builds only an audio renderer, so only the best audio
+ * rendition is downloaded. Must be used on the main thread.
+ */
+public class MediaDownloader implements MethodCallHandler, DownloadManager.Listener {
+    // The states of DownloadStateMessage.
+    private static final int STATE_REMOVED = 7;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Context applicationContext;
+    private final RenderersFactory audioRenderersFactory;
+    // The helpers still preparing the tracks of a download, and the results
+    // of their addDownload calls.
+    private final Map<DownloadHelper, Result> pendingHelpers = new HashMap<>();
+    private final MethodChannel methodChannel;
+    private final BetterEventChannel eventChannel;
+    private final DownloadManager downloadManager;
+    private final long progressInterval;
+    private final Runnable progressReporter = new Runnable() {
+        @Override
+        public void run() {
+            // The quota must also be checked while downloads grow.
+            MediaDownloads.enforceQuota();
+            boolean downloading = false;
+            for (Download download : downloadManager.getCurrentDownloads()) {
+                if (download.state == Download.STATE_DOWNLOADING) {
+                    eventChannel.success(toMap(download));
+                    downloading = true;
+                }
+            }
+            if (downloading) {
+                handler.postDelayed(this, progressInterval);
+            }
+        }
+    };
+
+    public MediaDownloader(final Context applicationContext, final BinaryMessenger messenger, int maxParallelDownloads, int maxParallelSegments, long maxBytes, long progressInterval) {
+        if (progressInterval <= 0) {
+            throw new IllegalArgumentException("progressInterval must be positive: " + progressInterval);
+        }
+        this.applicationContext = applicationContext;
+        this.progressInterval = progressInterval;
+        audioRenderersFactory = (eventHandler, videoRendererEventListener, audioRendererEventListener, textRendererOutput, metadataRendererOutput) ->
+            new Renderer[] { new MediaCodecAudioRenderer(applicationContext, MediaCodecSelector.DEFAULT) };
+        downloadManager = MediaDownloads.getManager(applicationContext, maxParallelSegments);
+        downloadManager.setMaxParallelDownloads(maxParallelDownloads);
+        MediaDownloads.setMaxBytes(maxBytes);
+        downloadManager.addListener(this);
+        methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.downloads.methods");
+        methodChannel.setMethodCallHandler(this);
+        eventChannel = new BetterEventChannel(messenger, "com.ryanheise.just_audio.downloads.events");
+        // Downloads may already be running from before an engine restart.
+        reportProgress();
+    }
+
+    @Override
+    public void onMethodCall(final MethodCall call, final Result result) {
+        try {
+            switch (call.method) {
+            case "addDownload":
+                addDownload(call, result);
+                break;
+            case "removeDownload":
+                downloadManager.removeDownload(call.argument("id"));
+                result.success(new HashMap<String, Object>());
+                break;
+            case "setDownloadsPaused":
+                if ((Boolean)call.argument("paused")) {
+                    downloadManager.pauseDownloads();
+                } else {
+                    downloadManager.resumeDownloads();
+                }
+                result.success(new HashMap<String, Object>());
+                break;
+            case "getDownloads":
+                result.success(getDownloads());
+                break;
+            default:
+                result.notImplemented();
+                break;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            result.error("Error: " + e, null, null);
+        }
+    }
+
+    // Replies once the tracks to download are known.
+    private void addDownload(final MethodCall call, final Result result) throws JSONException {
+        final String id = call.argument("id");
+        final byte[] data = MediaDownloads.encodeRequestData(call.argument("userAgent"), call.argument("headers"));
+        MediaItem mediaItem = new MediaItem.Builder()
+            .setUri(Uri.parse(call.argument("uri")))
+            .setMimeType(getMimeType(call.argument("type")))
+            .setCustomCacheKey(call.argument("cacheKey"))
+            .build();
+        DownloadHelper helper = DownloadHelper.forMediaItem(applicationContext, mediaItem, audioRenderersFactory,
+                MediaDownloads.buildHttpDataSourceFactory(applicationContext, data));
+        pendingHelpers.put(helper, result);
+        helper.prepare(new DownloadHelper.Callback() {
+            @Override
+            public void onPrepared(DownloadHelper helper) {
+                pendingHelpers.remove(helper);
+                DownloadRequest request = helper.getDownloadRequest(id, data);
+                helper.release();
+                downloadManager.addDownload(request, MediaDownloads.isQuotaExceeded() ? MediaDownloads.STOP_REASON_QUOTA : Download.STOP_REASON_NONE);
+                result.success(new HashMap<String, Object>());
+            }
+
+            @Override
+            public void onPrepareError(DownloadHelper helper, IOException e) {
+                pendingHelpers.remove(helper);
+                helper.release();
+                result.error("Failed to prepare download " + id + ": " + e, null, null);
+            }
+        });
+    }
+
+    private static String getMimeType(String type) {
+        switch (type) {
+        case "progressive":
+            return null;
+        case "dash":
+            return MimeTypes.APPLICATION_MPD;
+        case "hls":
+            return MimeTypes.APPLICATION_M3U8;
+        default:
+            throw new IllegalArgumentException("Unknown download type: " + type);
+        }
+    }
+
+    private Map<String, Object> getDownloads() throws IOException {
+        List<Object> downloads = new ArrayList<>();
+        try (DownloadCursor cursor = downloadManager.getDownloadIndex().getDownloads()) {
+            while (cursor.moveToNext()) {
+                downloads.add(toMap(cursor.getDownload()));
+            }
+        }
+        return mapOf(
+            "downloads", downloads,
+            "downloadedBytes", MediaDownloads.getCache().getCacheSpace(),
+            "maxBytes", MediaDownloads.getMaxBytes()
+        );
+    }
+
+    private void reportProgress() {
+        handler.removeCallbacks(progressReporter);
+        progressReporter.run();
+    }
+
+    @Override
+    public void onDownloadChanged(DownloadManager downloadManager, Download download, Exception finalException) {
+        eventChannel.success(toMap(download));
+        if (download.state == Download.STATE_DOWNLOADING) {
+            reportProgress();
+        }
+    }
+
+    @Override
+    public void onDownloadRemoved(DownloadManager downloadManager, Download download) {
+        Map<String, Object> event = toMap(download);
+        event.put("state", STATE_REMOVED);
+        eventChannel.success(event);
+    }
+
+    private static Map<String, Object> toMap(Download download) {
+        float percentDownloaded = download.getPercentDownloaded();
+        return mapOf(
+            "id", download.request.id,
+            "uri", download.request.uri.toString(),
+            "state", getState(download.state),
+            "bytesDownloaded", download.getBytesDownloaded(),
+            "contentLength", download.contentLength != C.LENGTH_UNSET ? download.contentLength : null,
+            "percentDownloaded", percentDownloaded != C.PERCENTAGE_UNSET ? (double)percentDownloaded : null,
+            "stopReason", download.stopReason
+        );
+    }
+
+    // Maps the Download states to the indices of DownloadStateMessage.
+    private static int getState(int state) {
+        switch (state) {
+        case Download.STATE_QUEUED:
+            return 0;
+        case Download.STATE_STOPPED:
+            return 1;
+        case Download.STATE_DOWNLOADING:
+            return 2;
+        case Download.STATE_COMPLETED:
+            return 3;
+        case Download.STATE_FAILED:
+            return 4;
+        case Download.STATE_REMOVING:
+            return 5;
+        case Download.STATE_RESTARTING:
+            return 6;
+        default:
+            throw new IllegalArgumentException("Unknown download state: " + state);
+        }
+    }
+
+    public void dispose() {
+        for (Map.Entry<DownloadHelper, Result> entry : pendingHelpers.entrySet()) {
+            entry.getKey().release();
+            entry.getValue().error("Download manager disposed before the download was added", null, null);
+        }
+        pendingHelpers.clear();
+        handler.removeCallbacks(progressReporter);
+        downloadManager.removeListener(this);
+        methodChannel.setMethodCallHandler(null);
+        eventChannel.endOfStream();
+    }
+
+    private static Map<String, Object> mapOf(Object... args) {
+        return AudioPlayer.mapOf(args);
+    }
+}
@@ -0,0 +1,218 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.net.Uri;
+import com.google.android.exoplayer2.database.DatabaseProvider;
+import com.google.android.exoplayer2.offline.DefaultDownloadIndex;
+import com.google.android.exoplayer2.offline.DefaultDownloaderFactory;
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadCursor;
+import com.google.android.exoplayer2.offline.DownloadIndex;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadRequest;
+import com.google.android.exoplayer2.offline.DownloaderFactory;
+import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.Util;
+import io.flutter.Log;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The downloads shared by all players in the process.
+ *
+ * Downloaded media is stored in a cache under the app's files directory that
+ * is never evicted, and is tracked in a persistent download index so that
+ * unfinished downloads resume after a restart. The download manager is
+ * created by the first call to getManager, which fixes the number of threads
+ * that download the segments of HLS and DASH streams in parallel. Once a
+ * download completes, every player plays sources with its URI, or its cache
+ * key if it has one, from local storage. The user agent and headers of a
+ * download are stored in its request data, so that they are applied again
+ * when it resumes.
+ *
+ * Downloads are keyed by a NormalizingCacheKeyFactory, both in the cache and
+ * when checking whether a source has been downloaded, so that URIs differing
+ * only in ignored query parameters share a download. Media downloaded before
+ * the ignored query parameters change is only found under its old key.
+ *
+ * getManager, setMaxBytes, setIgnoredQueryParameters and enforceQuota must
+ * be called on the main thread. isDownloaded, getCache and getCacheKeyFactory
+ * may be called on any thread.
+ */
+public class MediaDownloads {
+    static final String TAG = "MediaDownloads";
+    private static final String DOWNLOAD_DIR_NAME = "just_audio_downloads";
+    /** The stop reason of downloads held back by the storage quota. */
+    public static final int STOP_REASON_QUOTA = 1;
+
+    private static SimpleCache cache;
+    private static DownloadManager downloadManager;
+    private static NormalizingCacheKeyFactory cacheKeyFactory = new NormalizingCacheKeyFactory(Collections.emptyList());
+    // The cache keys of the completed downloads.
+    private static final Set<String> completedKeys = new HashSet<>();
+    private static long maxBytes;
+    // Unknown until the quota is first applied.
+    private static Boolean quotaExceeded;
+
+    public static synchronized DownloadManager getManager(final Context context, int maxParallelSegments) {
+        if (downloadManager == null) {
+            DatabaseProvider databaseProvider = MediaCache.getDatabaseProvider(context);
+            cache = new SimpleCache(new File(context.getFilesDir(), DOWNLOAD_DIR_NAME),
+                    new NoOpCacheEvictor(),
+                    databaseProvider);
+            DefaultDownloadIndex downloadIndex = new DefaultDownloadIndex(databaseProvider);
+            loadCompletedKeys(downloadIndex);
+            final Executor executor = Executors.newFixedThreadPool(maxParallelSegments);
+            DownloaderFactory downloaderFactory = request -> new DefaultDownloaderFactory(
+                    new CacheDataSource.Factory()
+                        .setCache(cache)
+                        .setCacheKeyFactory(getCacheKeyFactory())
+                        .setUpstreamDataSourceFactory(buildHttpDataSourceFactory(context, request.data)),
+                    executor).createDownloader(request);
+            downloadManager = new DownloadManager(context, downloadIndex, downloaderFactory);
+            downloadManager.addListener(new DownloadManager.Listener() {
+                @Override
+                public void onDownloadChanged(DownloadManager downloadManager, Download download, Exception finalException) {
+                    setCompleted(download, download.state == Download.STATE_COMPLETED);
+                    enforceQuota();
+                }
+
+                @Override
+                public void onDownloadRemoved(DownloadManager downloadManager, Download download) {
+                    setCompleted(download, false);
+                    enforceQuota();
+                }
+            });
+        }
+        return downloadManager;
+    }
+
+    private static void loadCompletedKeys(DownloadIndex downloadIndex) {
+        completedKeys.clear();
+        try (DownloadCursor cursor = downloadIndex.getDownloads(Download.STATE_COMPLETED)) {
+            while (cursor.moveToNext()) {
+                DownloadRequest request = cursor.getDownload().request;
+                completedKeys.add(getKey(request.uri, request.customCacheKey));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load the download index", e);
+        }
+    }
+
+    private static synchronized void setCompleted(Download download, boolean completed) {
+        String key = getKey(download.request.uri, download.request.customCacheKey);
+        if (completed) {
+            completedKeys.add(key);
+        } else {
+            completedKeys.remove(key);
+        }
+    }
+
+    /** Encodes a user agent and headers as the request data of a download. */
+    public static byte[] encodeRequestData(String userAgent, Map<String, String> headers) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("userAgent", userAgent);
+        if (headers != null) {
+            json.put("headers", new JSONObject(headers));
+        }
+        return Util.getUtf8Bytes(json.toString());
+    }
+
+    /**
+     * Builds an HTTP data source factory that applies the user agent and
+     * headers in the request data of a download.
+     */
+    public static DefaultHttpDataSource.Factory buildHttpDataSourceFactory(Context context, byte[] data) {
+        String userAgent = null;
+        Map<String, String> headers = null;
+        // Downloads added without headers have no request data.
+        if (data.length > 0) {
+            try {
+                JSONObject json = new JSONObject(Util.fromUtf8Bytes(data));
+                userAgent = json.optString("userAgent", null);
+                JSONObject headersJson = json.optJSONObject("headers");
+                if (headersJson != null) {
+                    headers = new HashMap<>();
+                    for (Iterator<String> names = headersJson.keys(); names.hasNext();) {
+                        String name = names.next();
+                        headers.put(name, headersJson.getString(name));
+                    }
+                }
+            } catch (JSONException e) {
+                Log.w(TAG, "Failed to decode the request data of a download", e);
+            }
+        }
+        return AudioPlayer.buildHttpDataSourceFactory(context, userAgent, headers);
+    }
+
+    private static String getKey(Uri uri, String customCacheKey) {
+        return customCacheKey != null ? customCacheKey : cacheKeyFactory.buildCacheKey(uri);
+    }
+
+    /** Sets the query parameters ignored by the keys of downloads. */
+    public static synchronized void setIgnoredQueryParameters(List<?> ignoredQueryParameters) {
+        cacheKeyFactory = new NormalizingCacheKeyFactory(ignoredQueryParameters);
+        if (downloadManager != null) {
+            loadCompletedKeys(downloadManager.getDownloadIndex());
+        }
+    }
+
+    public static synchronized NormalizingCacheKeyFactory getCacheKeyFactory() {
+        return cacheKeyFactory;
+    }
+
+    /**
+     * Returns whether the media at uri, or under customCacheKey if not null,
+     * has been downloaded in full.
+     */
+    public static synchronized boolean isDownloaded(Uri uri, String customCacheKey) {
+        return completedKeys.contains(getKey(uri, customCacheKey));
+    }
+
+    public static synchronized Cache getCache() {
+        return cache;
+    }
+
+    /** Limits the downloaded bytes to maxBytes, or removes the limit if 0. */
+    public static void setMaxBytes(long maxBytes) {
+        MediaDownloads.maxBytes = maxBytes;
+        quotaExceeded = null;
+        enforceQuota();
+    }
+
+    public static long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public static boolean isQuotaExceeded() {
+        return quotaExceeded != null && quotaExceeded;
+    }
+
+    /**
+     * Stops all downloads while the downloaded bytes exceed the quota, and
+     * lets them continue once enough have been removed.
+     */
+    public static void enforceQuota() {
+        if (downloadManager == null) return;
+        boolean exceeded = maxBytes > 0 && cache.getCacheSpace() >= maxBytes;
+        if (quotaExceeded == null || exceeded != quotaExceeded) {
+            quotaExceeded = exceeded;
+            downloadManager.setStopReason(null, exceeded ? STOP_REASON_QUOTA : Download.STOP_REASON_NONE);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import android.os.Handler;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheWriter;
+import io.flutter.Log;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the beginning of upcoming media items into the media cache so that
+ * skipping to them does not have to wait for the network.
+ *
+ * Each preload is written through the data source factory passed with it, so
+ * that it is requested with the same headers as playback would use. Preloads
+ * from all players share a small fixed pool of background threads. Callbacks
+ * are delivered on the handler passed to the constructor.
+ */
+public class MediaPreloader {
+    static final String TAG = "MediaPreloader";
+    private static final int THREAD_COUNT = 2;
+    // Avoid flooding the event channel with progress updates.
+    private static final long PROGRESS_INTERVAL_BYTES = 64 * 1024;
+
+    private static ExecutorService executor;
+
+    private final Handler handler;
+    private final Listener listener;
+    private final Map<String, Task> tasks = new HashMap<>();
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        }
+        return executor;
+    }
+
+    public MediaPreloader(Handler handler, Listener listener) {
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    /**
+     * Caches up to maxBytes from the start of uri under the given cache key,
+     * or the key derived from uri if null, reading through
+     * cacheDataSourceFactory. A preload already in progress for the same id
+     * is left to continue.
+     */
+    public void preload(final String id, final Uri uri, final String key, final long maxBytes, final CacheDataSource.Factory cacheDataSourceFactory) {
+        if (tasks.containsKey(id)) return;
+        final Task task = new Task(id, uri, key, maxBytes, cacheDataSourceFactory);
+        tasks.put(id, task);
+        task.future = getExecutor().submit(task);
+    }
+
+    /** Cancels all pending and in-progress preloads. */
+    public void cancelAll() {
+        for (Task task : tasks.values()) {
+            task.cancel();
+        }
+        tasks.clear();
+    }
+
+    public int getPendingCount() {
+        return tasks.size();
+    }
+
+    private void onTaskFinished(final Task task, final boolean completed) {
+        handler.post(() -> {
+            if (tasks.get(task.id) != task) return;
+            tasks.remove(task.id);
+            listener.onPreloadProgress(task.id, task.bytesCached, task.requestLength, completed);
+        });
+    }
+
+    private class Task implements Runnable, CacheWriter.ProgressListener {
+        final String id;
+        final Uri uri;
+        final String key;
+        final long maxBytes;
+        final CacheDataSource.Factory cacheDataSourceFactory;
+        volatile CacheWriter cacheWriter;
+        volatile boolean canceled;
+        Future<?> future;
+        long requestLength;
+        long bytesCached;
+        long lastReportedBytes;
+
+        Task(String id, Uri uri, String key, long maxBytes, CacheDataSource.Factory cacheDataSourceFactory) {
+            this.id = id;
+            this.uri = uri;
+            this.key = key;
+            this.maxBytes = maxBytes;
+            this.cacheDataSourceFactory = cacheDataSourceFactory;
+        }
+
+        @Override
+        public void run() {
+            if (canceled) return;
+            DataSpec dataSpec = new DataSpec.Builder()
+                    .setUri(uri)
+                    .setKey(key)
+                    .setLength(maxBytes)
+                    .build();
+            cacheWriter = new CacheWriter(cacheDataSourceFactory.createDataSource(), dataSpec, null, this);
+            boolean completed = false;
+            try {
+                cacheWriter.cache();
+                completed = true;
+            } catch (InterruptedIOException e) {
+                // Canceled.
+            } catch (IOException e) {
+                Log.w(TAG, "Preload failed for " + uri + ": " + e.getMessage());
+            }
+            onTaskFinished(this, completed);
+        }
+
+        @Override
+        public void onProgress(long requestLength, long bytesCached, long newBytesCached) {
+            this.requestLength = requestLength;
+            this.bytesCached = bytesCached;
+            if (bytesCached - lastReportedBytes < PROGRESS_INTERVAL_BYTES) return;
+            lastReportedBytes = bytesCached;
+            handler.post(() -> {
+                if (tasks.get(id) != this) return;
+                listener.onPreloadProgress(id, bytesCached, requestLength, false);
+            });
+        }
+
+        void cancel() {
+            canceled = true;
+            CacheWriter cacheWriter = this.cacheWriter;
+            if (cacheWriter != null) cacheWriter.cancel();
+            if (future != null) future.cancel(true);
+        }
+    }
+
+    public interface Listener {
+        void onPreloadProgress(String id, long bytesCached, long requestLength, boolean completed);
+    }
+}
@@ -0,0 +1,69 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds cache keys that ignore some of the query parameters of a URI.
+ *
+ * Signed CDN URLs carry tokens that change every time the URL is issued, so
+ * keying the cache on the full URI would store a new copy of the same media
+ * for each token. Query parameters whose names are in the ignored list are
+ * removed from the key, and a name ending in "*" ignores every parameter
+ * starting with the rest of the name. Other parameters keep their order. An
+ * explicit key on the DataSpec, set from an audio source's cacheKey, takes
+ * precedence.
+ */
+public class NormalizingCacheKeyFactory implements CacheKeyFactory {
+    private final Set<String> ignoredNames = new HashSet<>();
+    private final List<String> ignoredPrefixes = new ArrayList<>();
+
+    public NormalizingCacheKeyFactory(List<?> ignoredQueryParameters) {
+        for (Object parameter : ignoredQueryParameters) {
+            String name = (String)parameter;
+            if (name.endsWith("*")) {
+                ignoredPrefixes.add(name.substring(0, name.length() - 1));
+            } else {
+                ignoredNames.add(name);
+            }
+        }
+    }
+
+    @Override
+    public String buildCacheKey(DataSpec dataSpec) {
+        return dataSpec.key != null ? dataSpec.key : buildCacheKey(dataSpec.uri);
+    }
+
+    /** Returns uri without its ignored query parameters. */
+    public String buildCacheKey(Uri uri) {
+        String encodedQuery = uri.getEncodedQuery();
+        if (encodedQuery == null || (ignoredNames.isEmpty() && ignoredPrefixes.isEmpty())) {
+            return uri.toString();
+        }
+        StringBuilder query = new StringBuilder();
+        for (String parameter : encodedQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = Uri.decode(separator >= 0 ? parameter.substring(0, separator) : parameter);
+            if (isIgnored(name)) continue;
+            if (query.length() > 0) query.append('&');
+            query.append(parameter);
+        }
+        return uri.buildUpon()
+            .encodedQuery(query.length() > 0 ? query.toString() : null)
+            .build()
+            .toString();
+    }
+
+    private boolean isIgnored(String name) {
+        if (ignoredNames.contains(name)) return true;
+        for (String prefix : ignoredPrefixes) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
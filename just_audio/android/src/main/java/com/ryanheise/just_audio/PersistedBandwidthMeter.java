@@ -0,0 +1,63 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.util.NetworkTypeObserver;
+
+/**
+ * Provides a bandwidth meter shared by all players whose estimate outlives
+ * the process.
+ *
+ * The estimate for the current network type is saved to shared preferences
+ * by save(), and on the next launch is used as the initial estimate for that
+ * network type in place of ExoPlayer's country based defaults. This lets the
+ * first segments of a new adaptive stream be fetched at a suitable bitrate.
+ */
+public class PersistedBandwidthMeter {
+    private static final String PREFERENCES_NAME = "com.ryanheise.just_audio.bandwidth";
+    private static final String KEY_PREFIX = "bitrateEstimate.";
+    private static final int[] NETWORK_TYPES = {
+        C.NETWORK_TYPE_WIFI,
+        C.NETWORK_TYPE_ETHERNET,
+        C.NETWORK_TYPE_2G,
+        C.NETWORK_TYPE_3G,
+        C.NETWORK_TYPE_4G,
+        C.NETWORK_TYPE_5G_SA,
+        C.NETWORK_TYPE_5G_NSA,
+        C.NETWORK_TYPE_CELLULAR_UNKNOWN,
+        C.NETWORK_TYPE_OTHER,
+    };
+
+    private static DefaultBandwidthMeter instance;
+
+    public static synchronized DefaultBandwidthMeter getInstance(Context context) {
+        if (instance == null) {
+            SharedPreferences preferences = getPreferences(context);
+            DefaultBandwidthMeter.Builder builder = new DefaultBandwidthMeter.Builder(context);
+            for (int networkType : NETWORK_TYPES) {
+                long estimate = preferences.getLong(KEY_PREFIX + networkType, 0);
+                if (estimate > 0) {
+                    builder.setInitialBitrateEstimate(networkType, estimate);
+                }
+            }
+            instance = builder.build();
+        }
+        return instance;
+    }
+
+    /** Saves the current estimate as the one for the current network type. */
+    public static synchronized void save(Context context) {
+        if (instance == null) return;
+        int networkType = NetworkTypeObserver.getInstance(context).getNetworkType();
+        if (networkType == C.NETWORK_TYPE_UNKNOWN || networkType == C.NETWORK_TYPE_OFFLINE) return;
+        getPreferences(context).edit()
+            .putLong(KEY_PREFIX + networkType, instance.getBitrateEstimate())
+            .apply();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,168 @@
+package com.ryanheise.just_audio;
+
+import com.google.android.exoplayer2.metadata.icy.IcyHeaders;
+import com.google.android.exoplayer2.metadata.icy.IcyInfo;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Encodes playback events into a compact little-endian binary layout that
+ * carries only the fields that changed since the previous event.
+ *
+ * Layout:
+ *
+ *   int32 mask       bit i set if field i follows
+ *   int64 field[i]   for each numeric field in the mask, in index order,
+ *                    with NULL representing a null value
+ *   icy metadata     if the ICY_METADATA bit is set:
+ *                    int8 hasInfo, [string title, string url],
+ *                    int8 hasHeaders, [int32 bitrate, string genre,
+ *                    string name, int32 metadataInterval, string url,
+ *                    int8 isPublic]
+ *
+ * Strings are an int32 byte length (-1 for null) followed by UTF-8 bytes.
+ * The first event after construction always contains every field.
+ *
+ * The returned buffer is reused by the next call to encode(), so it must be
+ * sent before then. Not thread-safe.
+ */
+public class PlaybackEventEncoder {
+    static final int PROCESSING_STATE = 0;
+    static final int UPDATE_POSITION = 1;
+    static final int UPDATE_TIME = 2;
+    static final int BUFFERED_POSITION = 3;
+    static final int DURATION = 4;
+    static final int CURRENT_INDEX = 5;
+    static final int ANDROID_AUDIO_SESSION_ID = 6;
+    static final int FIELD_COUNT = 7;
+    static final int ICY_METADATA = FIELD_COUNT;
+
+    static final long NULL = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private ByteBuffer buffer = allocate(INITIAL_CAPACITY);
+    private final long[] pending = new long[FIELD_COUNT];
+    private final long[] sent = new long[FIELD_COUNT];
+    private IcyInfo pendingIcyInfo;
+    private IcyHeaders pendingIcyHeaders;
+    private IcyInfo sentIcyInfo;
+    private IcyHeaders sentIcyHeaders;
+    private boolean hasSent;
+
+    private static ByteBuffer allocate(int capacity) {
+        // Flutter requires a direct buffer.
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public void set(int field, long value) {
+        pending[field] = value;
+    }
+
+    public void set(int field, Integer value) {
+        pending[field] = value != null ? value : NULL;
+    }
+
+    public void setIcyMetadata(IcyInfo icyInfo, IcyHeaders icyHeaders) {
+        pendingIcyInfo = icyInfo;
+        pendingIcyHeaders = icyHeaders;
+    }
+
+    /**
+     * Encodes the fields that changed since the last encoded event, or returns
+     * null if nothing changed. The position of the returned buffer is at the
+     * end of the encoded data, as expected by BinaryMessenger.send.
+     */
+    public ByteBuffer encode() {
+        int mask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (!hasSent || pending[i] != sent[i]) mask |= 1 << i;
+        }
+        boolean icyChanged = !hasSent || pendingIcyInfo != sentIcyInfo || pendingIcyHeaders != sentIcyHeaders;
+        if (icyChanged) mask |= 1 << ICY_METADATA;
+        if (mask == 0) return null;
+
+        byte[][] icyStrings = icyChanged ? icyStrings() : null;
+        ensureCapacity(requiredCapacity(mask, icyStrings));
+        buffer.clear();
+        buffer.putInt(mask);
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if ((mask & (1 << i)) != 0) {
+                buffer.putLong(pending[i]);
+                sent[i] = pending[i];
+            }
+        }
+        if (icyChanged) {
+            writeIcyMetadata(icyStrings);
+            sentIcyInfo = pendingIcyInfo;
+            sentIcyHeaders = pendingIcyHeaders;
+        }
+        hasSent = true;
+        return buffer;
+    }
+
+    // Encodes the icy strings in layout order: info title, info url, headers
+    // genre, headers name, headers url.
+    private byte[][] icyStrings() {
+        return new byte[][] {
+            pendingIcyInfo != null ? utf8(pendingIcyInfo.title) : null,
+            pendingIcyInfo != null ? utf8(pendingIcyInfo.url) : null,
+            pendingIcyHeaders != null ? utf8(pendingIcyHeaders.genre) : null,
+            pendingIcyHeaders != null ? utf8(pendingIcyHeaders.name) : null,
+            pendingIcyHeaders != null ? utf8(pendingIcyHeaders.url) : null,
+        };
+    }
+
+    private static byte[] utf8(String s) {
+        return s != null ? s.getBytes(UTF8) : null;
+    }
+
+    private static int requiredCapacity(int mask, byte[][] icyStrings) {
+        int capacity = 4 + 8 * Integer.bitCount(mask & ((1 << FIELD_COUNT) - 1));
+        if (icyStrings != null) {
+            capacity += 2 + 4 + 4 + 1;
+            for (byte[] s : icyStrings) {
+                capacity += 4 + (s != null ? s.length : 0);
+            }
+        }
+        return capacity;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer.capacity() < capacity) {
+            buffer = allocate(Math.max(capacity, buffer.capacity() * 2));
+        }
+    }
+
+    private void writeIcyMetadata(byte[][] icyStrings) {
+        if (pendingIcyInfo != null) {
+            buffer.put((byte)1);
+            writeString(icyStrings[0]);
+            writeString(icyStrings[1]);
+        } else {
+            buffer.put((byte)0);
+        }
+        if (pendingIcyHeaders != null) {
+            buffer.put((byte)1);
+            buffer.putInt(pendingIcyHeaders.bitrate);
+            writeString(icyStrings[2]);
+            writeString(icyStrings[3]);
+            buffer.putInt(pendingIcyHeaders.metadataInterval);
+            writeString(icyStrings[4]);
+            buffer.put((byte)(pendingIcyHeaders.isPublic ? 1 : 0));
+        } else {
+            buffer.put((byte)0);
+        }
+    }
+
+    private void writeString(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+}
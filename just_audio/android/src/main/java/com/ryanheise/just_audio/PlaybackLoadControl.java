@@ -0,0 +1,94 @@
+package com.ryanheise.just_audio;
+
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+
+/**
+ * Wraps the LoadControl of a player to apply the player's own settings on
+ * top of its buffer targets.
+ *
+ * While loading is suspended, no more media is loaded regardless of how
+ * much is buffered. This is used to stop live streams from downloading while
+ * paused. When the player does not wait to minimize stalling, playback starts
+ * as soon as any media is buffered rather than once the wrapped LoadControl's
+ * start threshold is reached.
+ *
+ * The setters may be called from any thread.
+ */
+public class PlaybackLoadControl implements LoadControl {
+    private final LoadControl loadControl;
+    private volatile boolean loadingSuspended;
+    private volatile boolean waitsToMinimizeStalling = true;
+
+    public PlaybackLoadControl(LoadControl loadControl) {
+        this.loadControl = loadControl;
+    }
+
+    public void setLoadingSuspended(boolean loadingSuspended) {
+        this.loadingSuspended = loadingSuspended;
+    }
+
+    public boolean isLoadingSuspended() {
+        return loadingSuspended;
+    }
+
+    public void setWaitsToMinimizeStalling(boolean waitsToMinimizeStalling) {
+        this.waitsToMinimizeStalling = waitsToMinimizeStalling;
+    }
+
+    /** Restores the default settings. */
+    public void reset() {
+        loadingSuspended = false;
+        waitsToMinimizeStalling = true;
+    }
+
+    @Override
+    public void onPrepared() {
+        loadControl.onPrepared();
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, ExoTrackSelection[] trackSelections) {
+        loadControl.onTracksSelected(renderers, trackGroups, trackSelections);
+    }
+
+    @Override
+    public void onStopped() {
+        loadControl.onStopped();
+    }
+
+    @Override
+    public void onReleased() {
+        loadControl.onReleased();
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return loadControl.getAllocator();
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return loadControl.getBackBufferDurationUs();
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return loadControl.retainBackBufferFromKeyframe();
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+        if (loadingSuspended) return false;
+        return loadControl.shouldContinueLoading(playbackPositionUs, bufferedDurationUs, playbackSpeed);
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering, long targetLiveOffsetUs) {
+        if (!waitsToMinimizeStalling && bufferedDurationUs > 0) return true;
+        return loadControl.shouldStartPlayback(bufferedDurationUs, playbackSpeed, rebuffering, targetLiveOffsetUs);
+    }
+}
@@ -0,0 +1,191 @@
+package com.ryanheise.just_audio;
+
+import android.os.SystemClock;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps running quality of service aggregates for a player: bytes and time
+ * spent loading per audio source, the bandwidth estimate, rebuffers and time
+ * spent stalled, audio underruns, decoder initialisation, the selected
+ * audio format, and load errors and how they were recovered from.
+ *
+ * Aggregates span the lifetime of the AudioPlayer rather than a single load.
+ * Must be used on the player thread.
+ */
+public class PlaybackMetrics implements AnalyticsListener {
+    private final Timeline.Window window = new Timeline.Window();
+    private final Map<String, long[]> sourceLoads = new HashMap<>();
+    private long bytesLoaded;
+    private long loadDurationMs;
+    private long bandwidthEstimate = -1;
+    private int rebufferCount;
+    private long stalledTimeMs;
+    private long stallStartTime = -1;
+    private boolean ready;
+    private boolean playWhenReady;
+    private boolean seeking;
+    private int underrunCount;
+    private String decoderName;
+    private int decoderInitCount;
+    private long decoderInitDurationMs;
+    private Format format;
+    private int loadErrorCount;
+    private int retryCount;
+    private int skipCount;
+
+    private static final int BYTES = 0;
+    private static final int DURATION = 1;
+    private static final int COUNT = 2;
+
+    @Override
+    public void onLoadCompleted(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData) {
+        bytesLoaded += loadEventInfo.bytesLoaded;
+        loadDurationMs += loadEventInfo.loadDurationMs;
+        String id = getMediaItemId(eventTime);
+        if (id == null) return;
+        long[] loads = sourceLoads.get(id);
+        if (loads == null) {
+            loads = new long[3];
+            sourceLoads.put(id, loads);
+        }
+        loads[BYTES] += loadEventInfo.bytesLoaded;
+        loads[DURATION] += loadEventInfo.loadDurationMs;
+        loads[COUNT]++;
+    }
+
+    @Override
+    public void onLoadError(EventTime eventTime, LoadEventInfo loadEventInfo, MediaLoadData mediaLoadData, IOException error, boolean wasCanceled) {
+        loadErrorCount++;
+    }
+
+    /** Called when an item is prepared again after a player error. */
+    public void onRetry() {
+        retryCount++;
+    }
+
+    /** Called when an item is skipped after a player error. */
+    public void onSkip() {
+        skipCount++;
+    }
+
+    @Override
+    public void onBandwidthEstimate(EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {
+        bandwidthEstimate = bitrateEstimate;
+    }
+
+    @Override
+    public void onPlayWhenReadyChanged(EventTime eventTime, boolean playWhenReady, int reason) {
+        this.playWhenReady = playWhenReady;
+        if (!playWhenReady) endStall(eventTime.realtimeMs);
+    }
+
+    @Override
+    public void onPositionDiscontinuity(EventTime eventTime, Player.PositionInfo oldPosition, Player.PositionInfo newPosition, int reason) {
+        if (reason == Player.DISCONTINUITY_REASON_SEEK) {
+            // Buffering caused by a seek is not a rebuffer.
+            seeking = true;
+            stallStartTime = -1;
+        }
+    }
+
+    @Override
+    public void onPlaybackStateChanged(EventTime eventTime, int state) {
+        switch (state) {
+        case Player.STATE_READY:
+            endStall(eventTime.realtimeMs);
+            ready = true;
+            seeking = false;
+            break;
+        case Player.STATE_BUFFERING:
+            if (ready && playWhenReady && !seeking) {
+                rebufferCount++;
+                stallStartTime = eventTime.realtimeMs;
+            }
+            ready = false;
+            break;
+        default:
+            endStall(eventTime.realtimeMs);
+            ready = false;
+            seeking = false;
+            break;
+        }
+    }
+
+    @Override
+    public void onAudioUnderrun(EventTime eventTime, int bufferSize, long bufferSizeMs, long elapsedSinceLastFeedMs) {
+        underrunCount++;
+    }
+
+    @Override
+    public void onAudioDecoderInitialized(EventTime eventTime, String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        this.decoderName = decoderName;
+        decoderInitCount++;
+        decoderInitDurationMs += initializationDurationMs;
+    }
+
+    @Override
+    public void onAudioInputFormatChanged(EventTime eventTime, Format format, DecoderReuseEvaluation decoderReuseEvaluation) {
+        this.format = format;
+    }
+
+    private void endStall(long time) {
+        if (stallStartTime == -1) return;
+        stalledTimeMs += time - stallStartTime;
+        stallStartTime = -1;
+    }
+
+    private String getMediaItemId(EventTime eventTime) {
+        if (eventTime.windowIndex < 0 || eventTime.windowIndex >= eventTime.timeline.getWindowCount()) return null;
+        MediaItem.LocalConfiguration localConfiguration = eventTime.timeline.getWindow(eventTime.windowIndex, window).mediaItem.localConfiguration;
+        if (localConfiguration == null || !(localConfiguration.tag instanceof String)) return null;
+        return (String)localConfiguration.tag;
+    }
+
+    /** Returns a snapshot of the aggregates. Durations are in microseconds. */
+    public Map<String, Object> toMap() {
+        Map<String, Object> sources = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : sourceLoads.entrySet()) {
+            long[] loads = entry.getValue();
+            sources.put(entry.getKey(), AudioPlayer.mapOf(
+                "bytesLoaded", loads[BYTES],
+                "loadDuration", loads[DURATION] * 1000,
+                "loadCount", loads[COUNT]
+            ));
+        }
+        // Include the stall in progress, if any.
+        long stalledTime = stalledTimeMs;
+        if (stallStartTime != -1) stalledTime += SystemClock.elapsedRealtime() - stallStartTime;
+        return AudioPlayer.mapOf(
+            "bytesLoaded", bytesLoaded,
+            "loadDuration", loadDurationMs * 1000,
+            "sources", sources,
+            "bandwidthEstimate", bandwidthEstimate >= 0 ? bandwidthEstimate : null,
+            "rebufferCount", rebufferCount,
+            "stalledTime", stalledTime * 1000,
+            "underrunCount", underrunCount,
+            "decoderName", decoderName,
+            "decoderInitCount", decoderInitCount,
+            "decoderInitDuration", decoderInitDurationMs * 1000,
+            "loadErrorCount", loadErrorCount,
+            "retryCount", retryCount,
+            "skipCount", skipCount,
+            "format", format == null ? null : AudioPlayer.mapOf(
+                "mimeType", format.sampleMimeType,
+                "codecs", format.codecs,
+                "bitrate", format.bitrate != Format.NO_VALUE ? format.bitrate : null,
+                "sampleRate", format.sampleRate != Format.NO_VALUE ? format.sampleRate : null,
+                "channelCount", format.channelCount != Format.NO_VALUE ? format.channelCount : null
+            )
+        );
+    }
+}
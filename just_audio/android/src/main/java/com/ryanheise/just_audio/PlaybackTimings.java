@@ -0,0 +1,233 @@
+package com.ryanheise.just_audio;
+
+import android.os.SystemClock;
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.Tracks;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures how long each stage of starting and sustaining playback takes.
+ *
+ * Each measurement is reported as a timing record with a type, the id of the
+ * media item it applies to (or null if unknown), and startTime and endTime in
+ * microseconds of SystemClock.elapsedRealtime(), which is monotonic. The
+ * record types are:
+ *
+ *   load        load() to the first STATE_READY
+ *   connection  opening a data source to its connection being open
+ *   firstByte   opening a data source to its first byte being read
+ *   prepare     the first byte of an item to its tracks being known
+ *   firstFrame  play() to the first audio frame being played out
+ *   seek        seek() to the seek completing
+ *   rebuffer    STATE_READY being lost during playback to it being regained
+ *
+ * connection and firstByte records also carry whether the data source is a
+ * network source. Player events arrive on the player thread and transfer
+ * events on loader threads, so records may be reported from either.
+ */
+public class PlaybackTimings implements AnalyticsListener {
+    private static final long UNSET = -1;
+
+    private final Listener listener;
+    private final Timeline.Window window = new Timeline.Window();
+    private long loadStartTime = UNSET;
+    private long playStartTime = UNSET;
+    private long seekStartTime = UNSET;
+    private long rebufferStartTime = UNSET;
+    private String rebufferId;
+    private boolean ready;
+    private boolean playWhenReady;
+    // Guarded by itself. The first byte time of each item whose tracks are
+    // not yet known, and the items whose tracks are known.
+    private final Map<String, Long> firstByteTimes = new HashMap<>();
+    private final Set<String> preparedIds = new HashSet<>();
+
+    public PlaybackTimings(Listener listener) {
+        this.listener = listener;
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    public void onLoad() {
+        loadStartTime = now();
+        seekStartTime = UNSET;
+        rebufferStartTime = UNSET;
+        ready = false;
+        synchronized (firstByteTimes) {
+            firstByteTimes.clear();
+            preparedIds.clear();
+        }
+    }
+
+    public void onPlay() {
+        if (playStartTime == UNSET) playStartTime = now();
+    }
+
+    public void onPause() {
+        playStartTime = UNSET;
+        if (rebufferStartTime != UNSET) {
+            report("rebuffer", rebufferId, rebufferStartTime, now());
+            rebufferStartTime = UNSET;
+        }
+    }
+
+    public void onSeek() {
+        seekStartTime = now();
+        // A seek interrupts any stall in progress.
+        rebufferStartTime = UNSET;
+    }
+
+    public void onSeekCompleted(String id) {
+        if (seekStartTime == UNSET) return;
+        report("seek", id, seekStartTime, now());
+        seekStartTime = UNSET;
+    }
+
+    /** Creates a listener for the data sources of the media item with this id. */
+    public TransferListener createTransferListener(final String id) {
+        return new TransferListener() {
+            // Guarded by this. The open time of each data source whose first
+            // byte has not been read yet.
+            private final Map<DataSource, Long> openTimes = new HashMap<>();
+
+            @Override
+            public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                synchronized (this) {
+                    openTimes.put(source, now());
+                }
+            }
+
+            @Override
+            public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                Long openTime;
+                synchronized (this) {
+                    openTime = openTimes.get(source);
+                }
+                if (openTime != null) {
+                    report("connection", id, openTime, now(), isNetwork);
+                }
+            }
+
+            @Override
+            public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+                Long openTime;
+                synchronized (this) {
+                    openTime = openTimes.remove(source);
+                }
+                if (openTime == null) return;
+                long time = now();
+                report("firstByte", id, openTime, time, isNetwork);
+                synchronized (firstByteTimes) {
+                    if (!preparedIds.contains(id) && !firstByteTimes.containsKey(id)) {
+                        firstByteTimes.put(id, time);
+                    }
+                }
+            }
+
+            @Override
+            public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                synchronized (this) {
+                    openTimes.remove(source);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void onPlayWhenReadyChanged(EventTime eventTime, boolean playWhenReady, int reason) {
+        this.playWhenReady = playWhenReady;
+    }
+
+    @Override
+    public void onPlaybackStateChanged(EventTime eventTime, int state) {
+        String id = getMediaItemId(eventTime.timeline, eventTime.windowIndex);
+        switch (state) {
+        case Player.STATE_READY:
+            if (loadStartTime != UNSET) {
+                report("load", id, loadStartTime, eventTime.realtimeMs);
+                loadStartTime = UNSET;
+            }
+            if (rebufferStartTime != UNSET) {
+                report("rebuffer", rebufferId, rebufferStartTime, eventTime.realtimeMs);
+                rebufferStartTime = UNSET;
+            }
+            ready = true;
+            break;
+        case Player.STATE_BUFFERING:
+            if (ready && playWhenReady && seekStartTime == UNSET) {
+                rebufferStartTime = eventTime.realtimeMs;
+                rebufferId = id;
+            }
+            ready = false;
+            break;
+        default:
+            ready = false;
+            rebufferStartTime = UNSET;
+            break;
+        }
+    }
+
+    @Override
+    public void onTracksChanged(EventTime eventTime, Tracks tracks) {
+        if (tracks.isEmpty()) return;
+        String id = getMediaItemId(eventTime.timeline, eventTime.windowIndex);
+        if (id == null) return;
+        Long firstByteTime;
+        synchronized (firstByteTimes) {
+            firstByteTime = firstByteTimes.remove(id);
+            preparedIds.add(id);
+        }
+        if (firstByteTime != null) {
+            report("prepare", id, firstByteTime, eventTime.realtimeMs);
+        }
+    }
+
+    @Override
+    public void onAudioPositionAdvancing(EventTime eventTime, long playoutStartSystemTimeMs) {
+        if (playStartTime == UNSET) return;
+        report("firstFrame", getMediaItemId(eventTime.timeline, eventTime.windowIndex), playStartTime, eventTime.realtimeMs);
+        playStartTime = UNSET;
+    }
+
+    /** Returns the id of the audio source at windowIndex, or null if unknown. */
+    public String getMediaItemId(Timeline timeline, int windowIndex) {
+        if (windowIndex < 0 || windowIndex >= timeline.getWindowCount()) return null;
+        MediaItem.LocalConfiguration localConfiguration = timeline.getWindow(windowIndex, window).mediaItem.localConfiguration;
+        if (localConfiguration == null || !(localConfiguration.tag instanceof String)) return null;
+        return (String)localConfiguration.tag;
+    }
+
+    private void report(String type, String id, long startTime, long endTime) {
+        listener.onTimingRecord(AudioPlayer.mapOf(
+            "type", type,
+            "id", id,
+            "startTime", startTime * 1000,
+            "endTime", endTime * 1000
+        ));
+    }
+
+    private void report(String type, String id, long startTime, long endTime, boolean network) {
+        listener.onTimingRecord(AudioPlayer.mapOf(
+            "type", type,
+            "id", id,
+            "startTime", startTime * 1000,
+            "endTime", endTime * 1000,
+            "network", network
+        ));
+    }
+
+    public interface Listener {
+        void onTimingRecord(Map<String, Object> record);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.ExoPlayer;
+import com.google.android.exoplayer2.PlaybackParameters;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.audio.AudioAttributes;
+import com.google.android.exoplayer2.util.Clock;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of idle ExoPlayer instances with the default configuration.
+ *
+ * Players can be built ahead of time so that a new AudioPlayer does not pay
+ * for ExoPlayer construction on its first method call, and disposed players
+ * are reset and kept for reuse instead of being released. At most
+ * maxIdleCount players are kept, and each is released after idleTimeout.
+ * The pool is disabled until configured. Must be used on the main thread.
+ */
+public class PlayerPool {
+    private final Context context;
+    // Null outside tests.
+    private final Clock clock;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<ExoPlayer> idlePlayers = new ArrayDeque<>();
+    private final Map<ExoPlayer, Runnable> expirations = new HashMap<>();
+    private final Map<ExoPlayer, PlaybackLoadControl> loadControls = new HashMap<>();
+    private int maxIdleCount;
+    private long idleTimeout;
+
+    public PlayerPool(Context context) {
+        this(context, null);
+    }
+
+    @VisibleForTesting
+    PlayerPool(Context context, Clock clock) {
+        this.context = context;
+        this.clock = clock;
+    }
+
+    /** Builds a player with the default configuration that may be released to the pool. */
+    ExoPlayer buildPlayer() {
+        PlaybackLoadControl loadControl = new PlaybackLoadControl(new DefaultLoadControl());
+        ExoPlayer player = AudioPlayer.createPlayerBuilder(context, clock)
+            .setLoadControl(loadControl)
+            .build();
+        loadControls.put(player, loadControl);
+        return player;
+    }
+
+    /** Returns the load control of a player built by this pool. */
+    public PlaybackLoadControl getLoadControl(ExoPlayer player) {
+        return loadControls.get(player);
+    }
+
+    /**
+     * Builds size players in the background, keeps at most maxIdleCount idle
+     * players, and releases each idle player after idleTimeout ms, or never if
+     * idleTimeout is 0.
+     */
+    public void configure(int size, int maxIdleCount, long idleTimeout) {
+        this.maxIdleCount = maxIdleCount;
+        this.idleTimeout = idleTimeout;
+        while (idlePlayers.size() > maxIdleCount) {
+            releaseIdlePlayer(idlePlayers.peekLast());
+        }
+        int count = Math.min(size, maxIdleCount) - idlePlayers.size();
+        // Build one player per message to avoid blocking the main thread for
+        // too long at once.
+        for (int i = 0; i < count; i++) {
+            handler.post(() -> {
+                if (idlePlayers.size() < this.maxIdleCount) {
+                    addIdlePlayer(buildPlayer());
+                }
+            });
+        }
+    }
+
+    /** Takes an idle player from the pool, or returns null if none is idle. */
+    public ExoPlayer acquire() {
+        ExoPlayer player = idlePlayers.pollFirst();
+        if (player != null) {
+            Runnable expiration = expirations.remove(player);
+            if (expiration != null) {
+                handler.removeCallbacks(expiration);
+            }
+        }
+        return player;
+    }
+
+    /**
+     * Resets a player that is no longer used and keeps it for reuse, or
+     * releases it if the pool is full. The caller must have removed its
+     * listeners.
+     */
+    public void release(ExoPlayer player) {
+        if (idlePlayers.size() >= maxIdleCount) {
+            loadControls.remove(player);
+            player.release();
+            return;
+        }
+        player.stop();
+        player.clearMediaItems();
+        player.setPlayWhenReady(false);
+        player.setVolume(1.0f);
+        player.setPlaybackParameters(PlaybackParameters.DEFAULT);
+        player.setRepeatMode(Player.REPEAT_MODE_OFF);
+        player.setShuffleModeEnabled(false);
+        player.setSkipSilenceEnabled(false);
+        player.setAudioAttributes(AudioAttributes.DEFAULT, false);
+        player.setTrackSelectionParameters(player.getTrackSelectionParameters().buildUpon()
+            .setMaxAudioBitrate(Integer.MAX_VALUE)
+            .build());
+        loadControls.get(player).reset();
+        addIdlePlayer(player);
+    }
+
+    /** Releases all idle players. */
+    public void clear() {
+        while (!idlePlayers.isEmpty()) {
+            releaseIdlePlayer(idlePlayers.peekFirst());
+        }
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    private void addIdlePlayer(final ExoPlayer player) {
+        idlePlayers.addFirst(player);
+        if (idleTimeout > 0) {
+            Runnable expiration = () -> releaseIdlePlayer(player);
+            expirations.put(player, expiration);
+            handler.postDelayed(expiration, idleTimeout);
+        }
+    }
+
+    private void releaseIdlePlayer(ExoPlayer player) {
+        idlePlayers.remove(player);
+        Runnable expiration = expirations.remove(player);
+        if (expiration != null) {
+            handler.removeCallbacks(expiration);
+        }
+        loadControls.remove(player);
+        player.release();
+    }
+}
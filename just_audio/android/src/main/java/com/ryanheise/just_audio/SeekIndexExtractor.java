@@ -0,0 +1,354 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import android.util.Log;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.ExtractorInput;
+import com.google.android.exoplayer2.extractor.ExtractorOutput;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.extractor.TrackOutput;
+import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
+import com.google.android.exoplayer2.upstream.DataReader;
+import com.google.android.exoplayer2.util.LongArray;
+import com.google.android.exoplayer2.util.ParsableByteArray;
+import com.google.android.exoplayer2.util.Util;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps an Mp3Extractor with a seek index that is stored on disk.
+ *
+ * The first time a file is read from start to end, the byte position of a
+ * frame is recorded every INDEX_INTERVAL_US and the index is saved under a
+ * key made from the URI, length and ETag. Later extractions of the same file
+ * seek through the index instead of the MP3's own seeker, which for VBR files
+ * without a Xing or VBRI header is a constant bitrate estimate. Since the
+ * Mp3Extractor still computes timestamps after a seek from its own seeker,
+ * the timestamps of the samples that follow an indexed seek point are
+ * corrected to the time stored in the index.
+ */
+public class SeekIndexExtractor implements Extractor {
+    private static final String TAG = "SeekIndexExtractor";
+    private static final int VERSION = 1;
+    private static final long INDEX_INTERVAL_US = C.MICROS_PER_SECOND;
+    private static final int MAX_INDEX_FILES = 256;
+
+    private final Extractor extractor;
+    private final File directory;
+    private final String keyPrefix;
+    private File indexFile;
+    private Index index;
+    private boolean started;
+    // The index being recorded while reading contiguously from the start.
+    private boolean recording;
+    private LongArray recordedTimesUs = new LongArray();
+    private LongArray recordedPositions = new LongArray();
+    private long lastSampleTimeUs = C.TIME_UNSET;
+    private long lastFrameDurationUs;
+    private boolean inSample;
+    private long frameStart;
+    private long pendingFrameTimeUs = C.TIME_UNSET;
+    private long timeOffsetUs;
+
+    public SeekIndexExtractor(Extractor extractor, File directory, String keyPrefix) {
+        this.extractor = extractor;
+        this.directory = directory;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public boolean sniff(ExtractorInput input) throws IOException {
+        return extractor.sniff(input);
+    }
+
+    @Override
+    public void init(ExtractorOutput output) {
+        extractor.init(new IndexedExtractorOutput(output));
+    }
+
+    @Override
+    public int read(ExtractorInput input, PositionHolder seekPosition) throws IOException {
+        if (!started) {
+            started = true;
+            start(input);
+        }
+        int result = extractor.read(input, seekPosition);
+        if (result == RESULT_SEEK) {
+            recording = false;
+        } else if (result == RESULT_END_OF_INPUT && recording) {
+            recording = false;
+            save();
+        }
+        return result;
+    }
+
+    private void start(ExtractorInput input) {
+        long length = input.getLength();
+        if (length == C.LENGTH_UNSET) return;
+        indexFile = new File(directory, sha1(keyPrefix + ":" + length) + ".idx");
+        index = load(indexFile);
+        // Only a read that begins at the start of the file can build an index.
+        recording = index == null && input.getPosition() == 0;
+    }
+
+    @Override
+    public void seek(long position, long timeUs) {
+        extractor.seek(position, timeUs);
+        inSample = false;
+        timeOffsetUs = 0;
+        pendingFrameTimeUs = C.TIME_UNSET;
+        if (index != null) {
+            int i = Arrays.binarySearch(index.positions, position);
+            if (i >= 0) pendingFrameTimeUs = index.timesUs[i];
+        }
+        if (recording && position == 0) {
+            recordedTimesUs = new LongArray();
+            recordedPositions = new LongArray();
+            lastSampleTimeUs = C.TIME_UNSET;
+        } else {
+            recording = false;
+        }
+    }
+
+    @Override
+    public void release() {
+        extractor.release();
+    }
+
+    private void onSampleMetadata(long timeUs) {
+        inSample = false;
+        if (!recording) return;
+        if (lastSampleTimeUs != C.TIME_UNSET) lastFrameDurationUs = timeUs - lastSampleTimeUs;
+        lastSampleTimeUs = timeUs;
+        int size = recordedTimesUs.size();
+        if (size == 0 || timeUs - recordedTimesUs.get(size - 1) >= INDEX_INTERVAL_US) {
+            recordedTimesUs.add(timeUs);
+            recordedPositions.add(frameStart);
+        }
+    }
+
+    private void save() {
+        if (indexFile == null || recordedTimesUs.size() == 0) return;
+        long durationUs = lastSampleTimeUs + lastFrameDurationUs;
+        File tempFile = new File(directory, indexFile.getName() + ".tmp");
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) return;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                out.writeLong(durationUs);
+                out.writeInt(recordedTimesUs.size());
+                for (int i = 0; i < recordedTimesUs.size(); i++) {
+                    out.writeLong(recordedTimesUs.get(i));
+                    out.writeLong(recordedPositions.get(i));
+                }
+            }
+            if (!tempFile.renameTo(indexFile)) {
+                tempFile.delete();
+                return;
+            }
+            index = new Index(durationUs, recordedTimesUs.toArray(), recordedPositions.toArray());
+            prune();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save seek index", e);
+            tempFile.delete();
+        }
+    }
+
+    private static Index load(File file) {
+        if (!file.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return null;
+            long durationUs = in.readLong();
+            int count = in.readInt();
+            if (count <= 0) return null;
+            long[] timesUs = new long[count];
+            long[] positions = new long[count];
+            for (int i = 0; i < count; i++) {
+                timesUs[i] = in.readLong();
+                positions[i] = in.readLong();
+            }
+            // Keep recently used indexes from being pruned.
+            file.setLastModified(System.currentTimeMillis());
+            return new Index(durationUs, timesUs, positions);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load seek index", e);
+            return null;
+        }
+    }
+
+    // Deletes the least recently used indexes beyond MAX_INDEX_FILES.
+    private void prune() {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= MAX_INDEX_FILES) return;
+        long[] lastModified = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+        }
+        long[] sorted = lastModified.clone();
+        Arrays.sort(sorted);
+        long threshold = sorted[files.length - MAX_INDEX_FILES];
+        for (int i = 0; i < files.length; i++) {
+            if (lastModified[i] < threshold) files[i].delete();
+        }
+    }
+
+    private static String sha1(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(Util.getUtf8Bytes(key));
+            return Util.toHexString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    private static class Index implements SeekMap {
+        final long durationUs;
+        final long[] timesUs;
+        final long[] positions;
+
+        Index(long durationUs, long[] timesUs, long[] positions) {
+            this.durationUs = durationUs;
+            this.timesUs = timesUs;
+            this.positions = positions;
+        }
+
+        @Override
+        public boolean isSeekable() {
+            return true;
+        }
+
+        @Override
+        public long getDurationUs() {
+            return durationUs;
+        }
+
+        @Override
+        public SeekPoints getSeekPoints(long timeUs) {
+            int i = Util.binarySearchFloor(timesUs, timeUs, true, true);
+            SeekPoint seekPoint = new SeekPoint(timesUs[i], positions[i]);
+            if (seekPoint.timeUs >= timeUs || i == timesUs.length - 1) {
+                return new SeekPoints(seekPoint);
+            }
+            return new SeekPoints(seekPoint, new SeekPoint(timesUs[i + 1], positions[i + 1]));
+        }
+    }
+
+    private class IndexedExtractorOutput implements ExtractorOutput {
+        private final ExtractorOutput output;
+
+        IndexedExtractorOutput(ExtractorOutput output) {
+            this.output = output;
+        }
+
+        @Override
+        public TrackOutput track(int id, int type) {
+            return new IndexedTrackOutput(output.track(id, type));
+        }
+
+        @Override
+        public void endTracks() {
+            output.endTracks();
+        }
+
+        @Override
+        public void seekMap(SeekMap seekMap) {
+            output.seekMap(index != null ? index : seekMap);
+        }
+    }
+
+    private class IndexedTrackOutput implements TrackOutput {
+        private final TrackOutput output;
+
+        IndexedTrackOutput(TrackOutput output) {
+            this.output = output;
+        }
+
+        @Override
+        public void format(Format format) {
+            output.format(format);
+        }
+
+        @Override
+        public int sampleData(DataReader input, int length, boolean allowEndOfInput, int sampleDataPart) throws IOException {
+            // The Mp3Extractor reads each frame straight from the input, so
+            // the first read of a frame starts at the frame's header.
+            if (!inSample && input instanceof ExtractorInput) {
+                frameStart = ((ExtractorInput)input).getPosition();
+            }
+            inSample = true;
+            return output.sampleData(input, length, allowEndOfInput, sampleDataPart);
+        }
+
+        @Override
+        public void sampleData(ParsableByteArray data, int length, int sampleDataPart) {
+            inSample = true;
+            output.sampleData(data, length, sampleDataPart);
+        }
+
+        @Override
+        public void sampleMetadata(long timeUs, int flags, int size, int offset, CryptoData cryptoData) {
+            // Align the first frame after an indexed seek to its indexed time.
+            if (pendingFrameTimeUs != C.TIME_UNSET) {
+                timeOffsetUs = pendingFrameTimeUs - timeUs;
+                pendingFrameTimeUs = C.TIME_UNSET;
+            }
+            timeUs += timeOffsetUs;
+            onSampleMetadata(timeUs);
+            output.sampleMetadata(timeUs, flags, size, offset, cryptoData);
+        }
+    }
+
+    /**
+     * Wraps the Mp3Extractors created by another factory with a
+     * SeekIndexExtractor storing its indexes in a directory.
+     */
+    public static class Factory implements ExtractorsFactory {
+        private final ExtractorsFactory delegate;
+        private final File directory;
+
+        public Factory(ExtractorsFactory delegate, File directory) {
+            this.delegate = delegate;
+            this.directory = directory;
+        }
+
+        @Override
+        public Extractor[] createExtractors() {
+            return delegate.createExtractors();
+        }
+
+        @Override
+        public Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
+            Extractor[] extractors = delegate.createExtractors(uri, responseHeaders);
+            String etag = null;
+            for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
+                String name = entry.getKey();
+                if (name == null) continue;
+                // ICY streams are live, so there is nothing to index.
+                if (name.toLowerCase().startsWith("icy-")) return extractors;
+                if (name.equalsIgnoreCase("ETag") && !entry.getValue().isEmpty()) etag = entry.getValue().get(0);
+            }
+            for (int i = 0; i < extractors.length; i++) {
+                if (extractors[i] instanceof Mp3Extractor) {
+                    extractors[i] = new SeekIndexExtractor(extractors[i], directory, uri + ":" + etag);
+                }
+            }
+            return extractors;
+        }
+    }
+}
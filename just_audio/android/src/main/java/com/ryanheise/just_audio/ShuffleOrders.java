@@ -0,0 +1,56 @@
+package com.ryanheise.just_audio;
+
+import com.google.android.exoplayer2.source.ShuffleOrder;
+import com.google.android.exoplayer2.source.ShuffleOrder.DefaultShuffleOrder;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the shuffle orders of concatenating media sources.
+ *
+ * The shuffle order of each ConcatenatingAudioSource is chosen by the Dart
+ * side and sent as a list of indices, which decode turns into the equivalent
+ * DefaultShuffleOrder. The random seed only affects where items later
+ * inserted into the source are placed.
+ */
+public class ShuffleOrders {
+    private ShuffleOrders() {}
+
+    /** Decodes a shuffle order sent as a list of indices. */
+    public static ShuffleOrder decode(List<Integer> indexList, Random random) {
+        int[] shuffleIndices = new int[indexList.size()];
+        for (int i = 0; i < shuffleIndices.length; i++) {
+            shuffleIndices[i] = indexList.get(i);
+        }
+        return new DefaultShuffleOrder(shuffleIndices, random.nextLong());
+    }
+
+    /**
+     * Returns a random permutation of the indices below length, moved so that
+     * it starts with firstIndex if not null.
+     */
+    public static int[] shuffle(int length, Integer firstIndex, Random random) {
+        final int[] shuffleOrder = new int[length];
+        for (int i = 0; i < length; i++) {
+            final int j = random.nextInt(i + 1);
+            shuffleOrder[i] = shuffleOrder[j];
+            shuffleOrder[j] = i;
+        }
+        if (firstIndex != null) {
+            for (int i = 1; i < length; i++) {
+                if (shuffleOrder[i] == firstIndex) {
+                    final int v = shuffleOrder[0];
+                    shuffleOrder[0] = shuffleOrder[i];
+                    shuffleOrder[i] = v;
+                    break;
+                }
+            }
+        }
+        return shuffleOrder;
+    }
+
+    /** Creates a random shuffle order optionally fixing the first index. */
+    public static ShuffleOrder create(int length, Integer firstIndex, Random random) {
+        return new DefaultShuffleOrder(shuffle(length, firstIndex, random), random.nextLong());
+    }
+}
@@ -0,0 +1,495 @@
+package com.ryanheise.just_audio;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import android.os.Build;
+import androidx.annotation.RequiresApi;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A player for short sound effects.
+ *
+ * Clips are decoded once into 16-bit stereo PCM at the output sample rate and
+ * kept in an in-memory cache that evicts the least recently used clips once
+ * maxCacheSize bytes are exceeded. All playing voices are mixed into a single
+ * low latency AudioTrack, so triggering a sound does not need a player,
+ * extractor or AudioTrack of its own.
+ */
+@RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+public class SoundEffectPlayer implements MethodCallHandler {
+    private static final int CHUNK_FRAMES = 256;
+    // Keep the AudioTrack running this long after the last voice ends so that
+    // a following trigger does not pay to restart it.
+    private static final long IDLE_TIMEOUT_MS = 2000;
+    private static final int DEQUEUE_TIMEOUT_US = 10000;
+
+    private final Context context;
+    private final MethodChannel methodChannel;
+    private final long maxCacheSize;
+    private final int maxVoices;
+    private final int sampleRate;
+    private final AudioTrack audioTrack;
+    private final ExecutorService decoder = Executors.newSingleThreadExecutor();
+    // Access order makes iteration start at the least recently used clip.
+    private final LinkedHashMap<String, short[]> clips = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheSize;
+    private final List<Voice> voices = new ArrayList<>();
+    private int nextVoiceId;
+    private boolean released;
+    private final Thread mixer;
+
+    private long latencyCount;
+    private double latencyTotalMs;
+    private double latencyMaxMs;
+    private double latencyLastMs;
+
+    public SoundEffectPlayer(final Context applicationContext, final BinaryMessenger messenger, final String id, long maxCacheSize, int maxVoices) {
+        this.context = applicationContext;
+        this.maxCacheSize = maxCacheSize;
+        this.maxVoices = maxVoices;
+        AudioManager audioManager = (AudioManager)context.getSystemService(Context.AUDIO_SERVICE);
+        String nativeSampleRate = audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE);
+        sampleRate = nativeSampleRate != null ? Integer.parseInt(nativeSampleRate) : 48000;
+        audioTrack = createAudioTrack(sampleRate);
+        methodChannel = new MethodChannel(messenger, "com.ryanheise.just_audio.sound_effects.methods." + id);
+        methodChannel.setMethodCallHandler(this);
+        mixer = new Thread(this::mix, "just_audio:sound_effects:" + id);
+        mixer.setPriority(Thread.MAX_PRIORITY);
+        mixer.start();
+    }
+
+    private static AudioTrack createAudioTrack(int sampleRate) {
+        AudioAttributes attributes = new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_GAME)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+            .build();
+        AudioFormat format = new AudioFormat.Builder()
+            .setSampleRate(sampleRate)
+            .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+            .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+            .build();
+        int bufferSize = AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT);
+        if (Build.VERSION.SDK_INT >= 26) {
+            return new AudioTrack.Builder()
+                .setAudioAttributes(attributes)
+                .setAudioFormat(format)
+                .setBufferSizeInBytes(bufferSize)
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+                .build();
+        } else {
+            return new AudioTrack(attributes, format, bufferSize, AudioTrack.MODE_STREAM, AudioManager.AUDIO_SESSION_ID_GENERATE);
+        }
+    }
+
+    @Override
+    public void onMethodCall(final MethodCall call, final Result rawResult) {
+        // Measure latency from the moment the trigger reaches the platform.
+        final long triggerTime = System.nanoTime();
+        final Result result = new MainThreadResult(rawResult);
+        try {
+            switch (call.method) {
+            case "load": {
+                final String uri = call.argument("uri");
+                final Map<String, String> headers = call.argument("headers");
+                decoder.execute(new DecoderTask(result) {
+                    @Override
+                    public void run() {
+                        try {
+                            short[] pcm = getClip(uri, headers);
+                            result.success(mapOf("duration", 1000000L * (pcm.length / 2) / sampleRate));
+                        } catch (Exception e) {
+                            result.error("Error: " + e, null, null);
+                        }
+                    }
+                });
+                break;
+            }
+            case "unload": {
+                synchronized (clips) {
+                    short[] pcm = clips.remove((String)call.argument("uri"));
+                    if (pcm != null) cacheSize -= 2 * pcm.length;
+                }
+                result.success(new HashMap<String, Object>());
+                break;
+            }
+            case "play": {
+                final String uri = call.argument("uri");
+                final Map<String, String> headers = call.argument("headers");
+                final float volume = (float)((double)((Double)call.argument("volume")));
+                final Boolean loop = call.argument("loop");
+                final int voiceId;
+                synchronized (voices) {
+                    voiceId = nextVoiceId++;
+                }
+                short[] pcm;
+                synchronized (clips) {
+                    pcm = clips.get(uri);
+                }
+                if (pcm != null) {
+                    startVoice(new Voice(voiceId, pcm, volume, loop != null && loop, triggerTime));
+                    result.success(mapOf("voiceId", voiceId));
+                } else {
+                    // Not cached yet, so decode first.
+                    decoder.execute(new DecoderTask(result) {
+                        @Override
+                        public void run() {
+                            try {
+                                startVoice(new Voice(voiceId, getClip(uri, headers), volume, loop != null && loop, triggerTime));
+                                result.success(mapOf("voiceId", voiceId));
+                            } catch (Exception e) {
+                                result.error("Error: " + e, null, null);
+                            }
+                        }
+                    });
+                }
+                break;
+            }
+            case "stop": {
+                // A null voiceId stops all voices.
+                Integer voiceId = call.argument("voiceId");
+                synchronized (voices) {
+                    for (Iterator<Voice> it = voices.iterator(); it.hasNext();) {
+                        Voice voice = it.next();
+                        if (voiceId == null || voice.id == voiceId) it.remove();
+                    }
+                }
+                result.success(new HashMap<String, Object>());
+                break;
+            }
+            case "setVolume": {
+                int voiceId = call.argument("voiceId");
+                float volume = (float)((double)((Double)call.argument("volume")));
+                synchronized (voices) {
+                    for (Voice voice : voices) {
+                        if (voice.id == voiceId) voice.volume = volume;
+                    }
+                }
+                result.success(new HashMap<String, Object>());
+                break;
+            }
+            case "getStatistics":
+                result.success(getStatistics());
+                break;
+            default:
+                result.notImplemented();
+                break;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            result.error("Error: " + e, null, null);
+        }
+    }
+
+    private void startVoice(Voice voice) {
+        synchronized (voices) {
+            if (released) return;
+            if (voices.size() >= maxVoices) {
+                // Steal the oldest voice.
+                voices.remove(0);
+            }
+            voices.add(voice);
+            voices.notifyAll();
+        }
+    }
+
+    private short[] getClip(String uri, Map<String, String> headers) throws IOException {
+        synchronized (clips) {
+            short[] pcm = clips.get(uri);
+            if (pcm != null) return pcm;
+        }
+        short[] pcm = decode(uri, headers);
+        synchronized (clips) {
+            if (!clips.containsKey(uri)) {
+                clips.put(uri, pcm);
+                cacheSize += 2 * pcm.length;
+                Iterator<Map.Entry<String, short[]>> it = clips.entrySet().iterator();
+                while (cacheSize > maxCacheSize && it.hasNext()) {
+                    Map.Entry<String, short[]> eldest = it.next();
+                    if (eldest.getKey().equals(uri)) continue;
+                    cacheSize -= 2 * eldest.getValue().length;
+                    it.remove();
+                }
+            }
+        }
+        return pcm;
+    }
+
+    // Decodes a clip into 16-bit stereo PCM at the output sample rate.
+    private short[] decode(String uri, Map<String, String> headers) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(context, Uri.parse(uri), headers);
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat trackFormat = extractor.getTrackFormat(i);
+                String mime = trackFormat.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = trackFormat;
+                    break;
+                }
+            }
+            if (format == null) throw new IOException("No audio track found in " + uri);
+            int inputSampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            short[] pcm = new short[64 * 1024];
+            int length = 0;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = codec.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+                int outputIndex = codec.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+                if (outputIndex >= 0) {
+                    ByteBuffer outputBuffer = codec.getOutputBuffer(outputIndex);
+                    outputBuffer.position(info.offset);
+                    outputBuffer.limit(info.offset + info.size);
+                    ShortBuffer samples = outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+                    int count = samples.remaining();
+                    if (length + count > pcm.length) {
+                        short[] grown = new short[Math.max(pcm.length * 2, length + count)];
+                        System.arraycopy(pcm, 0, grown, 0, length);
+                        pcm = grown;
+                    }
+                    samples.get(pcm, length, count);
+                    length += count;
+                    codec.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                    if (2L * length > maxCacheSize) {
+                        throw new IOException("Clip exceeds the cache size: " + uri);
+                    }
+                } else if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    inputSampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                }
+            }
+            return toOutputFormat(pcm, length, channelCount, inputSampleRate, sampleRate);
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (IllegalStateException e) {
+                    // Not started.
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    // Converts interleaved PCM to stereo at outputRate using linear
+    // interpolation. Mono is duplicated and extra channels are dropped.
+    private static short[] toOutputFormat(short[] pcm, int length, int channelCount, int inputRate, int outputRate) {
+        int inputFrames = length / channelCount;
+        if (inputFrames == 0) return new short[0];
+        int outputFrames = (int)((long)inputFrames * outputRate / inputRate);
+        short[] output = new short[outputFrames * 2];
+        for (int i = 0; i < outputFrames; i++) {
+            double position = (double)i * inputRate / outputRate;
+            int i0 = (int)position;
+            int i1 = Math.min(i0 + 1, inputFrames - 1);
+            double fraction = position - i0;
+            for (int c = 0; c < 2; c++) {
+                int channel = Math.min(c, channelCount - 1);
+                double sample = pcm[i0 * channelCount + channel] * (1 - fraction) + pcm[i1 * channelCount + channel] * fraction;
+                output[i * 2 + c] = (short)sample;
+            }
+        }
+        return output;
+    }
+
+    // Runs on the mixer thread.
+    private void mix() {
+        final int[] mixBuffer = new int[CHUNK_FRAMES * 2];
+        final short[] outputBuffer = new short[CHUNK_FRAMES * 2];
+        final List<Voice> started = new ArrayList<>();
+        long framesWritten = 0;
+        long idleSince = System.nanoTime();
+        audioTrack.play();
+        while (true) {
+            started.clear();
+            Arrays.fill(mixBuffer, 0);
+            synchronized (voices) {
+                if (released) break;
+                if (voices.isEmpty() && System.nanoTime() - idleSince >= IDLE_TIMEOUT_MS * 1000000L) {
+                    audioTrack.pause();
+                    audioTrack.flush();
+                    framesWritten = 0;
+                    try {
+                        while (voices.isEmpty() && !released) {
+                            voices.wait();
+                        }
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    if (released) break;
+                    audioTrack.play();
+                }
+                for (Iterator<Voice> it = voices.iterator(); it.hasNext();) {
+                    Voice voice = it.next();
+                    if (voice.position == 0 && !voice.started) {
+                        voice.started = true;
+                        started.add(voice);
+                    }
+                    if (!voice.mixInto(mixBuffer)) it.remove();
+                }
+                if (!voices.isEmpty()) idleSince = System.nanoTime();
+            }
+            for (int i = 0; i < mixBuffer.length; i++) {
+                int sample = mixBuffer[i];
+                outputBuffer[i] = (short)(sample > Short.MAX_VALUE ? Short.MAX_VALUE : sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+            }
+            long chunkStartFrame = framesWritten;
+            audioTrack.write(outputBuffer, 0, outputBuffer.length);
+            framesWritten += CHUNK_FRAMES;
+            if (!started.isEmpty()) {
+                // Frames still queued ahead of this chunk have yet to be
+                // played out.
+                long now = System.nanoTime();
+                long pendingFrames = Math.max(0, chunkStartFrame - (audioTrack.getPlaybackHeadPosition() & 0xffffffffL));
+                double queuedMs = 1000.0 * pendingFrames / sampleRate;
+                for (Voice voice : started) {
+                    recordLatency((now - voice.triggerTime) / 1000000.0 + queuedMs);
+                }
+            }
+        }
+        audioTrack.release();
+    }
+
+    private synchronized void recordLatency(double latencyMs) {
+        latencyCount++;
+        latencyTotalMs += latencyMs;
+        latencyMaxMs = Math.max(latencyMaxMs, latencyMs);
+        latencyLastMs = latencyMs;
+    }
+
+    private synchronized Map<String, Object> getStatistics() {
+        int voiceCount;
+        synchronized (voices) {
+            voiceCount = voices.size();
+        }
+        int clipCount;
+        long cacheSize;
+        synchronized (clips) {
+            clipCount = clips.size();
+            cacheSize = this.cacheSize;
+        }
+        return mapOf(
+            "triggerCount", latencyCount,
+            "averageLatency", latencyCount > 0 ? (long)(1000 * latencyTotalMs / latencyCount) : null,
+            "maxLatency", latencyCount > 0 ? (long)(1000 * latencyMaxMs) : null,
+            "lastLatency", latencyCount > 0 ? (long)(1000 * latencyLastMs) : null,
+            "voiceCount", voiceCount,
+            "clipCount", clipCount,
+            "cacheSize", cacheSize
+        );
+    }
+
+    public void dispose() {
+        methodChannel.setMethodCallHandler(null);
+        // Answer the loads and plays that were still queued.
+        for (Runnable task : decoder.shutdownNow()) {
+            ((DecoderTask)task).result.error("Sound effect player disposed", null, null);
+        }
+        synchronized (voices) {
+            released = true;
+            voices.clear();
+            voices.notifyAll();
+        }
+        synchronized (clips) {
+            clips.clear();
+            cacheSize = 0;
+        }
+    }
+
+    private static Map<String, Object> mapOf(Object... args) {
+        return AudioPlayer.mapOf(args);
+    }
+
+    // A task queued on the decoder that replies to result.
+    private abstract static class DecoderTask implements Runnable {
+        final Result result;
+
+        DecoderTask(Result result) {
+            this.result = result;
+        }
+    }
+
+    private static class Voice {
+        final int id;
+        final short[] pcm;
+        final boolean loop;
+        final long triggerTime;
+        float volume;
+        int position;
+        boolean started;
+
+        Voice(int id, short[] pcm, float volume, boolean loop, long triggerTime) {
+            this.id = id;
+            this.pcm = pcm;
+            this.volume = volume;
+            this.loop = loop;
+            this.triggerTime = triggerTime;
+        }
+
+        // Adds the next chunk of this voice to the mix. Returns false once the
+        // voice has finished.
+        boolean mixInto(int[] mixBuffer) {
+            if (pcm.length == 0) return false;
+            for (int i = 0; i < mixBuffer.length; i++) {
+                if (position >= pcm.length) {
+                    if (!loop) return false;
+                    position = 0;
+                }
+                mixBuffer[i] += (int)(pcm[position++] * volume);
+            }
+            return position < pcm.length || loop;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ryanheise.just_audio;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.upstream.BaseDataSource;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceException;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A DataSource that reads a Dart StreamAudioSource over a binary channel
+ * instead of through the loopback HTTP proxy.
+ *
+ * URIs have the form just-audio-stream:{sourceId}. Data is requested from
+ * Dart in windows of WINDOW_SIZE bytes, and the next window is requested as
+ * soon as the current one arrives so that it is usually ready by the time
+ * it is needed. Outstanding requests are cancelled when the source is
+ * closed. See _StreamAudioSourceBridge on the Dart side for the message
+ * layout.
+ */
+public class StreamDataSource extends BaseDataSource {
+    public static final String SCHEME = "just-audio-stream";
+    private static final int WINDOW_SIZE = 256 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final AtomicLong nextRequestId = new AtomicLong();
+
+    private final BinaryMessenger messenger;
+    private final String channel;
+    private Uri uri;
+    private String sourceId;
+    private long position;
+    private long bytesRemaining;
+    private Window current;
+    private Window readAhead;
+    private boolean opened;
+
+    public StreamDataSource(BinaryMessenger messenger, String channel) {
+        super(false);
+        this.messenger = messenger;
+        this.channel = channel;
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        uri = dataSpec.uri;
+        sourceId = uri.getSchemeSpecificPart();
+        transferInitializing(dataSpec);
+        position = dataSpec.position;
+        current = request(position);
+        current.await();
+        long sourceLength = current.sourceLength;
+        if (sourceLength != C.LENGTH_UNSET && position > sourceLength) {
+            throw new DataSourceException(PlaybackException.ERROR_CODE_IO_READ_POSITION_OUT_OF_RANGE);
+        }
+        if (dataSpec.length != C.LENGTH_UNSET) {
+            bytesRemaining = dataSpec.length;
+        } else {
+            bytesRemaining = sourceLength != C.LENGTH_UNSET ? sourceLength - position : C.LENGTH_UNSET;
+        }
+        opened = true;
+        transferStarted(dataSpec);
+        return bytesRemaining;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (bytesRemaining == 0) return C.RESULT_END_OF_INPUT;
+        if (!current.data.hasRemaining()) {
+            // A short window marks the end of the data.
+            if (current.isLast()) return C.RESULT_END_OF_INPUT;
+            current = readAhead != null ? readAhead : request(position);
+            readAhead = null;
+            current.await();
+            if (!current.data.hasRemaining()) return C.RESULT_END_OF_INPUT;
+        }
+        if (readAhead == null && !current.isLast()) {
+            readAhead = request(current.start + current.data.limit());
+        }
+        int count = Math.min(length, current.data.remaining());
+        if (bytesRemaining != C.LENGTH_UNSET) {
+            count = (int)Math.min(count, bytesRemaining);
+            bytesRemaining -= count;
+        }
+        current.data.get(buffer, offset, count);
+        position += count;
+        bytesTransferred(count);
+        return count;
+    }
+
+    @Override
+    public Uri getUri() {
+        return uri;
+    }
+
+    @Override
+    public void close() {
+        cancel(current);
+        cancel(readAhead);
+        current = null;
+        readAhead = null;
+        uri = null;
+        if (opened) {
+            opened = false;
+            transferEnded();
+        }
+    }
+
+    private Window request(long start) {
+        Window window = new Window(nextRequestId.incrementAndGet(), start);
+        send(window.requestId, start, WINDOW_SIZE, window);
+        return window;
+    }
+
+    private void cancel(Window window) {
+        if (window == null || window.isDone()) return;
+        send(window.requestId, 0, -1, null);
+    }
+
+    private void send(long requestId, long start, int length, final Window window) {
+        byte[] id = sourceId.getBytes(UTF8);
+        final ByteBuffer message = ByteBuffer.allocateDirect(20 + id.length).order(ByteOrder.LITTLE_ENDIAN);
+        message.putLong(requestId).putLong(start).putInt(length).put(id);
+        // Messages must be sent on the platform thread.
+        mainHandler.post(() -> messenger.send(channel, message, reply -> {
+            if (window != null) window.complete(reply);
+        }));
+    }
+
+    private static class Window {
+        final long requestId;
+        final long start;
+        long sourceLength = C.LENGTH_UNSET;
+        ByteBuffer data;
+        private boolean done;
+        private boolean failed;
+
+        Window(long requestId, long start) {
+            this.requestId = requestId;
+            this.start = start;
+        }
+
+        // Called on the platform thread. The reply is only valid during the
+        // callback, so it is copied out.
+        synchronized void complete(ByteBuffer reply) {
+            if (reply == null || reply.remaining() < 8) {
+                failed = true;
+            } else {
+                reply.order(ByteOrder.LITTLE_ENDIAN);
+                long length = reply.getLong();
+                sourceLength = length >= 0 ? length : C.LENGTH_UNSET;
+                data = ByteBuffer.allocate(reply.remaining());
+                data.put(reply);
+                data.flip();
+            }
+            done = true;
+            notifyAll();
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+
+        synchronized void await() throws IOException {
+            try {
+                while (!done) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (failed) {
+                throw new DataSourceException(PlaybackException.ERROR_CODE_IO_UNSPECIFIED);
+            }
+        }
+
+        boolean isLast() {
+            return data.limit() < WINDOW_SIZE;
+        }
+    }
+
+    public static class Factory implements DataSource.Factory {
+        private final BinaryMessenger messenger;
+        private final String channel;
+        private final TransferListener transferListener;
+
+        public Factory(BinaryMessenger messenger, String channel, TransferListener transferListener) {
+            this.messenger = messenger;
+            this.channel = channel;
+            this.transferListener = transferListener;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            StreamDataSource dataSource = new StreamDataSource(messenger, channel);
+            if (transferListener != null) {
+                dataSource.addTransferListener(transferListener);
+            }
+            return dataSource;
+        }
+    }
+}
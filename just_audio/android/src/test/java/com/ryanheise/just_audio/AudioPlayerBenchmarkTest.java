@@ -0,0 +1,239 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.google.android.exoplayer2.metadata.icy.IcyHeaders;
+import com.google.android.exoplayer2.metadata.icy.IcyInfo;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.ShuffleOrder;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmarks the code that runs on every method call or playback event.
+ *
+ * Each benchmark measures its mean time, bytes allocated per operation and
+ * allocation rate, and checks the result of the last operation. The
+ * benchmarks are skipped by default. Run them from an app that depends on the
+ * plugin, e.g. with
+ * `./gradlew :just_audio:testDebugUnitTest -Pbenchmark --tests '*BenchmarkTest'`
+ * in example/android. The results are written to
+ * build/reports/benchmarks/AudioPlayerBenchmarkTest.txt in the plugin's build
+ * directory.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerBenchmarkTest {
+    private static final int[] PLAYLIST_SIZES = { 1000, 10000, 50000 };
+    private static final int[] SHUFFLE_SIZES = { 10000, 100000, 1000000 };
+    // The number of events or metadata maps built per operation.
+    private static final int EVENTS_PER_OPERATION = 1000;
+
+    private static final String REPORT_DIR_PROPERTY = "just_audio.benchmark.reportDir";
+
+    private static final Benchmark benchmark = new Benchmark(3, 5);
+    private final Random random = new Random(0);
+    private Context context;
+    private FakeBinaryMessenger messenger;
+    private PlayerPool playerPool;
+    private int nextId;
+
+    @BeforeClass
+    public static void assumeEnabled() {
+        Assume.assumeNotNull(System.getProperty(REPORT_DIR_PROPERTY));
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        if (benchmark.getResults().isEmpty()) return;
+        benchmark.writeReport(new File(System.getProperty(REPORT_DIR_PROPERTY), "AudioPlayerBenchmarkTest.txt"));
+    }
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        messenger = new FakeBinaryMessenger();
+        playerPool = new PlayerPool(context);
+    }
+
+    @Test
+    public void decodeWideAudioSource() throws Exception {
+        for (int size : PLAYLIST_SIZES) {
+            final Map<String, Object> json = createTree(size, size);
+            benchmark.run("decodeAudioSource wide " + size, this::createPlayer,
+                    player -> player.getAudioSource(json));
+            assertEquals(size, ((ConcatenatingMediaSource)benchmark.getSink()).getSize());
+        }
+    }
+
+    @Test
+    public void decodeDeepAudioSource() throws Exception {
+        for (int size : PLAYLIST_SIZES) {
+            final Map<String, Object> json = createTree(size, 2);
+            benchmark.run("decodeAudioSource deep " + size, this::createPlayer,
+                    player -> player.getAudioSource(json));
+            assertEquals(size, countLeaves((MediaSource)benchmark.getSink()));
+        }
+    }
+
+    @Test
+    public void getDecodedAudioSource() throws Exception {
+        for (int size : PLAYLIST_SIZES) {
+            final Map<String, Object> json = createTree(size, size);
+            benchmark.run("getAudioSource decoded " + size, () -> {
+                AudioPlayer player = createPlayer();
+                player.getAudioSource(json);
+                return player;
+            }, player -> player.getAudioSource(json));
+            assertEquals(size, ((ConcatenatingMediaSource)benchmark.getSink()).getSize());
+        }
+    }
+
+    @Test
+    public void createAndEncodePlaybackEvent() throws Exception {
+        benchmark.run("createPlaybackEvent+encode x" + EVENTS_PER_OPERATION, this::createPlayer, player -> {
+            ByteBuffer message = null;
+            for (int i = 0; i < EVENTS_PER_OPERATION; i++) {
+                message = StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(player.createPlaybackEvent());
+            }
+            return message;
+        });
+        assertTrue(((ByteBuffer)benchmark.getSink()).position() > 0);
+    }
+
+    @Test
+    public void encodeBinaryPlaybackEvent() throws Exception {
+        final IcyInfo icyInfo = createIcyInfo();
+        benchmark.run("PlaybackEventEncoder.encode x" + EVENTS_PER_OPERATION, PlaybackEventEncoder::new, encoder -> {
+            ByteBuffer message = null;
+            for (int i = 0; i < EVENTS_PER_OPERATION; i++) {
+                encoder.set(PlaybackEventEncoder.PROCESSING_STATE, 3);
+                encoder.set(PlaybackEventEncoder.UPDATE_POSITION, 1000L * i);
+                encoder.set(PlaybackEventEncoder.UPDATE_TIME, 1000L + i);
+                encoder.set(PlaybackEventEncoder.BUFFERED_POSITION, 5000000L + 1000L * i);
+                encoder.set(PlaybackEventEncoder.DURATION, 180000000L);
+                encoder.set(PlaybackEventEncoder.CURRENT_INDEX, 0);
+                encoder.set(PlaybackEventEncoder.ANDROID_AUDIO_SESSION_ID, 1);
+                encoder.setIcyMetadata(icyInfo, null);
+                message = encoder.encode();
+            }
+            return message;
+        });
+        assertNotNull(benchmark.getSink());
+    }
+
+    @Test
+    public void shuffle() throws Exception {
+        for (final int size : SHUFFLE_SIZES) {
+            benchmark.run("shuffle " + size, () -> random,
+                    random -> ShuffleOrders.shuffle(size, 0, random));
+            int[] shuffleOrder = (int[])benchmark.getSink();
+            assertEquals(size, shuffleOrder.length);
+            assertEquals(0, shuffleOrder[0]);
+        }
+    }
+
+    @Test
+    public void decodeShuffleOrder() throws Exception {
+        for (final int size : SHUFFLE_SIZES) {
+            final List<Integer> indexList = new ArrayList<>(size);
+            for (int index : ShuffleOrders.shuffle(size, null, random)) {
+                indexList.add(index);
+            }
+            benchmark.run("decodeShuffleOrder " + size, () -> random,
+                    random -> ShuffleOrders.decode(indexList, random));
+            ShuffleOrder shuffleOrder = (ShuffleOrder)benchmark.getSink();
+            assertEquals(size, shuffleOrder.getLength());
+            assertEquals((int)indexList.get(0), shuffleOrder.getFirstIndex());
+        }
+    }
+
+    @Test
+    public void collectIcyMetadata() throws Exception {
+        final IcyInfo icyInfo = createIcyInfo();
+        final IcyHeaders icyHeaders = new IcyHeaders(128000, "Jazz", "Radio", "https://example.com", true, 16000);
+        benchmark.run("collectIcyMetadata x" + EVENTS_PER_OPERATION, () -> icyInfo, info -> {
+            Map<String, Object> icyMetadata = null;
+            for (int i = 0; i < EVENTS_PER_OPERATION; i++) {
+                icyMetadata = AudioPlayer.collectIcyMetadata(info, icyHeaders);
+            }
+            return icyMetadata;
+        });
+        assertEquals(2, ((Map<?, ?>)benchmark.getSink()).size());
+    }
+
+    private AudioPlayer createPlayer() {
+        return new AudioPlayer(context, messenger, "benchmark", null, new ArrayList<Object>(), false, false, null, false, null, playerPool);
+    }
+
+    private static IcyInfo createIcyInfo() {
+        return new IcyInfo(new byte[0], "Title", "https://example.com/title");
+    }
+
+    // Creates a concatenating audio source with size progressive leaves in
+    // which each concatenating audio source has at most fanout children.
+    private Map<String, Object> createTree(int size, int fanout) {
+        List<Object> children = new ArrayList<>();
+        if (size <= fanout) {
+            for (int i = 0; i < size; i++) {
+                children.add(createProgressive());
+            }
+        } else {
+            for (int i = 0; i < fanout; i++) {
+                int childSize = size / fanout + (i < size % fanout ? 1 : 0);
+                children.add(createTree(childSize, fanout));
+            }
+        }
+        List<Integer> shuffleOrder = new ArrayList<>(children.size());
+        for (int index : ShuffleOrders.shuffle(children.size(), null, random)) {
+            shuffleOrder.add(index);
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", "concatenating" + nextId++);
+        map.put("type", "concatenating");
+        map.put("children", children);
+        map.put("useLazyPreparation", true);
+        map.put("shuffleOrder", shuffleOrder);
+        return map;
+    }
+
+    private Map<String, Object> createProgressive() {
+        String id = "progressive" + nextId++;
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("type", "progressive");
+        map.put("uri", "https://example.com/audio/" + id + ".mp3");
+        map.put("headers", null);
+        map.put("userAgent", null);
+        map.put("mimeType", null);
+        map.put("cacheKey", null);
+        return map;
+    }
+
+    private static int countLeaves(MediaSource mediaSource) {
+        if (!(mediaSource instanceof ConcatenatingMediaSource)) return 1;
+        ConcatenatingMediaSource concatenatingMediaSource = (ConcatenatingMediaSource)mediaSource;
+        int count = 0;
+        for (int i = 0; i < concatenatingMediaSource.getSize(); i++) {
+            count += countLeaves(concatenatingMediaSource.getMediaSource(i));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.net.Uri;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import com.google.android.exoplayer2.source.ProgressiveMediaSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerDecodeTest {
+    private Context context;
+    private AudioPlayer player;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        player = new AudioPlayer(context, new FakeBinaryMessenger(), "decode", null, new ArrayList<Object>(), false, false, null, false, null, new PlayerPool(context));
+    }
+
+    @After
+    public void tearDown() {
+        player.dispose(() -> {});
+    }
+
+    @Test
+    public void decodeStreamAudioSource() {
+        // StreamAudioSource URIs are opaque and have no path.
+        assertTrue(player.getAudioSource(createProgressive("stream", "just-audio-stream:stream")) instanceof ProgressiveMediaSource);
+    }
+
+    @Test
+    public void decodeAssetAudioSource() {
+        assertTrue(player.getAudioSource(createProgressive("asset", "asset:///audio/track.mp3")) instanceof ProgressiveMediaSource);
+    }
+
+    @Test
+    public void decodeFragmentHintedAudioSource() {
+        assertTrue(player.getAudioSource(createProgressive("fragment", "https://example.com/stream#.mp3")) instanceof ProgressiveMediaSource);
+    }
+
+    @Test
+    public void hintOnlyExplicitFormats() {
+        ExtractorsFactory unhinted = player.buildExtractorsFactory(Uri.parse("https://example.com/track"), null);
+        assertSame(unhinted, player.buildExtractorsFactory(Uri.parse("just-audio-stream:stream"), "audio/mpeg"));
+        assertSame(unhinted, player.buildExtractorsFactory(Uri.parse("asset:///audio/track.mp3#.mp3"), null));
+        assertSame(unhinted, player.buildExtractorsFactory(Uri.parse("content://media/external/audio/media/1"), "audio/mpeg"));
+        assertSame(unhinted, player.buildExtractorsFactory(Uri.parse("https://example.com/track.mp3"), null));
+        assertSame(unhinted, player.buildExtractorsFactory(Uri.parse("https://example.com/track#section"), null));
+        assertTrue(player.buildExtractorsFactory(Uri.parse("https://example.com/track"), "audio/mpeg") instanceof HintedExtractorsFactory);
+        assertTrue(player.buildExtractorsFactory(Uri.parse("https://example.com/track#.mp3"), null) instanceof HintedExtractorsFactory);
+    }
+
+    @Test
+    public void preloadWithSourceHeaders() {
+        Map<String, Object> plain = createProgressive("plain", "https://example.com/plain.mp3");
+        Map<String, Object> authorized = createProgressive("authorized", "https://example.com/authorized.mp3");
+        authorized.put("headers", Collections.singletonMap("Authorization", "Bearer token"));
+        Map<String, Object> alsoAuthorized = createProgressive("alsoAuthorized", "https://example.com/also.mp3");
+        alsoAuthorized.put("headers", Collections.singletonMap("Authorization", "Bearer token"));
+        player.getAudioSource(plain);
+        player.getAudioSource(authorized);
+        player.getAudioSource(alsoAuthorized);
+        assertNotSame(player.getPreloadDataSourceFactory("plain"), player.getPreloadDataSourceFactory("authorized"));
+        assertSame(player.getPreloadDataSourceFactory("authorized"), player.getPreloadDataSourceFactory("alsoAuthorized"));
+    }
+
+    private static Map<String, Object> createProgressive(String id, String uri) {
+        Map<String, Object> json = new HashMap<>();
+        json.put("type", "progressive");
+        json.put("id", id);
+        json.put("uri", uri);
+        json.put("headers", null);
+        json.put("userAgent", null);
+        json.put("mimeType", null);
+        json.put("cacheKey", null);
+        return json;
+    }
+}
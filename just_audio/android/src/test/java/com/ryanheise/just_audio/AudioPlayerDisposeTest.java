@@ -0,0 +1,87 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import android.content.Context;
+import com.google.android.exoplayer2.robolectric.RobolectricUtil;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerDisposeTest {
+    @Test
+    public void disposeTwiceOnPlayerThread() throws Exception {
+        AudioPlayer player = createPlayer(true);
+        int[] disposedCount = { 0 };
+        player.dispose(() -> disposedCount[0]++);
+        // Disposing again before the first dispose completes waits for it.
+        player.dispose(() -> disposedCount[0]++);
+        RobolectricUtil.runMainLooperUntil(() -> disposedCount[0] == 2);
+        // Disposing once disposed completes straight away.
+        player.dispose(() -> disposedCount[0]++);
+        assertEquals(3, disposedCount[0]);
+    }
+
+    @Test
+    public void disposeTwiceOnMainThread() {
+        AudioPlayer player = createPlayer(false);
+        int[] disposedCount = { 0 };
+        player.dispose(() -> disposedCount[0]++);
+        player.dispose(() -> disposedCount[0]++);
+        assertEquals(2, disposedCount[0]);
+    }
+
+    @Test
+    public void callAfterDisposeOnPlayerThread() throws Exception {
+        AudioPlayer player = createPlayer(true);
+        boolean[] disposed = { false };
+        player.dispose(() -> disposed[0] = true);
+        RobolectricUtil.runMainLooperUntil(() -> disposed[0]);
+        Reply reply = new Reply();
+        player.onMethodCall(new MethodCall("pause", new HashMap<String, Object>()), reply);
+        RobolectricUtil.runMainLooperUntil(() -> reply.errorCode != null);
+        assertEquals("Player has been disposed", reply.errorCode);
+    }
+
+    @Test
+    public void callAfterDisposeOnMainThread() {
+        AudioPlayer player = createPlayer(false);
+        player.dispose(() -> {});
+        Reply reply = new Reply();
+        player.onMethodCall(new MethodCall("pause", new HashMap<String, Object>()), reply);
+        assertEquals("Player has been disposed", reply.errorCode);
+        assertFalse(reply.succeeded);
+    }
+
+    private static AudioPlayer createPlayer(boolean playerThreadEnabled) {
+        Context context = RuntimeEnvironment.getApplication();
+        return new AudioPlayer(context, new FakeBinaryMessenger(), "dispose", null, new ArrayList<Object>(), false, false, null, playerThreadEnabled, null, new PlayerPool(context));
+    }
+
+    private static class Reply implements Result {
+        volatile boolean succeeded;
+        volatile String errorCode;
+
+        @Override
+        public void success(Object result) {
+            succeeded = true;
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+            this.errorCode = errorCode;
+        }
+
+        @Override
+        public void notImplemented() {
+            throw new AssertionError("notImplemented");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.drm.DrmSessionEventListener;
+import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.robolectric.RobolectricUtil;
+import com.google.android.exoplayer2.source.MediaPeriod;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.source.ads.AdPlaybackState;
+import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner;
+import com.google.android.exoplayer2.testutil.FakeClock;
+import com.google.android.exoplayer2.testutil.FakeMediaPeriod;
+import com.google.android.exoplayer2.testutil.FakeMediaSource;
+import com.google.android.exoplayer2.testutil.FakeTimeline;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerLiveStreamTest {
+    private FakeLiveMediaSource mediaSource;
+    private AudioPlayer player;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        FakeClock clock = new FakeClock(true);
+        mediaSource = new FakeLiveMediaSource();
+        player = new AudioPlayer(context, new FakeBinaryMessenger(), "live", null, new ArrayList<Object>(), false, false, null, false, null, new PlayerPool(context, clock), clock, (factory, mediaItem) -> mediaSource);
+    }
+
+    @After
+    public void tearDown() {
+        player.dispose(() -> {});
+    }
+
+    @Test
+    public void pauseWhileBufferingThenSeek() throws Exception {
+        Map<String, Object> audioSource = new HashMap<>();
+        audioSource.put("type", "progressive");
+        audioSource.put("id", "live");
+        audioSource.put("uri", "https://example.com/live.mp3");
+        Map<String, Object> loadArguments = new HashMap<>();
+        loadArguments.put("audioSource", audioSource);
+        Reply loadReply = call("load", loadArguments);
+        call("play", new HashMap<String, Object>());
+        // The live timeline is known but the period is still preparing.
+        RobolectricUtil.runMainLooperUntil(() -> mediaSource.period != null);
+        ShadowLooper.idleMainLooper();
+
+        call("pause", new HashMap<String, Object>());
+        // Suspending now would leave the player buffering for good.
+        assertFalse(player.isLiveLoadingSuspended());
+
+        Map<String, Object> seekArguments = new HashMap<>();
+        seekArguments.put("position", 0L);
+        Reply seekReply = call("seek", seekArguments);
+        mediaSource.period.setPreparationComplete();
+        RobolectricUtil.runMainLooperUntil(() -> loadReply.done && seekReply.done);
+        // Once ready, the paused live stream stops loading.
+        assertTrue(player.isLiveLoadingSuspended());
+    }
+
+    private Reply call(String method, Map<String, Object> arguments) {
+        Reply reply = new Reply(method);
+        player.onMethodCall(new MethodCall(method, arguments), reply);
+        return reply;
+    }
+
+    // A live source whose period waits to be told to finish preparing.
+    private static class FakeLiveMediaSource extends FakeMediaSource {
+        volatile FakeMediaPeriod period;
+
+        FakeLiveMediaSource() {
+            super(new FakeTimeline(new FakeTimeline.TimelineWindowDefinition(
+                    /* periodCount= */ 1,
+                    /* id= */ 0,
+                    /* isSeekable= */ true,
+                    /* isDynamic= */ true,
+                    /* isLive= */ true,
+                    /* isPlaceholder= */ false,
+                    /* durationUs= */ 1000 * C.MICROS_PER_SECOND,
+                    /* defaultPositionUs= */ 0,
+                    /* windowOffsetInFirstPeriodUs= */ 0,
+                    AdPlaybackState.NONE)), ExoPlayerTestRunner.AUDIO_FORMAT);
+        }
+
+        @Override
+        protected MediaPeriod createMediaPeriod(MediaPeriodId id, TrackGroupArray trackGroupArray, Allocator allocator, MediaSourceEventListener.EventDispatcher mediaSourceEventDispatcher, DrmSessionManager drmSessionManager, DrmSessionEventListener.EventDispatcher drmEventDispatcher, @Nullable TransferListener transferListener) {
+            period = new FakeMediaPeriod(trackGroupArray, allocator, FakeMediaPeriod.TrackDataFactory.singleSampleWithTimeUs(0), mediaSourceEventDispatcher, drmSessionManager, drmEventDispatcher, /* deferOnPrepared= */ true);
+            return period;
+        }
+    }
+
+    private static class Reply implements Result {
+        private final String method;
+        volatile boolean done;
+
+        Reply(String method) {
+            this.method = method;
+        }
+
+        @Override
+        public void success(Object result) {
+            done = true;
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+            throw new AssertionError(method + " failed: " + errorCode);
+        }
+
+        @Override
+        public void notImplemented() {
+            throw new AssertionError(method + " is not implemented");
+        }
+    }
+}
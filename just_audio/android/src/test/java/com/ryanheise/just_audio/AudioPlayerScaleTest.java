@@ -0,0 +1,307 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import com.google.android.exoplayer2.robolectric.RobolectricUtil;
+import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner;
+import com.google.android.exoplayer2.testutil.FakeClock;
+import com.google.android.exoplayer2.testutil.FakeMediaSource;
+import com.google.android.exoplayer2.testutil.FakeTimeline;
+import com.google.android.exoplayer2.util.Clock;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Replays a scripted workload against the plugin the way the Flutter engine
+ * would drive it, and reports how it scales.
+ *
+ * Method calls are encoded with the standard codec and sent through a fake
+ * messenger to the same handlers the plugin registers, and the players run on
+ * a fake clock with fake media, so the workload needs neither a device nor a
+ * network. The workload loads a long playlist into each of many players, then
+ * sends bursts of seeks, insertions and shuffle changes without waiting for
+ * each reply, and finally disposes of every player. The test reports the
+ * latency percentiles of each method, the rate of playback events and the
+ * heap growth, and fails if a call fails, never replies, or if disposing of
+ * the players does not give their memory back. Latencies are measured from
+ * sending a call to receiving its reply and include Robolectric's overhead,
+ * so they are meant for comparing changes on the same machine.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AudioPlayerScaleTest {
+    private static final String MAIN_CHANNEL = "com.ryanheise.just_audio.methods";
+    private static final int PLAYER_COUNT = 20;
+    private static final int PLAYLIST_SIZE = 10000;
+    private static final int SEEK_BURST_SIZE = 50;
+    private static final int INSERT_BURST_COUNT = 10;
+    private static final int INSERT_SIZE = 100;
+    private static final int SHUFFLE_TOGGLE_COUNT = 10;
+    // The longest a call may take to reply, including the time to prepare
+    // a playlist.
+    private static final long REPLY_TIMEOUT_MS = 60000;
+    // The most heap the disposed players may keep.
+    private static final long MAX_RETAINED_HEAP = 64 * 1024 * 1024;
+
+    private final Random random = new Random(0);
+    private final Map<String, List<Long>> latencies = new LinkedHashMap<>();
+    private final List<Reply> pendingReplies = new ArrayList<>();
+    private Context context;
+    private FakeBinaryMessenger messenger;
+    private MainMethodCallHandler methodCallHandler;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        messenger = new FakeBinaryMessenger();
+        // Progressive sources are decoded as usual, but play fake media.
+        methodCallHandler = new MainMethodCallHandler(context, messenger, new FakeClock(true),
+                (factory, mediaItem) -> new FakeMediaSource(new FakeTimeline(), ExoPlayerTestRunner.AUDIO_FORMAT));
+        new MethodChannel(messenger, MAIN_CHANNEL).setMethodCallHandler(methodCallHandler);
+    }
+
+    @After
+    public void tearDown() {
+        methodCallHandler.dispose();
+    }
+
+    @Test
+    public void scale() throws Exception {
+        long startHeap = getUsedHeap();
+        long startTime = System.nanoTime();
+
+        List<Playlist> playlists = new ArrayList<>();
+        for (int i = 0; i < PLAYER_COUNT; i++) {
+            String id = "player" + i;
+            send(MAIN_CHANNEL, "init", createInitRequest(id));
+            messenger.listen("com.ryanheise.just_audio.events." + id);
+            messenger.listen("com.ryanheise.just_audio.data." + id);
+            playlists.add(new Playlist(id, PLAYLIST_SIZE));
+        }
+        awaitReplies();
+
+        for (Playlist playlist : playlists) {
+            send(playlist.channel, "load", mapOf(
+                    "audioSource", playlist.toMap(),
+                    "initialPosition", null,
+                    "initialIndex", 0));
+        }
+        awaitReplies();
+
+        for (Playlist playlist : playlists) {
+            for (int i = 0; i < SEEK_BURST_SIZE; i++) {
+                send(playlist.channel, "seek", mapOf(
+                        "position", (long)random.nextInt(10000000),
+                        "index", random.nextInt(playlist.children.size())));
+            }
+        }
+        awaitReplies();
+
+        for (Playlist playlist : playlists) {
+            for (int i = 0; i < INSERT_BURST_COUNT; i++) {
+                List<Object> children = new ArrayList<>();
+                for (int j = 0; j < INSERT_SIZE; j++) {
+                    children.add(createProgressive());
+                }
+                int index = playlist.children.size();
+                playlist.children.addAll(children);
+                send(playlist.channel, "concatenatingInsertAll", mapOf(
+                        "id", playlist.id,
+                        "index", index,
+                        "children", children,
+                        "shuffleOrder", playlist.shuffle()));
+            }
+        }
+        awaitReplies();
+        long peakHeap = getUsedHeap();
+
+        for (Playlist playlist : playlists) {
+            for (int i = 0; i < SHUFFLE_TOGGLE_COUNT; i++) {
+                playlist.shuffle();
+                send(playlist.channel, "setShuffleOrder", mapOf("audioSource", playlist.toMap()));
+                send(playlist.channel, "setShuffleMode", mapOf("shuffleMode", i % 2 == 0 ? 1 : 0));
+            }
+        }
+        awaitReplies();
+
+        for (Playlist playlist : playlists) {
+            send(MAIN_CHANNEL, "disposePlayer", mapOf("id", playlist.playerId));
+        }
+        awaitReplies();
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        int eventCount = 0;
+        for (Playlist playlist : playlists) {
+            eventCount += messenger.getSentCount("com.ryanheise.just_audio.events." + playlist.playerId);
+            eventCount += messenger.getSentCount("com.ryanheise.just_audio.data." + playlist.playerId);
+        }
+        // Only the plugin's memory counts, not the Dart side's copy of the
+        // playlists.
+        playlists.clear();
+        long endHeap = getUsedHeap();
+
+        System.out.println(String.format(Locale.ROOT, "%-24s %8s %10s %10s %10s %10s",
+                "method", "calls", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> sorted = new ArrayList<>(entry.getValue());
+            Collections.sort(sorted);
+            System.out.println(String.format(Locale.ROOT, "%-24s %8d %10.1f %10.1f %10.1f %10.1f",
+                    entry.getKey(), sorted.size(),
+                    percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.9) / 1e6,
+                    percentile(sorted, 0.99) / 1e6, sorted.get(sorted.size() - 1) / 1e6));
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "%d events in %.1f s (%.0f events/s), heap growth %.1f MB at peak including the sent playlists, %.1f MB after dispose",
+                eventCount, seconds, eventCount / seconds,
+                (peakHeap - startHeap) / 1048576.0, (endHeap - startHeap) / 1048576.0));
+
+        assertTrue("No playback events were sent", eventCount > 0);
+        assertTrue("Disposed players kept " + (endHeap - startHeap) + " bytes",
+                endHeap - startHeap < MAX_RETAINED_HEAP);
+    }
+
+    // Sends a method call without waiting for its reply.
+    private void send(String channel, String method, Object arguments) {
+        Reply reply = new Reply(method);
+        pendingReplies.add(reply);
+        messenger.invokeMethod(channel, method, arguments, reply);
+    }
+
+    // Runs the main looper until every call sent so far has replied.
+    private void awaitReplies() throws Exception {
+        RobolectricUtil.runMainLooperUntil(() -> {
+            for (Reply reply : pendingReplies) {
+                if (!reply.done) return false;
+            }
+            return true;
+        }, REPLY_TIMEOUT_MS, Clock.DEFAULT);
+        pendingReplies.clear();
+    }
+
+    private static Map<String, Object> createInitRequest(String id) {
+        return mapOf(
+                "id", id,
+                "audioLoadConfiguration", null,
+                "androidAudioEffects", new ArrayList<Object>(),
+                "androidOffloadSchedulingEnabled", false,
+                "androidBinaryPlaybackEvents", false,
+                "androidEventCoalescingWindow", null,
+                "androidPlayerThreadEnabled", false,
+                "androidMetricsSnapshotInterval", null);
+    }
+
+    private Map<String, Object> createProgressive() {
+        String id = "progressive" + nextId++;
+        return mapOf(
+                "id", id,
+                "type", "progressive",
+                "uri", "https://example.com/audio/" + id + ".mp3",
+                "headers", null,
+                "userAgent", null,
+                "mimeType", null,
+                "cacheKey", null);
+    }
+
+    private static long percentile(List<Long> sorted, double fraction) {
+        return sorted.get(Math.min(sorted.size() - 1, (int)(fraction * sorted.size())));
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Map<String, Object> mapOf(Object... args) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            map.put((String)args[i], args[i + 1]);
+        }
+        return map;
+    }
+
+    /** Records the latency of a method call and fails the test if the call fails. */
+    private class Reply implements Result {
+        private final String method;
+        private final long sendTime = System.nanoTime();
+        boolean done;
+
+        Reply(String method) {
+            this.method = method;
+        }
+
+        @Override
+        public void success(Object result) {
+            List<Long> methodLatencies = latencies.get(method);
+            if (methodLatencies == null) {
+                methodLatencies = new ArrayList<>();
+                latencies.put(method, methodLatencies);
+            }
+            methodLatencies.add(System.nanoTime() - sendTime);
+            done = true;
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+            throw new AssertionError(method + " failed: " + errorCode);
+        }
+
+        @Override
+        public void notImplemented() {
+            throw new AssertionError(method + " is not implemented");
+        }
+    }
+
+    /** The concatenating audio source that a player plays. */
+    private class Playlist {
+        final String playerId;
+        final String channel;
+        final String id = "concatenating" + nextId++;
+        final List<Object> children = new ArrayList<>();
+        List<Integer> shuffleOrder;
+
+        Playlist(String playerId, int size) {
+            this.playerId = playerId;
+            this.channel = "com.ryanheise.just_audio.methods." + playerId;
+            for (int i = 0; i < size; i++) {
+                children.add(createProgressive());
+            }
+            shuffle();
+        }
+
+        // Replaces the shuffle order with a new one over all children.
+        List<Integer> shuffle() {
+            shuffleOrder = new ArrayList<>(children.size());
+            for (int index : ShuffleOrders.shuffle(children.size(), null, random)) {
+                shuffleOrder.add(index);
+            }
+            return shuffleOrder;
+        }
+
+        Map<String, Object> toMap() {
+            return mapOf(
+                    "id", id,
+                    "type", "concatenating",
+                    "children", children,
+                    "useLazyPreparation", true,
+                    "shuffleOrder", shuffleOrder);
+        }
+    }
+}
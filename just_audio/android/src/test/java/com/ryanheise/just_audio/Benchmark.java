@@ -0,0 +1,128 @@
+package com.ryanheise.just_audio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A minimal JMH-style harness for benchmarks that run as unit tests.
+ *
+ * Each benchmark runs a number of warmup iterations followed by measured
+ * iterations, and returns the mean time and the mean number of bytes
+ * allocated by the calling thread per operation, along with the allocation
+ * rate. The results of all runs are kept and can be written to a report. Allocations are read from HotSpot's per-thread counter and are
+ * reported as -1 on JVMs without one. The state of each iteration is set up
+ * outside the measurement. Under Robolectric, the numbers include the cost of
+ * its instrumentation, so they are meant for comparing changes on the same
+ * machine rather than as absolute device timings.
+ */
+public class Benchmark {
+    public interface Setup<S> {
+        S create() throws Exception;
+    }
+
+    public interface Operation<S> {
+        Object run(S state) throws Exception;
+    }
+
+    /** The measurements of a benchmark. */
+    public static class Result {
+        public final String name;
+        public final double nanosPerOperation;
+        public final double bytesPerOperation;
+
+        Result(String name, double nanosPerOperation, double bytesPerOperation) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        /** Returns the allocation rate in MB per second, or -1 if unknown. */
+        public double getAllocationRate() {
+            if (bytesPerOperation < 0 || nanosPerOperation == 0) return -1;
+            return bytesPerOperation / nanosPerOperation * 1e9 / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-48s %14.1f us/op %14.0f B/op %10.1f MB/s",
+                    name, nanosPerOperation / 1000, bytesPerOperation, getAllocationRate());
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<Result> results = new ArrayList<>();
+    // Keeps the results of operations reachable so that they are not
+    // optimized away.
+    private Object sink;
+
+    public Benchmark(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+    }
+
+    public <S> Result run(String name, Setup<S> setup, Operation<S> operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = operation.run(setup.create());
+        }
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            S state = setup.create();
+            long startBytes = getAllocatedBytes();
+            long start = System.nanoTime();
+            sink = operation.run(state);
+            nanos += System.nanoTime() - start;
+            bytes += getAllocatedBytes() - startBytes;
+        }
+        Result result = new Result(name,
+                (double)nanos / measurementIterations,
+                getAllocatedBytes() < 0 ? -1 : (double)bytes / measurementIterations);
+        results.add(result);
+        return result;
+    }
+
+    /** Returns the results of all runs so far, in the order they ran. */
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /** Writes the results of all runs so far to file, one per line. */
+    public void writeReport(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")))) {
+            for (Result result : results) {
+                writer.println(result);
+            }
+        }
+    }
+
+    /** Returns the result of the last operation. */
+    public Object getSink() {
+        return sink;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean)bean;
+            if (hotSpotBean.isThreadAllocatedMemorySupported() && hotSpotBean.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
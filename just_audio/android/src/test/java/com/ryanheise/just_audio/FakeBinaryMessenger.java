@@ -0,0 +1,105 @@
+package com.ryanheise.just_audio;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.FlutterException;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A BinaryMessenger that keeps the handlers registered by the plugin and
+ * counts the messages the plugin sends, without a Flutter engine.
+ *
+ * Messages from the plugin are neither delivered nor answered, so replies to
+ * the plugin's own calls never arrive. Method calls can be sent to the
+ * plugin's handlers with invokeMethod, and event channels can be subscribed
+ * to with listen. Background task queues are not supported, so handlers
+ * always run on the calling thread.
+ */
+public class FakeBinaryMessenger implements BinaryMessenger {
+    private final Map<String, BinaryMessageHandler> handlers = new HashMap<>();
+    private final Map<String, Integer> sentCounts = new HashMap<>();
+
+    @Override
+    public void send(String channel, ByteBuffer message) {
+        send(channel, message, null);
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message, BinaryReply callback) {
+        Integer count = sentCounts.get(channel);
+        sentCounts.put(channel, count != null ? count + 1 : 1);
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {
+        if (handler != null) {
+            handlers.put(channel, handler);
+        } else {
+            handlers.remove(channel);
+        }
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler, TaskQueue taskQueue) {
+        setMessageHandler(channel, handler);
+    }
+
+    public BinaryMessageHandler getHandler(String channel) {
+        return handlers.get(channel);
+    }
+
+    /** Returns the number of messages the plugin sent on channel. */
+    public int getSentCount(String channel) {
+        Integer count = sentCounts.get(channel);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Sends a method call to the handler of channel as the Flutter engine
+     * would, and passes the decoded reply to result when the handler replies.
+     */
+    public void invokeMethod(String channel, String method, Object arguments, final Result result) {
+        BinaryMessageHandler handler = handlers.get(channel);
+        if (handler == null) {
+            throw new IllegalStateException("No handler for " + channel);
+        }
+        ByteBuffer message = StandardMethodCodec.INSTANCE.encodeMethodCall(new MethodCall(method, arguments));
+        // The codec leaves its buffers positioned at the end while handlers
+        // read from the current position.
+        message.flip();
+        handler.onMessage(message, reply -> {
+            if (reply == null) {
+                result.notImplemented();
+                return;
+            }
+            reply.flip();
+            try {
+                result.success(StandardMethodCodec.INSTANCE.decodeEnvelope(reply));
+            } catch (FlutterException e) {
+                result.error(e.code, e.getMessage(), e.details);
+            }
+        });
+    }
+
+    /** Subscribes to the event channel so that the plugin starts sending events on it. */
+    public void listen(String channel) {
+        invokeMethod(channel, "listen", null, new Result() {
+            @Override
+            public void success(Object result) {}
+
+            @Override
+            public void error(String errorCode, String errorMessage, Object errorDetails) {
+                throw new IllegalStateException("Cannot listen to " + channel + ": " + errorMessage);
+            }
+
+            @Override
+            public void notImplemented() {
+                throw new IllegalStateException("Cannot listen to " + channel);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+
+import android.net.Uri;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class NormalizingCacheKeyFactoryTest {
+    private final NormalizingCacheKeyFactory factory = new NormalizingCacheKeyFactory(Arrays.asList("token", "x-amz-*"));
+
+    @Test
+    public void keepsUriWithoutIgnoredParameters() {
+        assertEquals("https://example.com/a.mp3?b=1&c=2",
+                factory.buildCacheKey(Uri.parse("https://example.com/a.mp3?b=1&c=2")));
+    }
+
+    @Test
+    public void removesIgnoredParameters() {
+        assertEquals("https://example.com/a.mp3?b=1&c=2",
+                factory.buildCacheKey(Uri.parse("https://example.com/a.mp3?token=x&b=1&x-amz-date=y&c=2")));
+    }
+
+    @Test
+    public void removesQueryWhenAllParametersIgnored() {
+        assertEquals("https://example.com/a.mp3",
+                factory.buildCacheKey(Uri.parse("https://example.com/a.mp3?token=x&x-amz-signature=y")));
+    }
+
+    @Test
+    public void matchesEncodedNames() {
+        assertEquals("https://example.com/a.mp3",
+                factory.buildCacheKey(Uri.parse("https://example.com/a.mp3?%74oken=x")));
+    }
+
+    @Test
+    public void prefersDataSpecKey() {
+        DataSpec dataSpec = new DataSpec.Builder()
+                .setUri(Uri.parse("https://example.com/a.mp3?token=x"))
+                .setKey("key")
+                .build();
+        assertEquals("key", factory.buildCacheKey(dataSpec));
+    }
+
+    @Test
+    public void keepsEverythingWithoutIgnoredNames() {
+        NormalizingCacheKeyFactory factory = new NormalizingCacheKeyFactory(Collections.emptyList());
+        assertEquals("https://example.com/a.mp3?token=x",
+                factory.buildCacheKey(Uri.parse("https://example.com/a.mp3?token=x")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.ryanheise.just_audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.ShuffleOrder;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class ShuffleOrdersTest {
+    private final Random random = new Random(0);
+
+    @Test
+    public void shuffleReturnsPermutation() {
+        int[] shuffleOrder = ShuffleOrders.shuffle(100, null, random);
+        int[] sorted = shuffleOrder.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    @Test
+    public void shuffleStartsWithFirstIndex() {
+        for (int firstIndex = 0; firstIndex < 10; firstIndex++) {
+            assertEquals(firstIndex, ShuffleOrders.shuffle(10, firstIndex, random)[0]);
+        }
+    }
+
+    @Test
+    public void shuffleEmpty() {
+        assertEquals(0, ShuffleOrders.shuffle(0, null, random).length);
+    }
+
+    @Test
+    public void decodeKeepsOrder() {
+        ShuffleOrder shuffleOrder = ShuffleOrders.decode(Arrays.asList(2, 0, 1), random);
+        assertEquals(3, shuffleOrder.getLength());
+        assertEquals(2, shuffleOrder.getFirstIndex());
+        assertEquals(0, shuffleOrder.getNextIndex(2));
+        assertEquals(1, shuffleOrder.getNextIndex(0));
+        assertEquals(C.INDEX_UNSET, shuffleOrder.getNextIndex(1));
+        assertEquals(1, shuffleOrder.getLastIndex());
+    }
+
+    @Test
+    public void createStartsWithFirstIndex() {
+        ShuffleOrder shuffleOrder = ShuffleOrders.create(5, 3, random);
+        assertEquals(5, shuffleOrder.getLength());
+        assertEquals(3, shuffleOrder.getFirstIndex());
+        assertTrue(shuffleOrder.getLastIndex() != C.INDEX_UNSET);
+    }
+}
@@ -2,6 +2,7 @@ import 'dart:async';
 import 'dart:convert';
 import 'dart:io';
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:audio_session/audio_session.dart';
 import 'package:crypto/crypto.dart';
@@ -62,6 +63,14 @@ class AudioPlayer {
 
   final bool _androidOffloadSchedulingEnabled;
 
+  final bool _androidBinaryPlaybackEvents;
+
+  final Duration? _androidEventCoalescingWindow;
+
+  final bool _androidPlayerThreadEnabled;
+
+  final Duration? _androidMetricsSnapshotInterval;
+
   /// This is `true` when the audio player needs to engage the native platform
   /// side of the plugin to decode or play audio, and is `false` when the native
   /// resources are not needed (i.e. after initial instantiation and after [stop]).
@@ -96,6 +105,7 @@ class AudioPlayer {
 
   final String _id;
   final _proxy = _ProxyHttpServer();
+  _StreamAudioSourceBridge? _streamBridge;
   AudioSource? _audioSource;
   final Map<String, AudioSource> _audioSources = {};
   bool _disposed = false;
@@ -125,12 +135,16 @@ class AudioPlayer {
   final _androidAudioSessionIdSubject = BehaviorSubject<int?>();
   final _positionDiscontinuitySubject =
       PublishSubject<PositionDiscontinuity>(sync: true);
+  final _preloadProgressSubject = PublishSubject<PreloadProgress>();
+  final _timingSubject = PublishSubject<TimingRecord>();
+  final _metricsSubject = BehaviorSubject<PlaybackMetrics>();
   var _seeking = false;
   // ignore: close_sinks
   BehaviorSubject<Duration>? _positionSubject;
   bool _automaticallyWaitsToMinimizeStalling = true;
   bool _canUseNetworkResourcesForLiveStreamingWhilePaused = false;
   double _preferredPeakBitRate = 0;
+  AndroidSetLoadControlRequest? _androidLoadControlRequest;
   bool _playInterrupted = false;
   bool _platformLoading = false;
   AndroidAudioAttributes? _androidAudioAttributes;
@@ -145,7 +159,8 @@ class AudioPlayer {
   /// If [userAgent] is specified, it will be included in the header of all HTTP
   /// requests on Android, iOS and macOS to identify your agent to the server.
   /// If set, just_audio will create a cleartext local HTTP proxy on your device
-  /// to forward HTTP requests with headers included. If [userAgent] is not
+  /// to forward HTTP requests with headers included, except on Android where
+  /// the user agent is applied natively. If [userAgent] is not
   /// specified, this will default to Apple's Core Audio user agent on iOS/macOS
   /// and to just_audio's own user agent on Android. On Web, the browser will
   /// override any specified user-agent string with its own.
@@ -163,6 +178,13 @@ class AudioPlayer {
   ///
   /// The default audio loading and buffering behaviour can be configured via
   /// the [audioLoadConfiguration] parameter.
+  ///
+  /// On Android, [androidBinaryPlaybackEvents] sends playback events in a
+  /// compact binary encoding, and [androidEventCoalescingWindow] merges
+  /// playback events that follow each other within that window.
+  /// [androidPlayerThreadEnabled] runs the player on a dedicated thread
+  /// instead of the platform thread, and [androidMetricsSnapshotInterval]
+  /// sends the playback metrics on [metricsStream] at that interval.
   AudioPlayer({
     String? userAgent,
     bool handleInterruptions = true,
@@ -171,6 +193,10 @@ class AudioPlayer {
     AudioLoadConfiguration? audioLoadConfiguration,
     AudioPipeline? audioPipeline,
     bool androidOffloadSchedulingEnabled = false,
+    bool androidBinaryPlaybackEvents = false,
+    Duration? androidEventCoalescingWindow,
+    bool androidPlayerThreadEnabled = false,
+    Duration? androidMetricsSnapshotInterval,
   })  : _id = _uuid.v4(),
         _userAgent = userAgent,
         _androidApplyAudioAttributes =
@@ -178,7 +204,11 @@ class AudioPlayer {
         _handleAudioSessionActivation = handleAudioSessionActivation,
         _audioLoadConfiguration = audioLoadConfiguration,
         _audioPipeline = audioPipeline ?? AudioPipeline(),
-        _androidOffloadSchedulingEnabled = androidOffloadSchedulingEnabled {
+        _androidOffloadSchedulingEnabled = androidOffloadSchedulingEnabled,
+        _androidBinaryPlaybackEvents = androidBinaryPlaybackEvents,
+        _androidEventCoalescingWindow = androidEventCoalescingWindow,
+        _androidPlayerThreadEnabled = androidPlayerThreadEnabled,
+        _androidMetricsSnapshotInterval = androidMetricsSnapshotInterval {
     _audioPipeline._setup(this);
     if (_audioLoadConfiguration?.darwinLoadControl != null) {
       _automaticallyWaitsToMinimizeStalling = _audioLoadConfiguration!
@@ -536,17 +566,30 @@ class AudioPlayer {
   Stream<PositionDiscontinuity> get positionDiscontinuityStream =>
       _positionDiscontinuitySubject.stream;
 
+  /// (Android) A stream of the progress of preloads started by [preload].
+  Stream<PreloadProgress> get preloadProgressStream =>
+      _preloadProgressSubject.stream;
+
+  /// (Android) A stream of startup, seek and rebuffer timings, if enabled by
+  /// [AudioLoadConfiguration.androidPlaybackTimings].
+  Stream<TimingRecord> get timingStream => _timingSubject.stream;
+
+  /// (Android) A stream of playback metrics snapshots, if enabled by the
+  /// `androidMetricsSnapshotInterval` constructor parameter.
+  Stream<PlaybackMetrics> get metricsStream => _metricsSubject.stream;
+
   /// Whether the player should automatically delay playback in order to
-  /// minimize stalling. (iOS 10.0 or later only)
+  /// minimize stalling. (iOS 10.0 or later and Android)
   bool get automaticallyWaitsToMinimizeStalling =>
       _automaticallyWaitsToMinimizeStalling;
 
   /// Whether the player can use the network for live streaming while paused on
-  /// iOS/macOS.
+  /// iOS/macOS and Android.
   bool get canUseNetworkResourcesForLiveStreamingWhilePaused =>
       _canUseNetworkResourcesForLiveStreamingWhilePaused;
 
-  /// The preferred peak bit rate (in bits per second) of bandwidth usage on iOS/macOS.
+  /// The preferred peak bit rate (in bits per second) of bandwidth usage on
+  /// iOS/macOS and Android.
   double get preferredPeakBitRate => _preferredPeakBitRate;
 
   /// The current position of the player.
@@ -649,7 +692,8 @@ class AudioPlayer {
   /// Convenience method to set the audio source to a URL with optional headers,
   /// preloaded by default, with an initial position of zero by default.
   /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-  /// your device to forward HTTP requests with headers included.
+  /// your device to forward HTTP requests with headers included. On Android,
+  /// headers are applied natively without a proxy.
   ///
   /// This is equivalent to:
   ///
@@ -1066,7 +1110,8 @@ class AudioPlayer {
   }
 
   /// Sets automaticallyWaitsToMinimizeStalling for AVPlayer in iOS 10.0 or later, defaults to true.
-  /// Has no effect on Android clients
+  /// On Android, setting this to false starts playback as soon as any audio
+  /// is buffered rather than after the load control's buffering threshold.
   Future<void> setAutomaticallyWaitsToMinimizeStalling(
       final bool automaticallyWaitsToMinimizeStalling) async {
     if (_disposed) return;
@@ -1077,8 +1122,9 @@ class AudioPlayer {
             enabled: automaticallyWaitsToMinimizeStalling));
   }
 
-  /// Sets canUseNetworkResourcesForLiveStreamingWhilePaused on iOS/macOS,
-  /// defaults to false.
+  /// Sets canUseNetworkResourcesForLiveStreamingWhilePaused on iOS/macOS and
+  /// Android, defaults to false. On Android, while this is false, a paused
+  /// live stream stops loading and resumes from the live edge when played.
   Future<void> setCanUseNetworkResourcesForLiveStreamingWhilePaused(
       final bool canUseNetworkResourcesForLiveStreamingWhilePaused) async {
     if (_disposed) return;
@@ -1090,7 +1136,11 @@ class AudioPlayer {
                 enabled: canUseNetworkResourcesForLiveStreamingWhilePaused));
   }
 
-  /// Sets preferredPeakBitRate on iOS/macOS, defaults to true.
+  /// Sets the preferred peak bit rate (in bits per second) of bandwidth usage
+  /// on iOS/macOS and Android, or 0 for no limit, which is the default. On
+  /// Android, this caps the bitrate of the audio variants selected from DASH
+  /// and HLS streams, and may be changed at any time, e.g. when the app
+  /// detects a metered network.
   Future<void> setPreferredPeakBitRate(
       final double preferredPeakBitRate) async {
     if (_disposed) return;
@@ -1166,6 +1216,105 @@ class AudioPlayer {
         usage: audioAttributes.usage.value));
   }
 
+  /// (Android) Changes the buffer targets while the player runs to either a
+  /// [preset] or an explicit [loadControl]. Requires
+  /// [AudioLoadConfiguration.androidAdaptiveLoadControl] to be set. The
+  /// targets also apply to the audio sources loaded after this call.
+  Future<void> androidSetLoadControl(
+      {AndroidLoadControlPreset? preset,
+      AndroidLoadControl? loadControl}) async {
+    assert((preset == null) != (loadControl == null),
+        'Exactly one of preset and loadControl must be set');
+    if (_disposed) return;
+    if (!_isAndroid() && !_isUnitTest()) return;
+    _androidLoadControlRequest = AndroidSetLoadControlRequest(
+        preset: preset?._name, loadControl: loadControl?._toMessage());
+    if (!_active) return;
+    await (await _platform).androidSetLoadControl(_androidLoadControlRequest!);
+  }
+
+  /// (Android) Gets the playback quality of service metrics aggregated over
+  /// the lifetime of the platform player, or `null` if no audio source has
+  /// been loaded.
+  Future<PlaybackMetrics?> getMetrics() async {
+    if (_disposed) return null;
+    if (!_isAndroid() && !_isUnitTest()) return null;
+    if (!_active) return null;
+    final response = await (await _platform).getMetrics(GetMetricsRequest());
+    return PlaybackMetrics._fromMessage(response.metrics, _audioSources);
+  }
+
+  /// (Android) Gets the statistics of the media cache, or `null` if the
+  /// cache is not enabled or no audio source has been loaded.
+  Future<AndroidCacheStatistics?> androidGetCacheStatistics() async {
+    if (_disposed) return null;
+    if (!_isAndroid() && !_isUnitTest()) return null;
+    if (!_active) return null;
+    final response = await (await _platform)
+        .androidCacheGetStatistics(AndroidCacheGetStatisticsRequest());
+    return response.statistics == null
+        ? null
+        : AndroidCacheStatistics._fromMessage(response.statistics!);
+  }
+
+  /// (Android) Gets the number of playback events emitted and suppressed by
+  /// the event channel, or `null` if no audio source has been loaded.
+  Future<AndroidEventChannelStatistics?>
+      androidGetEventChannelStatistics() async {
+    if (_disposed) return null;
+    if (!_isAndroid() && !_isUnitTest()) return null;
+    if (!_active) return null;
+    final response = await (await _platform).androidEventChannelGetStatistics(
+        AndroidEventChannelGetStatisticsRequest());
+    return AndroidEventChannelStatistics(
+      emittedCount: response.emittedCount,
+      suppressedCount: response.suppressedCount,
+    );
+  }
+
+  /// (Android) Gets the size of the registry of decoded audio sources, or
+  /// `null` if no audio source has been loaded.
+  Future<AndroidMediaSourcesStatistics?>
+      androidGetMediaSourcesStatistics() async {
+    if (_disposed) return null;
+    if (!_isAndroid() && !_isUnitTest()) return null;
+    if (!_active) return null;
+    final response = await (await _platform).androidMediaSourcesGetStatistics(
+        AndroidMediaSourcesGetStatisticsRequest());
+    return AndroidMediaSourcesStatistics(
+      count: response.count,
+      evictedCount: response.evictedCount,
+      heapUsed: response.heapUsed,
+    );
+  }
+
+  /// (Android) Preloads the first [maxBytes] of upcoming audio sources into
+  /// the media cache, so that they start without waiting for the network.
+  /// Either the given [sources] or the next [count] items after the current
+  /// item in playback order are preloaded, each requested with its own
+  /// headers and the player's user agent. Progress is reported on
+  /// [preloadProgressStream]. Requires
+  /// [AudioLoadConfiguration.androidMediaCache] to be set, and has no effect
+  /// until an audio source has been loaded.
+  Future<void> preload(
+      {List<IndexedAudioSource>? sources,
+      int? count,
+      required int maxBytes}) async {
+    if (_disposed) return;
+    if (!_isAndroid() && !_isUnitTest()) return;
+    if (!_active) return;
+    await (await _platform).preload(PreloadRequest(
+      ids: sources?.map((source) => source._id).toList(),
+      count: count,
+      maxBytes: maxBytes,
+    ));
+  }
+
+  IndexedAudioSource? _indexedSource(String? id) {
+    final source = _audioSources[id];
+    return source is IndexedAudioSource ? source : null;
+  }
+
   /// Release all resources associated with this player. You must invoke this
   /// after you are done with the player.
   Future<void> dispose() async {
@@ -1185,6 +1334,8 @@ class AudioPlayer {
     }
     _audioSources.clear();
     _proxy.stop();
+    _streamBridge?.dispose();
+    _streamBridge = null;
     await _durationSubject.close();
     await _loopModeSubject.close();
     await _shuffleModeEnabledSubject.close();
@@ -1194,6 +1345,9 @@ class AudioPlayer {
     await _pitchSubject.close();
     await _sequenceSubject.close();
     await _shuffleIndicesSubject.close();
+    await _preloadProgressSubject.close();
+    await _timingSubject.close();
+    await _metricsSubject.close();
   }
 
   /// Switch to using the native platform when [active] is `true` and using the
@@ -1275,6 +1429,29 @@ class AudioPlayer {
           _shuffleModeEnabledSubject
               .add(message.shuffleMode != ShuffleModeMessage.none);
         }
+        if (message.preloadProgress != null) {
+          final progress = message.preloadProgress!;
+          _preloadProgressSubject.add(PreloadProgress(
+            source: _indexedSource(progress.id),
+            bytesCached: progress.bytesCached,
+            length: progress.length >= 0 ? progress.length : null,
+            completed: progress.completed,
+          ));
+        }
+        if (message.timing != null) {
+          final timing = message.timing!;
+          _timingSubject.add(TimingRecord(
+            type: timing.type,
+            source: _indexedSource(timing.id),
+            startTime: timing.startTime,
+            endTime: timing.endTime,
+            network: timing.network,
+          ));
+        }
+        if (message.metrics != null) {
+          _metricsSubject.add(
+              PlaybackMetrics._fromMessage(message.metrics!, _audioSources));
+        }
       });
       _playbackEventSubscription =
           platform.playbackEventMessageStream.listen((message) {
@@ -1351,6 +1528,10 @@ class AudioPlayer {
                       .toList()
                   : [],
               androidOffloadSchedulingEnabled: _androidOffloadSchedulingEnabled,
+              androidBinaryPlaybackEvents: _androidBinaryPlaybackEvents,
+              androidEventCoalescingWindow: _androidEventCoalescingWindow,
+              androidPlayerThreadEnabled: _androidPlayerThreadEnabled,
+              androidMetricsSnapshotInterval: _androidMetricsSnapshotInterval,
             )))
           : (_idlePlatform =
               _IdleAudioPlayer(id: _id, sequenceStream: sequenceStream));
@@ -1391,6 +1572,34 @@ class AudioPlayer {
                   enabled: automaticallyWaitsToMinimizeStalling));
           if (checkInterruption()) return platform;
         }
+        if (canUseNetworkResourcesForLiveStreamingWhilePaused) {
+          // Only set if different from default.
+          try {
+            await platform
+                .setCanUseNetworkResourcesForLiveStreamingWhilePaused(
+                    SetCanUseNetworkResourcesForLiveStreamingWhilePausedRequest(
+                        enabled:
+                            canUseNetworkResourcesForLiveStreamingWhilePaused));
+          } catch (e) {
+            // setCanUseNetworkResourcesForLiveStreamingWhilePaused not
+            // supported on this platform.
+          }
+          if (checkInterruption()) return platform;
+        }
+        if (preferredPeakBitRate != 0) {
+          // Only set if different from default.
+          try {
+            await platform.setPreferredPeakBitRate(
+                SetPreferredPeakBitRateRequest(bitRate: preferredPeakBitRate));
+          } catch (e) {
+            // setPreferredPeakBitRate not supported on this platform.
+          }
+          if (checkInterruption()) return platform;
+        }
+        if (_androidLoadControlRequest != null) {
+          await platform.androidSetLoadControl(_androidLoadControlRequest!);
+          if (checkInterruption()) return platform;
+        }
         await platform.setVolume(SetVolumeRequest(volume: volume));
         if (checkInterruption()) return platform;
         await platform.setSpeed(SetSpeedRequest(speed: speed));
@@ -1469,13 +1678,32 @@ class AudioPlayer {
 
   /// Clears the plugin's internal asset cache directory. Call this when the
   /// app's assets have changed to force assets to be re-fetched from the asset
-  /// bundle.
+  /// bundle. On Android, progressive assets are played directly from the APK
+  /// and are not cached.
   static Future<void> clearAssetCache() async {
     if (kIsWeb) return;
     await for (var file in (await _getCacheDir()).list()) {
       await file.delete(recursive: true);
     }
   }
+
+  /// (Android) Configures the pool of players that new players are taken
+  /// from and disposed players are returned to, so that creating a player
+  /// does not wait for a platform player to be built. [size] players are
+  /// built ahead of time, at most [maxIdleCount] disposed players are kept,
+  /// and each is released after [idleTimeout] if set.
+  static Future<void> configureAndroidPlayerPool({
+    required int size,
+    required int maxIdleCount,
+    Duration? idleTimeout,
+  }) async {
+    if (!_isAndroid() && !_isUnitTest()) return;
+    await _pluginPlatform.configurePlayerPool(ConfigurePlayerPoolRequest(
+      size: size,
+      maxIdleCount: maxIdleCount,
+      idleTimeout: idleTimeout,
+    ));
+  }
 }
 
 /// Captures the details of any error accessing, loading or playing an audio
@@ -1784,10 +2012,44 @@ class AudioLoadConfiguration {
   /// Speed control for live streams on Android.
   final AndroidLivePlaybackSpeedControl? androidLivePlaybackSpeedControl;
 
+  /// The on-disk media cache on Android, or `null` to load without a cache.
+  final AndroidMediaCache? androidMediaCache;
+
+  /// How often buffered position updates are sent on Android, or `null` to
+  /// send them with every playback event.
+  final AndroidBufferedPositionUpdates? androidBufferedPositionUpdates;
+
+  /// (Android) Whether local files and media cache files should be read
+  /// through memory mapped windows.
+  final bool androidMemoryMappedFiles;
+
+  /// (Android) Whether seek indexes of MP3 files should be built and stored
+  /// on disk so that later seeks within the same files are exact.
+  final bool androidSeekIndexCache;
+
+  /// Buffer targets on Android that can be changed while the player runs via
+  /// [AudioPlayer.androidSetLoadControl].
+  final AndroidAdaptiveLoadControl? androidAdaptiveLoadControl;
+
+  /// How load errors are retried on Android, or `null` for the default policy.
+  final AndroidLoadErrorPolicy? androidLoadErrorPolicy;
+
+  /// (Android) Whether startup, seek and rebuffer timings should be reported
+  /// on [AudioPlayer.timingStream]. Timing every data source has a cost, so
+  /// this is off by default.
+  final bool androidPlaybackTimings;
+
   AudioLoadConfiguration({
     this.darwinLoadControl,
     this.androidLoadControl,
     this.androidLivePlaybackSpeedControl,
+    this.androidMediaCache,
+    this.androidBufferedPositionUpdates,
+    this.androidMemoryMappedFiles = false,
+    this.androidSeekIndexCache = false,
+    this.androidAdaptiveLoadControl,
+    this.androidLoadErrorPolicy,
+    this.androidPlaybackTimings = false,
   });
 
   AudioLoadConfigurationMessage _toMessage() => AudioLoadConfigurationMessage(
@@ -1795,6 +2057,14 @@ class AudioLoadConfiguration {
         androidLoadControl: androidLoadControl?._toMessage(),
         androidLivePlaybackSpeedControl:
             androidLivePlaybackSpeedControl?._toMessage(),
+        androidMediaCache: androidMediaCache?._toMessage(),
+        androidBufferedPositionUpdates:
+            androidBufferedPositionUpdates?._toMessage(),
+        androidMemoryMappedFiles: androidMemoryMappedFiles,
+        androidSeekIndexCache: androidSeekIndexCache,
+        androidAdaptiveLoadControl: androidAdaptiveLoadControl?._toMessage(),
+        androidLoadErrorPolicy: androidLoadErrorPolicy?._toMessage(),
+        androidPlaybackTimings: androidPlaybackTimings,
       );
 }
 
@@ -1940,6 +2210,540 @@ class AndroidLivePlaybackSpeedControl {
       );
 }
 
+/// The on-disk media cache on Android.
+class AndroidMediaCache {
+  /// (Android) The maximum size in bytes of the on-disk media cache. The cache
+  /// is shared by all players, and least recently used content is evicted
+  /// once this size is exceeded.
+  final int maxCacheSize;
+
+  /// (Android) The names of query parameters to leave out of cache keys, such
+  /// as the tokens of signed URLs, so that the same media is cached once when
+  /// its URL changes. A name ending in `*` matches every parameter starting
+  /// with the rest of the name. Players sharing the cache should use the same
+  /// names.
+  final List<String> ignoredQueryParameters;
+
+  AndroidMediaCache({
+    this.maxCacheSize = 100 * 1024 * 1024,
+    this.ignoredQueryParameters = const [],
+  });
+
+  AndroidMediaCacheMessage _toMessage() => AndroidMediaCacheMessage(
+        maxCacheSize: maxCacheSize,
+        ignoredQueryParameters: ignoredQueryParameters,
+      );
+}
+
+/// How often buffered position updates are sent on Android.
+class AndroidBufferedPositionUpdates {
+  /// (Android) The minimum interval between buffered position updates while
+  /// the player is loading. No updates are sent while the player is not
+  /// loading.
+  final Duration minUpdateInterval;
+
+  /// (Android) The amount by which the buffered position must change before
+  /// an update is sent.
+  final Duration minUpdateDelta;
+
+  AndroidBufferedPositionUpdates({
+    this.minUpdateInterval = const Duration(milliseconds: 500),
+    this.minUpdateDelta = const Duration(seconds: 1),
+  });
+
+  AndroidBufferedPositionUpdatesMessage _toMessage() =>
+      AndroidBufferedPositionUpdatesMessage(
+        minUpdateInterval: minUpdateInterval,
+        minUpdateDelta: minUpdateDelta,
+      );
+}
+
+/// The Android buffer target presets.
+enum AndroidLoadControlPreset {
+  /// The default ExoPlayer buffer targets.
+  standard,
+
+  /// A short buffer capped at 4MB with no back buffer.
+  lowMemory,
+
+  /// Starts playback once 500ms of audio is buffered.
+  lowLatencyStart,
+
+  /// Buffers up to 5 minutes ahead, prioritizing time over size.
+  podcast,
+
+  /// A short buffer suited to following the live edge.
+  live,
+}
+
+extension _AndroidLoadControlPresetExtension on AndroidLoadControlPreset {
+  String get _name => this == AndroidLoadControlPreset.standard
+      ? 'default'
+      : describeEnum(this);
+}
+
+/// Buffer targets on Android that can be changed while the player runs.
+class AndroidAdaptiveLoadControl {
+  /// (Android) The initial preset. If `null`, the initial targets are taken
+  /// from [AudioLoadConfiguration.androidLoadControl] if set, or the standard
+  /// preset otherwise.
+  final AndroidLoadControlPreset? preset;
+
+  /// (Android) Whether to scale the target buffer size by the device's memory
+  /// class and reduce it temporarily under memory pressure.
+  final bool memoryScaling;
+
+  AndroidAdaptiveLoadControl({
+    this.preset,
+    this.memoryScaling = false,
+  });
+
+  AndroidAdaptiveLoadControlMessage _toMessage() =>
+      AndroidAdaptiveLoadControlMessage(
+        preset: preset?._name,
+        memoryScaling: memoryScaling,
+      );
+}
+
+/// How load errors are retried on Android.
+class AndroidLoadErrorPolicy {
+  /// (Android) The number of times a failed request is retried before the
+  /// load fails, or `null` to keep ExoPlayer's defaults of 3 retries, or 6
+  /// for progressive live streams.
+  final int? maxRetries;
+
+  /// (Android) The delay before the first retry. Each further retry doubles
+  /// the delay.
+  final Duration initialRetryDelay;
+
+  /// (Android) The maximum delay between retries.
+  final Duration maxRetryDelay;
+
+  /// (Android) The fraction of each delay by which it is randomly lengthened
+  /// or shortened.
+  final double jitter;
+
+  /// (Android) The number of times an item that failed to load is prepared
+  /// again at its last position before skipping to the next item.
+  final int maxItemRetries;
+
+  /// (Android) The number of failed items that are skipped after a load
+  /// before playback stops at the next failed item.
+  final int maxSkippedItems;
+
+  AndroidLoadErrorPolicy({
+    this.maxRetries,
+    this.initialRetryDelay = const Duration(milliseconds: 500),
+    this.maxRetryDelay = const Duration(seconds: 8),
+    this.jitter = 0.2,
+    this.maxItemRetries = 3,
+    this.maxSkippedItems = 5,
+  });
+
+  AndroidLoadErrorPolicyMessage _toMessage() => AndroidLoadErrorPolicyMessage(
+        maxRetries: maxRetries,
+        initialRetryDelay: initialRetryDelay,
+        maxRetryDelay: maxRetryDelay,
+        jitter: jitter,
+        maxItemRetries: maxItemRetries,
+        maxSkippedItems: maxSkippedItems,
+      );
+}
+
+/// The statistics of the Android media cache.
+class AndroidCacheStatistics {
+  /// The number of bytes this player has read from the cache.
+  final int hitBytes;
+
+  /// The number of bytes this player has read from the network.
+  final int missBytes;
+
+  /// The number of bytes currently held in the cache.
+  final int cacheSize;
+
+  /// The maximum number of bytes the cache may hold.
+  final int maxCacheSize;
+
+  static AndroidCacheStatistics _fromMessage(
+          AndroidCacheStatisticsMessage message) =>
+      AndroidCacheStatistics(
+        hitBytes: message.hitBytes,
+        missBytes: message.missBytes,
+        cacheSize: message.cacheSize,
+        maxCacheSize: message.maxCacheSize,
+      );
+
+  AndroidCacheStatistics({
+    required this.hitBytes,
+    required this.missBytes,
+    required this.cacheSize,
+    required this.maxCacheSize,
+  });
+}
+
+/// The number of playback events emitted and suppressed by the Android event
+/// channel.
+class AndroidEventChannelStatistics {
+  /// The number of events sent to the plugin.
+  final int emittedCount;
+
+  /// The number of events dropped as duplicates or merged into later events.
+  final int suppressedCount;
+
+  AndroidEventChannelStatistics({
+    required this.emittedCount,
+    required this.suppressedCount,
+  });
+}
+
+/// The size of the Android registry of decoded audio sources.
+class AndroidMediaSourcesStatistics {
+  /// The number of audio sources currently held by the registry.
+  final int count;
+
+  /// The number of audio sources released since the player was created
+  /// because they were no longer part of the loaded audio source.
+  final int evictedCount;
+
+  /// The number of bytes of Java heap in use by the app process.
+  final int heapUsed;
+
+  AndroidMediaSourcesStatistics({
+    required this.count,
+    required this.evictedCount,
+    required this.heapUsed,
+  });
+}
+
+/// A measurement of how long a stage of playback took.
+///
+/// The [type] is one of:
+///
+/// * `load`: from loading to the player first becoming ready.
+/// * `connection`: from opening a data source to its connection being open.
+/// * `firstByte`: from opening a data source to its first byte being read.
+/// * `prepare`: from the first byte of an item to its tracks being known.
+/// * `firstFrame`: from play to the first audio frame being played out.
+/// * `seek`: from a seek request to the seek completing.
+/// * `rebuffer`: from a stall during playback to playback resuming.
+class TimingRecord {
+  final String type;
+
+  /// The audio source this record applies to, if known.
+  final IndexedAudioSource? source;
+
+  /// The start time on a monotonic clock.
+  final Duration startTime;
+
+  /// The end time on the same monotonic clock as [startTime].
+  final Duration endTime;
+
+  /// For `connection` and `firstByte` records, whether the data source is a
+  /// network source.
+  final bool? network;
+
+  TimingRecord({
+    required this.type,
+    required this.source,
+    required this.startTime,
+    required this.endTime,
+    this.network,
+  });
+
+  Duration get duration => endTime - startTime;
+
+  @override
+  String toString() => 'type=$type,duration=$duration,network=$network';
+}
+
+/// The progress of preloading an audio source.
+class PreloadProgress {
+  /// The audio source being preloaded, if it is still part of the player.
+  final IndexedAudioSource? source;
+
+  /// The number of bytes of the requested range that are now cached.
+  final int bytesCached;
+
+  /// The number of bytes requested, or `null` if unknown.
+  final int? length;
+
+  /// Whether the preload has finished successfully.
+  final bool completed;
+
+  PreloadProgress({
+    required this.source,
+    required this.bytesCached,
+    required this.length,
+    required this.completed,
+  });
+
+  @override
+  String toString() =>
+      'bytesCached=$bytesCached,length=$length,completed=$completed';
+}
+
+/// Playback quality of service metrics aggregated over the lifetime of a
+/// player.
+class PlaybackMetrics {
+  /// The total number of bytes loaded.
+  final int bytesLoaded;
+
+  /// The total time spent loading.
+  final Duration loadDuration;
+
+  /// The loads of each audio source that is still part of the player.
+  final Map<IndexedAudioSource, SourceLoadMetrics> sources;
+
+  /// The estimated bandwidth in bits per second, if known.
+  final int? bandwidthEstimate;
+
+  /// The number of times playback stalled to rebuffer.
+  final int rebufferCount;
+
+  /// The total time spent stalled.
+  final Duration stalledTime;
+
+  /// The number of audio output underruns.
+  final int underrunCount;
+
+  /// The name of the last audio decoder initialized.
+  final String? decoderName;
+
+  /// The number of times an audio decoder was initialized.
+  final int decoderInitCount;
+
+  /// The total time spent initializing audio decoders.
+  final Duration decoderInitDuration;
+
+  /// The audio format currently being decoded.
+  final AudioFormat? format;
+
+  /// The number of failed load requests, including those that were retried.
+  final int loadErrorCount;
+
+  /// The number of times an item was prepared again after a player error.
+  final int retryCount;
+
+  /// The number of items skipped after running out of retries.
+  final int skipCount;
+
+  static PlaybackMetrics _fromMessage(
+          PlaybackMetricsMessage message, Map<String, AudioSource> sources) =>
+      PlaybackMetrics(
+        bytesLoaded: message.bytesLoaded,
+        loadDuration: message.loadDuration,
+        sources: {
+          for (final entry in message.sources.entries)
+            if (sources[entry.key] is IndexedAudioSource)
+              sources[entry.key] as IndexedAudioSource:
+                  SourceLoadMetrics._fromMessage(entry.value),
+        },
+        bandwidthEstimate: message.bandwidthEstimate,
+        rebufferCount: message.rebufferCount,
+        stalledTime: message.stalledTime,
+        underrunCount: message.underrunCount,
+        decoderName: message.decoderName,
+        decoderInitCount: message.decoderInitCount,
+        decoderInitDuration: message.decoderInitDuration,
+        format: message.format == null
+            ? null
+            : AudioFormat._fromMessage(message.format!),
+        loadErrorCount: message.loadErrorCount,
+        retryCount: message.retryCount,
+        skipCount: message.skipCount,
+      );
+
+  PlaybackMetrics({
+    required this.bytesLoaded,
+    required this.loadDuration,
+    required this.sources,
+    required this.bandwidthEstimate,
+    required this.rebufferCount,
+    required this.stalledTime,
+    required this.underrunCount,
+    required this.decoderName,
+    required this.decoderInitCount,
+    required this.decoderInitDuration,
+    required this.format,
+    required this.loadErrorCount,
+    required this.retryCount,
+    required this.skipCount,
+  });
+}
+
+/// The loads of a single audio source.
+class SourceLoadMetrics {
+  final int bytesLoaded;
+  final Duration loadDuration;
+  final int loadCount;
+
+  static SourceLoadMetrics _fromMessage(SourceLoadMetricsMessage message) =>
+      SourceLoadMetrics(
+        bytesLoaded: message.bytesLoaded,
+        loadDuration: message.loadDuration,
+        loadCount: message.loadCount,
+      );
+
+  SourceLoadMetrics({
+    required this.bytesLoaded,
+    required this.loadDuration,
+    required this.loadCount,
+  });
+}
+
+/// A selected audio format.
+class AudioFormat {
+  final String? mimeType;
+  final String? codecs;
+
+  /// The bitrate in bits per second, if known.
+  final int? bitrate;
+  final int? sampleRate;
+  final int? channelCount;
+
+  static AudioFormat _fromMessage(AudioFormatMessage message) => AudioFormat(
+        mimeType: message.mimeType,
+        codecs: message.codecs,
+        bitrate: message.bitrate,
+        sampleRate: message.sampleRate,
+        channelCount: message.channelCount,
+      );
+
+  AudioFormat({
+    required this.mimeType,
+    required this.codecs,
+    required this.bitrate,
+    required this.sampleRate,
+    required this.channelCount,
+  });
+
+  @override
+  String toString() =>
+      'mimeType=$mimeType,codecs=$codecs,bitrate=$bitrate,sampleRate=$sampleRate,channelCount=$channelCount';
+}
+
+/// Serves byte ranges of [StreamAudioSource]s to the Android platform player
+/// over a binary channel.
+///
+/// Each request is a little-endian `int64 requestId, int64 start, int32 length`
+/// followed by the UTF-8 source id. The reply is an `int64 sourceLength` (-1 if
+/// unknown) followed by up to `length` bytes starting at `start`, where fewer
+/// bytes mean the end of the data. A request with a negative length cancels
+/// the request with the same requestId.
+class _StreamAudioSourceBridge {
+  static const _scheme = 'just-audio-stream';
+
+  final BasicMessageChannel<ByteData> _channel;
+  final _sources = <String, StreamAudioSource>{};
+  final _pendingRequests = <int, _PendingStreamRequest>{};
+
+  _StreamAudioSourceBridge(String playerId)
+      : _channel = BasicMessageChannel<ByteData>(
+            'com.ryanheise.just_audio.stream.$playerId', const BinaryCodec()) {
+    _channel.setMessageHandler(_handleRequest);
+  }
+
+  /// Registers [source] and returns the URI the platform player should load.
+  Uri addStreamAudioSource(StreamAudioSource source) {
+    _sources[source._id] = source;
+    return Uri.parse('$_scheme:${source._id}');
+  }
+
+  Future<ByteData> _handleRequest(ByteData? message) async {
+    final requestId = message!.getInt64(0, Endian.little);
+    final start = message.getInt64(8, Endian.little);
+    final length = message.getInt32(16, Endian.little);
+    if (length < 0) {
+      _pendingRequests.remove(requestId)?.cancel();
+      return ByteData(0);
+    }
+    final id = utf8.decode(message.buffer
+        .asUint8List(message.offsetInBytes + 20, message.lengthInBytes - 20));
+    final source = _sources[id];
+    if (source == null) {
+      throw Exception('Unknown stream audio source: $id');
+    }
+    // Register the request before awaiting the source so that a cancel that
+    // arrives in the meantime is not lost.
+    final request = _PendingStreamRequest(length);
+    _pendingRequests[requestId] = request;
+    final StreamAudioResponse response;
+    try {
+      response = await source.request(start, start + length);
+      if (request.isCancelled) {
+        await response.stream.listen(null).cancel();
+        return ByteData(0);
+      }
+      // Sources that do not support range requests respond from the start.
+      request.skip = start - (response.offset ?? 0);
+      await request.read(response.stream);
+    } finally {
+      _pendingRequests.remove(requestId);
+    }
+    final bytes = request.bytes;
+    final sourceLength = response.sourceLength ??
+        ((response.offset ?? 0) == 0 ? response.contentLength : null);
+    final reply = ByteData(8 + bytes.length);
+    reply.setInt64(0, sourceLength ?? -1, Endian.little);
+    reply.buffer.asUint8List(8).setAll(0, bytes);
+    return reply;
+  }
+
+  void dispose() {
+    _channel.setMessageHandler(null);
+    for (var request in _pendingRequests.values) {
+      request.cancel();
+    }
+    _pendingRequests.clear();
+    _sources.clear();
+  }
+}
+
+/// Collects [length] bytes from a stream after skipping [skip] bytes.
+class _PendingStreamRequest {
+  int skip = 0;
+  final int length;
+  final _builder = BytesBuilder(copy: false);
+  final _completer = Completer<void>();
+  StreamSubscription<List<int>>? _subscription;
+  bool _cancelled = false;
+
+  _PendingStreamRequest(this.length);
+
+  bool get isCancelled => _cancelled;
+
+  Uint8List get bytes {
+    final bytes = _builder.takeBytes();
+    return bytes.length > length ? bytes.sublist(0, length) : bytes;
+  }
+
+  Future<void> read(Stream<List<int>> stream) {
+    _subscription = stream.listen((chunk) {
+      if (skip >= chunk.length) {
+        skip -= chunk.length;
+        return;
+      }
+      _builder.add(skip > 0 ? chunk.sublist(skip) : chunk);
+      skip = 0;
+      if (_builder.length >= length) {
+        cancel();
+      }
+    }, onError: (Object e, StackTrace st) {
+      _subscription?.cancel();
+      if (!_completer.isCompleted) _completer.completeError(e, st);
+    }, onDone: () {
+      if (!_completer.isCompleted) _completer.complete();
+    }, cancelOnError: true);
+    return _completer.future;
+  }
+
+  void cancel() {
+    _cancelled = true;
+    _subscription?.cancel();
+    if (!_completer.isCompleted) _completer.complete();
+  }
+}
+
 /// A local proxy HTTP server for making remote GET requests with headers.
 class _ProxyHttpServer {
   late HttpServer _server;
@@ -2092,7 +2896,8 @@ abstract class AudioSource {
   /// directly.
   ///
   /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-  /// your device to forward HTTP requests with headers included.
+  /// your device to forward HTTP requests with headers included. On Android,
+  /// headers are applied natively without a proxy.
   static UriAudioSource uri(Uri uri,
       {Map<String, String>? headers, dynamic tag}) {
     bool hasExtension(Uri uri, String extension) =>
@@ -2202,10 +3007,16 @@ abstract class UriAudioSource extends IndexedAudioSource {
   Future<void> _setup(AudioPlayer player) async {
     await super._setup(player);
     if (uri.scheme == 'asset') {
-      _overrideUri = await _loadAsset(uri.pathSegments.join('/'));
+      // Android plays progressive assets straight from the APK.
+      if (!(_isAndroid() && this is ProgressiveAudioSource)) {
+        _overrideUri = await _loadAsset(uri.pathSegments.join('/'));
+      }
     } else if (uri.scheme != 'file' &&
         !kIsWeb &&
+        !_isAndroid() &&
         (headers != null || player._userAgent != null)) {
+      // Android applies headers and the user agent natively, to playback
+      // and to preloads alike, so no proxy is needed there.
       await player._proxy.ensureRunning();
       _overrideUri = player._proxy.addUriAudioSource(this);
     }
@@ -2271,15 +3082,43 @@ abstract class UriAudioSource extends IndexedAudioSource {
 /// the HTTP(S) request.
 ///
 /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-/// your device to forward HTTP requests with headers included.
+/// your device to forward HTTP requests with headers included. On Android,
+/// headers are applied natively without a proxy.
+///
+/// On Android, the container format is detected by trying each supported
+/// format in turn, starting with the one suggested by the extension in the
+/// URI's path or fragment (e.g. `#.mp3`). If you know the format in advance,
+/// you can pass its [mimeType] (e.g. `audio/mpeg`) to have that format tried
+/// first instead.
+///
+/// On Android, the media cache stores the media under its URI. If the URI
+/// changes between sessions, for example because it carries a signed token,
+/// you can pass a stable [cacheKey] so that the cached media is reused.
 class ProgressiveAudioSource extends UriAudioSource {
+  /// (Android) The MIME type of the container format, if known.
+  final String? mimeType;
+
+  /// (Android) The key under which the media is cached, or `null` to use the
+  /// URI.
+  final String? cacheKey;
+
   ProgressiveAudioSource(Uri uri,
-      {Map<String, String>? headers, dynamic tag, Duration? duration})
+      {Map<String, String>? headers,
+      this.mimeType,
+      this.cacheKey,
+      dynamic tag,
+      Duration? duration})
       : super(uri, headers: headers, tag: tag, duration: duration);
 
   @override
   AudioSourceMessage _toMessage() => ProgressiveAudioSourceMessage(
-      id: _id, uri: _effectiveUri.toString(), headers: headers, tag: tag);
+      id: _id,
+      uri: _effectiveUri.toString(),
+      headers: headers,
+      userAgent: _player?._userAgent,
+      mimeType: mimeType,
+      cacheKey: cacheKey,
+      tag: tag);
 }
 
 /// An [AudioSource] representing a DASH stream. The following URI schemes are
@@ -2295,7 +3134,8 @@ class ProgressiveAudioSource extends UriAudioSource {
 /// the HTTP(S) request. Currently headers are not applied recursively.
 ///
 /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-/// your device to forward HTTP requests with headers included.
+/// your device to forward HTTP requests with headers included. On Android,
+/// headers are applied natively without a proxy.
 class DashAudioSource extends UriAudioSource {
   DashAudioSource(Uri uri,
       {Map<String, String>? headers, dynamic tag, Duration? duration})
@@ -2303,7 +3143,11 @@ class DashAudioSource extends UriAudioSource {
 
   @override
   AudioSourceMessage _toMessage() => DashAudioSourceMessage(
-      id: _id, uri: _effectiveUri.toString(), headers: headers, tag: tag);
+      id: _id,
+      uri: _effectiveUri.toString(),
+      headers: headers,
+      userAgent: _player?._userAgent,
+      tag: tag);
 }
 
 /// An [AudioSource] representing an HLS stream. The following URI schemes are
@@ -2318,7 +3162,8 @@ class DashAudioSource extends UriAudioSource {
 /// the HTTP(S) request. Currently headers are not applied recursively.
 ///
 /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-/// your device to forward HTTP requests with headers included.
+/// your device to forward HTTP requests with headers included. On Android,
+/// headers are applied natively without a proxy.
 class HlsAudioSource extends UriAudioSource {
   HlsAudioSource(Uri uri,
       {Map<String, String>? headers, dynamic tag, Duration? duration})
@@ -2326,7 +3171,11 @@ class HlsAudioSource extends UriAudioSource {
 
   @override
   AudioSourceMessage _toMessage() => HlsAudioSourceMessage(
-      id: _id, uri: _effectiveUri.toString(), headers: headers, tag: tag);
+      id: _id,
+      uri: _effectiveUri.toString(),
+      headers: headers,
+      userAgent: _player?._userAgent,
+      tag: tag);
 }
 
 /// An [AudioSource] for a period of silence.
@@ -2654,6 +3503,10 @@ abstract class StreamAudioSource extends IndexedAudioSource {
       final response = await request();
       _uri = _encodeDataUrl(await base64.encoder.bind(response.stream).join(),
           response.contentType);
+    } else if (_isAndroid()) {
+      // Android reads byte ranges directly over a binary channel.
+      _uri = (player._streamBridge ??= _StreamAudioSourceBridge(player._id))
+          .addStreamAudioSource(this);
     } else {
       await player._proxy.ensureRunning();
       _uri = player._proxy.addStreamAudioSource(this);
@@ -2728,8 +3581,10 @@ class LockCachingAudioSource extends StreamAudioSource {
   /// while simultaneously caching it to [cacheFile]. If no cache file is
   /// supplied, just_audio will allocate a cache file internally.
   ///
-  /// If headers are set, just_audio will create a cleartext local HTTP proxy on
-  /// your device to forward HTTP requests with headers included.
+  /// The audio is downloaded by just_audio itself with [headers] included,
+  /// rather than by the platform player, and is served to the player through
+  /// a cleartext local HTTP proxy on your device. On Android, it is served
+  /// over a platform channel instead of the proxy.
   LockCachingAudioSource(
     this.uri, {
     this.headers,
@@ -3786,6 +4641,304 @@ class AndroidEqualizer extends AudioEffect with AndroidAudioEffect {
       );
 }
 
+/// (Android) A player for short sound effects such as UI sounds and game
+/// effects.
+///
+/// Clips are decoded once by [load] into an in-memory cache that evicts the
+/// least recently used clips once [maxCacheSize] bytes are exceeded, and every
+/// playing voice is mixed into a single low latency output, so [play] does not
+/// need a player of its own. Clips may be loaded from file, content and
+/// http(s) URIs. Requires Android 5.0 (API level 21) or later.
+///
+/// You must call [dispose] to release the resources used by this player.
+class SoundEffectPlayer {
+  final String _id;
+
+  /// The maximum number of bytes of decoded audio to keep in memory.
+  final int maxCacheSize;
+
+  /// The maximum number of voices that can play at once. Starting a voice
+  /// beyond this limit stops the oldest one.
+  final int maxVoices;
+
+  Future<SoundEffectPlayerPlatform>? _platformFuture;
+  bool _disposed = false;
+
+  SoundEffectPlayer({
+    this.maxCacheSize = 8 * 1024 * 1024,
+    this.maxVoices = 8,
+  }) : _id = _uuid.v4();
+
+  /// The platform player is created on first use.
+  Future<SoundEffectPlayerPlatform> get _platform {
+    if (_disposed) {
+      throw StateError('SoundEffectPlayer has been disposed');
+    }
+    return _platformFuture ??= _pluginPlatform.initSoundEffectPlayer(
+        InitSoundEffectPlayerRequest(
+            id: _id, maxCacheSize: maxCacheSize, maxVoices: maxVoices));
+  }
+
+  /// Decodes the clip at [uri] into the cache and returns its duration.
+  /// Clips that are played without being loaded are loaded first.
+  Future<Duration> load(Uri uri, {Map<String, String>? headers}) async {
+    final response = await (await _platform)
+        .load(SoundEffectLoadRequest(uri: uri.toString(), headers: headers));
+    return response.duration;
+  }
+
+  /// Removes the clip at [uri] from the cache.
+  Future<void> unload(Uri uri) async {
+    await (await _platform)
+        .unload(SoundEffectUnloadRequest(uri: uri.toString()));
+  }
+
+  /// Starts a new voice playing the clip at [uri] at [volume], repeating it
+  /// until stopped if [loop] is `true`, and returns the id of the voice.
+  Future<int> play(Uri uri,
+      {Map<String, String>? headers,
+      double volume = 1.0,
+      bool loop = false}) async {
+    final response = await (await _platform).play(SoundEffectPlayRequest(
+        uri: uri.toString(), headers: headers, volume: volume, loop: loop));
+    return response.voiceId;
+  }
+
+  /// Stops the voice with id [voiceId], or all voices if `null`.
+  Future<void> stop([int? voiceId]) async {
+    await (await _platform).stop(SoundEffectStopRequest(voiceId: voiceId));
+  }
+
+  /// Changes the volume of the voice with id [voiceId].
+  Future<void> setVolume(int voiceId, double volume) async {
+    await (await _platform).setVolume(
+        SoundEffectSetVolumeRequest(voiceId: voiceId, volume: volume));
+  }
+
+  /// Gets the trigger latency and cache statistics.
+  Future<SoundEffectStatistics> getStatistics() async {
+    final response = await (await _platform)
+        .getStatistics(SoundEffectGetStatisticsRequest());
+    return SoundEffectStatistics._fromMessage(response);
+  }
+
+  /// Release all resources associated with this player. You must invoke this
+  /// after you are done with the player.
+  Future<void> dispose() async {
+    if (_disposed) return;
+    _disposed = true;
+    if (_platformFuture == null) return;
+    _platformFuture = null;
+    await _pluginPlatform
+        .disposeSoundEffectPlayer(DisposeSoundEffectPlayerRequest(id: _id));
+  }
+}
+
+/// The trigger latency and cache statistics of a [SoundEffectPlayer].
+/// Latencies are measured from when a play request reaches the platform to
+/// when the first frame of the voice is expected to be output.
+class SoundEffectStatistics {
+  /// The number of voices started.
+  final int triggerCount;
+  final Duration? averageLatency;
+  final Duration? maxLatency;
+  final Duration? lastLatency;
+
+  /// The number of voices currently playing.
+  final int voiceCount;
+
+  /// The number of clips in the cache.
+  final int clipCount;
+
+  /// The number of bytes of decoded audio in the cache.
+  final int cacheSize;
+
+  static SoundEffectStatistics _fromMessage(
+          SoundEffectGetStatisticsResponse message) =>
+      SoundEffectStatistics(
+        triggerCount: message.triggerCount,
+        averageLatency: message.averageLatency,
+        maxLatency: message.maxLatency,
+        lastLatency: message.lastLatency,
+        voiceCount: message.voiceCount,
+        clipCount: message.clipCount,
+        cacheSize: message.cacheSize,
+      );
+
+  SoundEffectStatistics({
+    required this.triggerCount,
+    required this.averageLatency,
+    required this.maxLatency,
+    required this.lastLatency,
+    required this.voiceCount,
+    required this.clipCount,
+    required this.cacheSize,
+  });
+}
+
+/// (Android) Downloads audio for offline playback.
+///
+/// Downloads continue in the background while the app runs and resume after
+/// a restart. Once a download completes, every [AudioPlayer] plays audio
+/// sources with its URI, or its [ProgressiveAudioSource.cacheKey] if set,
+/// from local storage.
+///
+/// ```
+/// final downloads = await AudioDownloadManager.init();
+/// downloads.downloadStream.listen((download) => print(download.state));
+/// await downloads.addDownload('episode1', AudioSource.uri(Uri.parse(url)));
+/// ```
+class AudioDownloadManager {
+  final DownloadManagerPlatform _platform;
+
+  AudioDownloadManager._(this._platform);
+
+  /// Initializes the download manager, or reconfigures it if it was already
+  /// initialized.
+  ///
+  /// At most [maxParallelDownloads] downloads run at once, and the segments
+  /// of DASH and HLS streams are downloaded by [maxParallelSegments] threads,
+  /// which is fixed by the first initialization in the process. If
+  /// [maxBytes] is set, all downloads are stopped once that many bytes are
+  /// stored until enough are removed. The progress of running downloads is
+  /// reported every [progressInterval], which must be at least 1ms. Query
+  /// parameters named in [ignoredQueryParameters] are left out of the keys of
+  /// downloads, in the format of [AndroidMediaCache.ignoredQueryParameters].
+  static Future<AudioDownloadManager> init({
+    int maxParallelDownloads = 3,
+    int maxParallelSegments = 4,
+    int? maxBytes,
+    Duration progressInterval = const Duration(milliseconds: 500),
+    List<String> ignoredQueryParameters = const [],
+  }) async {
+    return AudioDownloadManager._(
+        await _pluginPlatform.initDownloadManager(InitDownloadManagerRequest(
+      maxParallelDownloads: maxParallelDownloads,
+      maxParallelSegments: maxParallelSegments,
+      maxBytes: maxBytes,
+      progressInterval: progressInterval,
+      ignoredQueryParameters: ignoredQueryParameters,
+    )));
+  }
+
+  /// A stream of download state changes and progress updates.
+  Stream<Download> get downloadStream =>
+      _platform.downloadMessageStream.map(Download._fromMessage);
+
+  /// Adds a download with the given [id] of the media of [source], or
+  /// restarts a failed or removed download with the same id. The headers of
+  /// [source] and [userAgent] are sent with every request of the download.
+  /// Completes once the tracks to download are known.
+  Future<void> addDownload(String id, UriAudioSource source,
+      {String? userAgent}) async {
+    await _platform.addDownload(AddDownloadRequest(
+      id: id,
+      uri: source.uri.toString(),
+      type: source is DashAudioSource
+          ? DownloadType.dash
+          : source is HlsAudioSource
+              ? DownloadType.hls
+              : DownloadType.progressive,
+      cacheKey: source is ProgressiveAudioSource ? source.cacheKey : null,
+      headers: source.headers,
+      userAgent: userAgent,
+    ));
+  }
+
+  /// Removes the download with the given [id] and deletes its data.
+  Future<void> removeDownload(String id) async {
+    await _platform.removeDownload(RemoveDownloadRequest(id: id));
+  }
+
+  /// Pauses all downloads if [paused] is `true`, or resumes them otherwise.
+  Future<void> setPaused(bool paused) async {
+    await _platform
+        .setDownloadsPaused(SetDownloadsPausedRequest(paused: paused));
+  }
+
+  /// Gets all downloads and the storage they use.
+  Future<Downloads> getDownloads() async {
+    final response = await _platform.getDownloads(GetDownloadsRequest());
+    return Downloads(
+      downloads: response.downloads.map(Download._fromMessage).toList(),
+      downloadedBytes: response.downloadedBytes,
+      maxBytes: response.maxBytes > 0 ? response.maxBytes : null,
+    );
+  }
+}
+
+/// All downloads of an [AudioDownloadManager] and the storage they use.
+class Downloads {
+  final List<Download> downloads;
+
+  /// The number of bytes of downloaded media stored.
+  final int downloadedBytes;
+
+  /// The maximum number of bytes to download, or `null` for no limit.
+  final int? maxBytes;
+
+  Downloads({
+    required this.downloads,
+    required this.downloadedBytes,
+    required this.maxBytes,
+  });
+}
+
+/// The state of a download.
+class Download {
+  final String id;
+  final Uri uri;
+  final DownloadState state;
+  final int bytesDownloaded;
+
+  /// The total length of the media in bytes, or `null` if unknown.
+  final int? contentLength;
+
+  /// The percentage downloaded, or `null` if unknown.
+  final double? percentDownloaded;
+
+  /// Whether the download is stopped because the downloaded bytes reached
+  /// the `maxBytes` of [AudioDownloadManager.init].
+  final bool stoppedByQuota;
+
+  static Download _fromMessage(DownloadMessage message) => Download(
+        id: message.id,
+        uri: Uri.parse(message.uri),
+        state: DownloadState.values[message.state.index],
+        bytesDownloaded: message.bytesDownloaded,
+        contentLength: message.contentLength,
+        percentDownloaded: message.percentDownloaded,
+        stoppedByQuota: message.stopReason == DownloadMessage.stopReasonQuota,
+      );
+
+  Download({
+    required this.id,
+    required this.uri,
+    required this.state,
+    required this.bytesDownloaded,
+    required this.contentLength,
+    required this.percentDownloaded,
+    required this.stoppedByQuota,
+  });
+
+  @override
+  String toString() =>
+      'id=$id,state=$state,bytesDownloaded=$bytesDownloaded,contentLength=$contentLength';
+}
+
+/// The state of a [Download]. A download is [removed] once its data has been
+/// deleted.
+enum DownloadState {
+  queued,
+  stopped,
+  downloading,
+  completed,
+  failed,
+  removing,
+  restarting,
+  removed,
+}
+
 bool _isAndroid() => !kIsWeb && Platform.isAndroid;
 bool _isDarwin() => !kIsWeb && (Platform.isIOS || Platform.isMacOS);
 bool _isUnitTest() => !kIsWeb && Platform.environment['FLUTTER_TEST'] == 'true';
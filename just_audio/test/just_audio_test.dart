@@ -1305,6 +1305,343 @@ void runTests() {
     await player.dispose();
   });
 
+  test('androidMediaCache', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidMediaCache: AndroidMediaCache(maxCacheSize: 1024),
+      ),
+    );
+    expect(await player.androidGetCacheStatistics(), isNull);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(
+        mock.mostRecentPlayer!.audioLoadConfiguration?.androidMediaCache
+            ?.maxCacheSize,
+        equals(1024));
+    final statistics = (await player.androidGetCacheStatistics())!;
+    expect(statistics.hitBytes, equals(1));
+    expect(statistics.missBytes, equals(2));
+    expect(statistics.cacheSize, equals(3));
+    expect(statistics.maxCacheSize, equals(1024));
+    await player.dispose();
+  });
+
+  test('preload', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidMediaCache: AndroidMediaCache(),
+      ),
+    );
+    final source = AudioSource.uri(Uri.parse('https://foo.foo/foo.mp3'));
+    await player.setAudioSource(source);
+    final progress = player.preloadProgressStream.first;
+    await player.preload(sources: [source], maxBytes: 1024);
+    final request = mock.mostRecentPlayer!.preloadRequest!;
+    expect(request.ids?.length, equals(1));
+    expect(request.count, isNull);
+    expect(request.maxBytes, equals(1024));
+    final event = await progress;
+    expect(event.source, equals(source));
+    expect(event.bytesCached, equals(1024));
+    expect(event.length, equals(1024));
+    expect(event.completed, equals(true));
+    await player.dispose();
+  });
+
+  test('androidBufferedPositionUpdates', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidBufferedPositionUpdates: AndroidBufferedPositionUpdates(
+          minUpdateInterval: const Duration(milliseconds: 250),
+        ),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final updates = mock.mostRecentPlayer!.audioLoadConfiguration!
+        .androidBufferedPositionUpdates!;
+    expect(updates.minUpdateInterval,
+        equals(const Duration(milliseconds: 250)));
+    expect(updates.minUpdateDelta, equals(const Duration(seconds: 1)));
+    await player.dispose();
+  });
+
+  test('androidBinaryPlaybackEvents', () async {
+    final player = AudioPlayer();
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.initRequest.androidBinaryPlaybackEvents,
+        equals(false));
+    await player.dispose();
+    final binaryPlayer = AudioPlayer(androidBinaryPlaybackEvents: true);
+    await binaryPlayer.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.initRequest.androidBinaryPlaybackEvents,
+        equals(true));
+    await binaryPlayer.dispose();
+  });
+
+  test('androidEventCoalescingWindow', () async {
+    final player = AudioPlayer(
+        androidEventCoalescingWindow: const Duration(milliseconds: 100));
+    expect(await player.androidGetEventChannelStatistics(), isNull);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.initRequest.androidEventCoalescingWindow,
+        equals(const Duration(milliseconds: 100)));
+    final statistics = (await player.androidGetEventChannelStatistics())!;
+    expect(statistics.emittedCount, equals(4));
+    expect(statistics.suppressedCount, equals(5));
+    await player.dispose();
+  });
+
+  test('androidPlayerThreadEnabled', () async {
+    final player = AudioPlayer(androidPlayerThreadEnabled: true);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.initRequest.androidPlayerThreadEnabled,
+        equals(true));
+    await player.dispose();
+  });
+
+  test('configureAndroidPlayerPool', () async {
+    await AudioPlayer.configureAndroidPlayerPool(
+      size: 2,
+      maxIdleCount: 3,
+      idleTimeout: const Duration(seconds: 30),
+    );
+    final request = mock.playerPoolRequest!;
+    expect(request.size, equals(2));
+    expect(request.maxIdleCount, equals(3));
+    expect(request.idleTimeout, equals(const Duration(seconds: 30)));
+  });
+
+  test('SoundEffectPlayer', () async {
+    final player = SoundEffectPlayer(maxCacheSize: 4096, maxVoices: 2);
+    final click = Uri.parse('https://foo.foo/click.wav');
+    final beep = Uri.parse('https://foo.foo/beep.wav');
+    expect(await player.load(click), equals(const Duration(seconds: 1)));
+    final platform = mock.soundEffectPlayers.values.single;
+    expect(platform.initRequest.maxCacheSize, equals(4096));
+    expect(platform.initRequest.maxVoices, equals(2));
+    final voice1 = await player.play(click);
+    final voice2 = await player.play(beep, volume: 0.5);
+    expect(voice1, isNot(equals(voice2)));
+    expect(platform.voices[voice2], equals(0.5));
+    await player.setVolume(voice2, 0.25);
+    expect(platform.voices[voice2], equals(0.25));
+    await player.stop(voice1);
+    expect(platform.voices.keys, equals([voice2]));
+    final statistics = await player.getStatistics();
+    expect(statistics.triggerCount, equals(2));
+    expect(statistics.voiceCount, equals(1));
+    expect(statistics.clipCount, equals(2));
+    await player.unload(beep);
+    expect(platform.clips, equals({click.toString()}));
+    await player.dispose();
+    expect(mock.soundEffectPlayers, isEmpty);
+    await expectLater(player.play(click), throwsStateError);
+  });
+
+  test('timingStream', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidPlaybackTimings: true,
+      ),
+    );
+    final source = AudioSource.uri(Uri.parse('https://foo.foo/foo.mp3'));
+    await player.setAudioSource(source);
+    final timing = player.timingStream.first;
+    final platform = mock.mostRecentPlayer!;
+    expect(platform.audioLoadConfiguration!.androidPlaybackTimings,
+        equals(true));
+    platform.dataController.add(PlayerDataMessage(
+      timing: TimingRecordMessage(
+        type: 'firstByte',
+        id: platform._audioSource!.id,
+        startTime: const Duration(milliseconds: 100),
+        endTime: const Duration(milliseconds: 350),
+        network: true,
+      ),
+    ));
+    final record = await timing;
+    expect(record.type, equals('firstByte'));
+    expect(record.source, equals(source));
+    expect(record.duration, equals(const Duration(milliseconds: 250)));
+    expect(record.network, equals(true));
+    await player.dispose();
+  });
+
+  test('getMetrics', () async {
+    final player = AudioPlayer(
+        androidMetricsSnapshotInterval: const Duration(seconds: 5));
+    expect(await player.getMetrics(), isNull);
+    final source = AudioSource.uri(Uri.parse('https://foo.foo/foo.mp3'));
+    await player.setAudioSource(source);
+    final platform = mock.mostRecentPlayer!;
+    expect(platform.initRequest.androidMetricsSnapshotInterval,
+        equals(const Duration(seconds: 5)));
+    final metrics = (await player.getMetrics())!;
+    expect(metrics.bytesLoaded, equals(1024));
+    expect(metrics.sources[source]!.loadCount, equals(1));
+    expect(metrics.rebufferCount, equals(1));
+    expect(metrics.format!.sampleRate, equals(44100));
+    expect(metrics.loadErrorCount, equals(2));
+    expect(metrics.retryCount, equals(1));
+    expect(metrics.skipCount, equals(0));
+    final snapshot = player.metricsStream.first;
+    platform.dataController.add(PlayerDataMessage(metrics: platform.metrics));
+    expect((await snapshot).bandwidthEstimate, equals(40960));
+    await player.dispose();
+  });
+
+  test('androidMemoryMappedFiles', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidMemoryMappedFiles: true,
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(
+        mock.mostRecentPlayer!.audioLoadConfiguration!.androidMemoryMappedFiles,
+        equals(true));
+    await player.dispose();
+  });
+
+  test('androidSeekIndexCache', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidSeekIndexCache: true,
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    expect(mock.mostRecentPlayer!.audioLoadConfiguration!.androidSeekIndexCache,
+        equals(true));
+    await player.dispose();
+  });
+
+  test('androidGetMediaSourcesStatistics', () async {
+    final player = AudioPlayer();
+    expect(await player.androidGetMediaSourcesStatistics(), isNull);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final statistics = (await player.androidGetMediaSourcesStatistics())!;
+    expect(statistics.count, equals(6));
+    expect(statistics.evictedCount, equals(7));
+    expect(statistics.heapUsed, equals(8));
+    await player.dispose();
+  });
+
+  test('androidSetLoadControl', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidAdaptiveLoadControl: AndroidAdaptiveLoadControl(
+          preset: AndroidLoadControlPreset.standard,
+          memoryScaling: true,
+        ),
+      ),
+    );
+    // Set before the platform player exists, so it is sent on load.
+    await player.androidSetLoadControl(
+        preset: AndroidLoadControlPreset.podcast);
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final platform = mock.mostRecentPlayer!;
+    final adaptive =
+        platform.audioLoadConfiguration!.androidAdaptiveLoadControl!;
+    expect(adaptive.preset, equals('default'));
+    expect(adaptive.memoryScaling, equals(true));
+    expect(platform.loadControlRequest!.preset, equals('podcast'));
+    await player.androidSetLoadControl(
+        loadControl: AndroidLoadControl(
+            bufferForPlaybackDuration: const Duration(seconds: 1)));
+    expect(platform.loadControlRequest!.preset, isNull);
+    expect(platform.loadControlRequest!.loadControl!.bufferForPlaybackDuration,
+        equals(const Duration(seconds: 1)));
+    await player.dispose();
+  });
+
+  test('androidLoadErrorPolicy', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidLoadErrorPolicy: AndroidLoadErrorPolicy(maxRetries: 5),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final policy =
+        mock.mostRecentPlayer!.audioLoadConfiguration!.androidLoadErrorPolicy!;
+    expect(policy.maxRetries, equals(5));
+    expect(policy.initialRetryDelay, equals(const Duration(milliseconds: 500)));
+    expect(policy.maxRetryDelay, equals(const Duration(seconds: 8)));
+    expect(policy.jitter, equals(0.2));
+    expect(policy.maxItemRetries, equals(3));
+    expect(policy.maxSkippedItems, equals(5));
+    await player.dispose();
+  });
+
+  test('androidLoadErrorPolicy default retries', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidLoadErrorPolicy: AndroidLoadErrorPolicy(maxItemRetries: 1),
+      ),
+    );
+    await player.setUrl('https://foo.foo/foo.mp3');
+    final policy =
+        mock.mostRecentPlayer!.audioLoadConfiguration!.androidLoadErrorPolicy!;
+    expect(policy.maxRetries, isNull);
+    expect(policy.toMap()['maxRetries'], isNull);
+    await player.dispose();
+  });
+
+  test('AudioDownloadManager', () async {
+    final manager = await AudioDownloadManager.init(
+        maxBytes: 1000000, ignoredQueryParameters: ['token']);
+    final platform = mock.downloadManager!;
+    expect(platform.initRequest!.ignoredQueryParameters, equals(['token']));
+    expect(platform.initRequest!.maxBytes, equals(1000000));
+    expect(platform.initRequest!.maxParallelDownloads, equals(3));
+    final downloads = manager.downloadStream.take(2).toList();
+    await manager.addDownload(
+        'episode1',
+        ProgressiveAudioSource(Uri.parse('https://foo.foo/foo.mp3?token=1'),
+            cacheKey: 'foo'));
+    await manager.addDownload(
+        'episode2',
+        HlsAudioSource(Uri.parse('https://foo.foo/foo.m3u8'),
+            headers: {'Authorization': 'Bearer token'}),
+        userAgent: 'test');
+    expect(platform.addRequests.map((request) => request.type),
+        equals([DownloadType.progressive, DownloadType.hls]));
+    expect(platform.addRequests.map((request) => request.cacheKey),
+        equals(['foo', null]));
+    expect(platform.addRequests[1].headers,
+        equals({'Authorization': 'Bearer token'}));
+    expect(platform.addRequests[1].userAgent, equals('test'));
+    expect((await downloads).map((download) => download.state),
+        equals([DownloadState.queued, DownloadState.queued]));
+    await manager.setPaused(true);
+    expect(platform.paused, equals(true));
+    await manager.removeDownload('episode2');
+    final result = await manager.getDownloads();
+    expect(result.downloads.map((download) => download.id),
+        equals(['episode1']));
+    expect(result.downloads.single.stoppedByQuota, equals(false));
+    expect(result.maxBytes, equals(1000000));
+  });
+
+  test('ignoredQueryParameters', () async {
+    final player = AudioPlayer(
+      audioLoadConfiguration: AudioLoadConfiguration(
+        androidMediaCache: AndroidMediaCache(
+          ignoredQueryParameters: ['token', 'X-Amz-*'],
+        ),
+      ),
+    );
+    await player.setAudioSource(ProgressiveAudioSource(
+        Uri.parse('https://foo.foo/foo.mp3?token=1'),
+        cacheKey: 'foo'));
+    final platform = mock.mostRecentPlayer!;
+    expect(
+        platform.audioLoadConfiguration!.androidMediaCache!
+            .ignoredQueryParameters,
+        equals(['token', 'X-Amz-*']));
+    expect((platform._audioSource as ProgressiveAudioSourceMessage).cacheKey,
+        equals('foo'));
+    await player.dispose();
+  });
+
   test('AndroidLoudnessEnhancer', () async {
     final loudnessEnhancer = AndroidLoudnessEnhancer();
     final player = AudioPlayer(
@@ -1352,13 +1689,94 @@ void runTests() {
       expect(band.gain, equals(i * 0.1));
     }
   });
+
+  test('scale', () async {
+    // Drives many players with large playlists through a scripted workload
+    // and checks call latency percentiles, event delivery and RSS growth.
+    const playerCount = 20;
+    const playlistLength = 10000;
+    const rounds = 10;
+    const burstSize = 100;
+    final random = Random(1001);
+    final latencies = <Duration>[];
+    Future<void> timed(Future<void> Function() call) async {
+      final stopwatch = Stopwatch()..start();
+      await call();
+      latencies.add(stopwatch.elapsed);
+    }
+
+    final rssBefore = ProcessInfo.currentRss;
+    var eventCount = 0;
+    final players = List.generate(playerCount, (i) => AudioPlayer());
+    final subscriptions = [
+      for (var player in players)
+        player.playbackEventStream.listen((event) => eventCount++),
+    ];
+    final playlists = List.generate(
+        playerCount,
+        (i) => ConcatenatingAudioSource(
+              shuffleOrder: DefaultShuffleOrder(random: Random(i)),
+              children: List.generate(playlistLength,
+                  (j) => AudioSource.uri(Uri.parse('https://foo.foo/$i/$j.mp3'))),
+            ));
+    await Future.wait([
+      for (var i = 0; i < playerCount; i++)
+        timed(() => players[i].setAudioSource(playlists[i])),
+    ]);
+    Future<void> runRound(int i, int round) async {
+      final player = players[i];
+      final playlist = playlists[i];
+      for (var k = 0; k < 10; k++) {
+        await timed(() => player.seek(Duration.zero,
+            index: random.nextInt(playlist.length)));
+      }
+      await timed(() => playlist.addAll(List.generate(burstSize,
+          (j) => AudioSource.uri(Uri.parse('https://bar.bar/$i/$round/$j.mp3')))));
+      await timed(() => player.setShuffleModeEnabled(round % 2 == 0));
+    }
+
+    for (var round = 0; round < rounds; round++) {
+      await Future.wait([
+        for (var i = 0; i < playerCount; i++) runRound(i, round),
+      ]);
+    }
+    const length = playlistLength + rounds * burstSize;
+    for (var player in players) {
+      expect(player.sequence!.length, equals(length));
+      checkIndices(player.shuffleIndices!, length);
+      expect(player.currentIndex, lessThan(length));
+    }
+    await Future.wait([
+      for (var player in players) timed(() => player.dispose()),
+    ]);
+    for (var subscription in subscriptions) {
+      await subscription.cancel();
+    }
+
+    latencies.sort();
+    Duration percentile(double p) =>
+        latencies[min(latencies.length - 1, (p * latencies.length).floor())];
+    const maxP99Latency = Duration(seconds: 10);
+    const maxRssGrowth = 512 * 1024 * 1024;
+    expect(percentile(0.99), lessThan(maxP99Latency));
+    expect(eventCount, greaterThan(0));
+    expect(ProcessInfo.currentRss - rssBefore, lessThan(maxRssGrowth));
+  },
+      timeout: const Timeout(Duration(minutes: 5)),
+      // Too slow for the default run.
+      skip: Platform.environment['JUST_AUDIO_SCALE_TEST'] == null
+          ? 'Set JUST_AUDIO_SCALE_TEST=1 to run the scale test'
+          : false);
 }
 
 class MockJustAudio extends Mock
     with MockPlatformInterfaceMixin
     implements JustAudioPlatform {
   MockAudioPlayer? mostRecentPlayer;
+  ConfigurePlayerPoolRequest? playerPoolRequest;
   final _players = <String, MockAudioPlayer>{};
+  final soundEffectPlayers = <String, MockSoundEffectPlayer>{};
+  MockDownloadManager? downloadManager;
 
   @override
   Future<AudioPlayerPlatform> init(InitRequest request) async {
@@ -1390,6 +1808,39 @@ class MockJustAudio extends Mock
     _players.clear();
     return DisposeAllPlayersResponse();
   }
+
+  @override
+  Future<ConfigurePlayerPoolResponse> configurePlayerPool(
+      ConfigurePlayerPoolRequest request) async {
+    playerPoolRequest = request;
+    return ConfigurePlayerPoolResponse();
+  }
+
+  @override
+  Future<SoundEffectPlayerPlatform> initSoundEffectPlayer(
+      InitSoundEffectPlayerRequest request) async {
+    if (soundEffectPlayers.containsKey(request.id)) {
+      throw PlatformException(
+          code: "error",
+          message: "Sound effect player ${request.id} already exists");
+    }
+    final player = MockSoundEffectPlayer(request);
+    soundEffectPlayers[request.id] = player;
+    return player;
+  }
+
+  @override
+  Future<DisposeSoundEffectPlayerResponse> disposeSoundEffectPlayer(
+      DisposeSoundEffectPlayerRequest request) async {
+    soundEffectPlayers.remove(request.id);
+    return DisposeSoundEffectPlayerResponse();
+  }
+
+  @override
+  Future<DownloadManagerPlatform> initDownloadManager(
+      InitDownloadManagerRequest request) async {
+    return (downloadManager ??= MockDownloadManager())..initRequest = request;
+  }
 }
 
 const audioSourceDuration = Duration(minutes: 2);
@@ -1426,6 +1877,8 @@ final icyMetadataMessage = IcyMetadataMessage(
 
 class MockAudioPlayer extends AudioPlayerPlatform {
   final eventController = StreamController<PlaybackEventMessage>();
+  final dataController = StreamController<PlayerDataMessage>();
+  final InitRequest initRequest;
   final AudioLoadConfigurationMessage? audioLoadConfiguration;
   AudioSourceMessage? _audioSource;
   ProcessingStateMessage _processingState = ProcessingStateMessage.idle;
@@ -1439,14 +1892,17 @@ class MockAudioPlayer extends AudioPlayerPlatform {
   Completer<dynamic>? _playCompleter;
   Timer? _playTimer;
   LoopModeMessage _loopMode = LoopModeMessage.off;
+  PreloadRequest? preloadRequest;
+  AndroidSetLoadControlRequest? loadControlRequest;
 
   MockAudioPlayer(InitRequest request)
-      : audioLoadConfiguration = request.audioLoadConfiguration,
+      : initRequest = request,
+        audioLoadConfiguration = request.audioLoadConfiguration,
         super(request.id);
 
   @override
   Stream<PlayerDataMessage> get playerDataMessageStream =>
-      StreamController<PlayerDataMessage>().stream;
+      dataController.stream;
 
   @override
   Stream<PlaybackEventMessage> get playbackEventMessageStream =>
@@ -1718,6 +2174,230 @@ class MockAudioPlayer extends AudioPlayerPlatform {
       AndroidEqualizerBandSetGainRequest request) async {
     return AndroidEqualizerBandSetGainResponse();
   }
+
+  @override
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) async {
+    return AndroidCacheGetStatisticsResponse(
+      statistics: AndroidCacheStatisticsMessage(
+        hitBytes: 1,
+        missBytes: 2,
+        cacheSize: 3,
+        maxCacheSize:
+            audioLoadConfiguration?.androidMediaCache?.maxCacheSize ?? 0,
+      ),
+    );
+  }
+
+  @override
+  Future<AndroidEventChannelGetStatisticsResponse>
+      androidEventChannelGetStatistics(
+          AndroidEventChannelGetStatisticsRequest request) async {
+    return AndroidEventChannelGetStatisticsResponse(
+      emittedCount: 4,
+      suppressedCount: 5,
+    );
+  }
+
+  @override
+  Future<GetMetricsResponse> getMetrics(GetMetricsRequest request) async {
+    return GetMetricsResponse(metrics: metrics);
+  }
+
+  PlaybackMetricsMessage get metrics => PlaybackMetricsMessage(
+        bytesLoaded: 1024,
+        loadDuration: const Duration(milliseconds: 200),
+        sources: {
+          if (_audioSource != null)
+            _audioSource!.id: SourceLoadMetricsMessage(
+              bytesLoaded: 1024,
+              loadDuration: const Duration(milliseconds: 200),
+              loadCount: 1,
+            ),
+        },
+        bandwidthEstimate: 40960,
+        rebufferCount: 1,
+        stalledTime: const Duration(milliseconds: 500),
+        underrunCount: 0,
+        decoderName: 'mock',
+        decoderInitCount: 1,
+        decoderInitDuration: const Duration(milliseconds: 10),
+        format: AudioFormatMessage(
+          mimeType: 'audio/mock',
+          codecs: null,
+          bitrate: 128000,
+          sampleRate: 44100,
+          channelCount: 2,
+        ),
+        loadErrorCount: 2,
+        retryCount: 1,
+        skipCount: 0,
+      );
+
+  @override
+  Future<AndroidMediaSourcesGetStatisticsResponse>
+      androidMediaSourcesGetStatistics(
+          AndroidMediaSourcesGetStatisticsRequest request) async {
+    return AndroidMediaSourcesGetStatisticsResponse(
+      count: 6,
+      evictedCount: 7,
+      heapUsed: 8,
+    );
+  }
+
+  @override
+  Future<AndroidSetLoadControlResponse> androidSetLoadControl(
+      AndroidSetLoadControlRequest request) async {
+    loadControlRequest = request;
+    return AndroidSetLoadControlResponse();
+  }
+
+  @override
+  Future<PreloadResponse> preload(PreloadRequest request) async {
+    preloadRequest = request;
+    for (final id in request.ids ?? <String>[]) {
+      dataController.add(PlayerDataMessage(
+        preloadProgress: PreloadProgressMessage(
+          id: id,
+          bytesCached: request.maxBytes,
+          length: request.maxBytes,
+          completed: true,
+        ),
+      ));
+    }
+    return PreloadResponse();
+  }
+}
+
+class MockSoundEffectPlayer extends SoundEffectPlayerPlatform {
+  final InitSoundEffectPlayerRequest initRequest;
+  final clips = <String>{};
+  final voices = <int, double>{};
+  var _nextVoiceId = 0;
+  var _triggerCount = 0;
+
+  MockSoundEffectPlayer(InitSoundEffectPlayerRequest request)
+      : initRequest = request,
+        super(request.id);
+
+  @override
+  Future<SoundEffectLoadResponse> load(SoundEffectLoadRequest request) async {
+    clips.add(request.uri);
+    return SoundEffectLoadResponse(duration: const Duration(seconds: 1));
+  }
+
+  @override
+  Future<SoundEffectUnloadResponse> unload(
+      SoundEffectUnloadRequest request) async {
+    clips.remove(request.uri);
+    return SoundEffectUnloadResponse();
+  }
+
+  @override
+  Future<SoundEffectPlayResponse> play(SoundEffectPlayRequest request) async {
+    clips.add(request.uri);
+    final voiceId = _nextVoiceId++;
+    voices[voiceId] = request.volume;
+    _triggerCount++;
+    return SoundEffectPlayResponse(voiceId: voiceId);
+  }
+
+  @override
+  Future<SoundEffectStopResponse> stop(SoundEffectStopRequest request) async {
+    if (request.voiceId == null) {
+      voices.clear();
+    } else {
+      voices.remove(request.voiceId);
+    }
+    return SoundEffectStopResponse();
+  }
+
+  @override
+  Future<SoundEffectSetVolumeResponse> setVolume(
+      SoundEffectSetVolumeRequest request) async {
+    voices[request.voiceId] = request.volume;
+    return SoundEffectSetVolumeResponse();
+  }
+
+  @override
+  Future<SoundEffectGetStatisticsResponse> getStatistics(
+      SoundEffectGetStatisticsRequest request) async {
+    return SoundEffectGetStatisticsResponse(
+      triggerCount: _triggerCount,
+      averageLatency: const Duration(milliseconds: 5),
+      maxLatency: const Duration(milliseconds: 10),
+      lastLatency: const Duration(milliseconds: 5),
+      voiceCount: voices.length,
+      clipCount: clips.length,
+      cacheSize: clips.length * 1024,
+    );
+  }
+}
+
+class MockDownloadManager extends DownloadManagerPlatform {
+  final downloadController = StreamController<DownloadMessage>.broadcast();
+  final addRequests = <AddDownloadRequest>[];
+  final _downloads = <String, DownloadMessage>{};
+  InitDownloadManagerRequest? initRequest;
+  var paused = false;
+
+  @override
+  Stream<DownloadMessage> get downloadMessageStream =>
+      downloadController.stream;
+
+  @override
+  Future<AddDownloadResponse> addDownload(AddDownloadRequest request) async {
+    addRequests.add(request);
+    _update(DownloadMessage(
+      id: request.id,
+      uri: request.uri,
+      state: DownloadStateMessage.queued,
+      bytesDownloaded: 0,
+      contentLength: null,
+      percentDownloaded: null,
+      stopReason: 0,
+    ));
+    return AddDownloadResponse();
+  }
+
+  @override
+  Future<RemoveDownloadResponse> removeDownload(
+      RemoveDownloadRequest request) async {
+    final download = _downloads[request.id]!;
+    _update(DownloadMessage(
+      id: download.id,
+      uri: download.uri,
+      state: DownloadStateMessage.removed,
+      bytesDownloaded: 0,
+      contentLength: download.contentLength,
+      percentDownloaded: null,
+      stopReason: 0,
+    ));
+    _downloads.remove(request.id);
+    return RemoveDownloadResponse();
+  }
+
+  @override
+  Future<SetDownloadsPausedResponse> setDownloadsPaused(
+      SetDownloadsPausedRequest request) async {
+    paused = request.paused;
+    return SetDownloadsPausedResponse();
+  }
+
+  @override
+  Future<GetDownloadsResponse> getDownloads(GetDownloadsRequest request) async {
+    return GetDownloadsResponse(
+      downloads: _downloads.values.toList(),
+      downloadedBytes: _downloads.values
+          .fold(0, (total, download) => total + download.bytesDownloaded),
+      maxBytes: initRequest?.maxBytes ?? 0,
+    );
+  }
+
+  void _update(DownloadMessage download) {
+    _downloads[download.id] = download;
+    downloadController.add(download);
+  }
 }
 
 final byteRangeData = List.generate(200, (i) => i);
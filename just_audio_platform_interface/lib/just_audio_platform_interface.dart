@@ -50,6 +50,36 @@ abstract class JustAudioPlatform extends PlatformInterface {
       DisposeAllPlayersRequest request) {
     throw UnimplementedError('disposeAllPlayers() has not been implemented.');
   }
+
+  /// On Android, configures the pool of pre-built players that new players
+  /// are taken from and disposed players are returned to.
+  Future<ConfigurePlayerPoolResponse> configurePlayerPool(
+      ConfigurePlayerPoolRequest request) {
+    throw UnimplementedError('configurePlayerPool() has not been implemented.');
+  }
+
+  /// On Android, creates a new platform sound effect player and returns a
+  /// nested platform interface for communicating with that player.
+  Future<SoundEffectPlayerPlatform> initSoundEffectPlayer(
+      InitSoundEffectPlayerRequest request) {
+    throw UnimplementedError(
+        'initSoundEffectPlayer() has not been implemented.');
+  }
+
+  /// Disposes of a platform sound effect player.
+  Future<DisposeSoundEffectPlayerResponse> disposeSoundEffectPlayer(
+      DisposeSoundEffectPlayerRequest request) {
+    throw UnimplementedError(
+        'disposeSoundEffectPlayer() has not been implemented.');
+  }
+
+  /// On Android, initializes or reconfigures the download manager and returns
+  /// a nested platform interface for managing downloads. Completed downloads
+  /// are played from local storage by all players.
+  Future<DownloadManagerPlatform> initDownloadManager(
+      InitDownloadManagerRequest request) {
+    throw UnimplementedError('initDownloadManager() has not been implemented.');
+  }
 }
 
 /// A nested platform interface for communicating with a particular player
@@ -222,6 +252,123 @@ abstract class AudioPlayerPlatform {
     throw UnimplementedError(
         "androidEqualizerBandSetGain() has not been implemented.");
   }
+
+  /// Gets the Android media cache statistics.
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) {
+    throw UnimplementedError(
+        "androidCacheGetStatistics() has not been implemented.");
+  }
+
+  /// Gets the number of events emitted and suppressed by the Android event
+  /// channel.
+  Future<AndroidEventChannelGetStatisticsResponse>
+      androidEventChannelGetStatistics(
+          AndroidEventChannelGetStatisticsRequest request) {
+    throw UnimplementedError(
+        "androidEventChannelGetStatistics() has not been implemented.");
+  }
+
+  /// Changes the Android buffer targets while the player runs.
+  Future<AndroidSetLoadControlResponse> androidSetLoadControl(
+      AndroidSetLoadControlRequest request) {
+    throw UnimplementedError(
+        "androidSetLoadControl() has not been implemented.");
+  }
+
+  /// Gets the size of the Android registry of decoded audio sources.
+  Future<AndroidMediaSourcesGetStatisticsResponse>
+      androidMediaSourcesGetStatistics(
+          AndroidMediaSourcesGetStatisticsRequest request) {
+    throw UnimplementedError(
+        "androidMediaSourcesGetStatistics() has not been implemented.");
+  }
+
+  /// Preloads the beginning of upcoming audio sources into the media cache.
+  Future<PreloadResponse> preload(PreloadRequest request) {
+    throw UnimplementedError("preload() has not been implemented.");
+  }
+
+  /// Gets the playback quality of service metrics.
+  Future<GetMetricsResponse> getMetrics(GetMetricsRequest request) {
+    throw UnimplementedError("getMetrics() has not been implemented.");
+  }
+}
+
+/// A nested platform interface for communicating with a particular sound
+/// effect player instance.
+///
+/// Platform implementations should extend this class rather than implement
+/// it, for the same reasons as [AudioPlayerPlatform].
+abstract class SoundEffectPlayerPlatform {
+  final String id;
+
+  SoundEffectPlayerPlatform(this.id);
+
+  /// Decodes a clip into the player's cache.
+  Future<SoundEffectLoadResponse> load(SoundEffectLoadRequest request) {
+    throw UnimplementedError("load() has not been implemented.");
+  }
+
+  /// Removes a clip from the player's cache.
+  Future<SoundEffectUnloadResponse> unload(SoundEffectUnloadRequest request) {
+    throw UnimplementedError("unload() has not been implemented.");
+  }
+
+  /// Starts a new voice playing a clip.
+  Future<SoundEffectPlayResponse> play(SoundEffectPlayRequest request) {
+    throw UnimplementedError("play() has not been implemented.");
+  }
+
+  /// Stops a voice, or all voices.
+  Future<SoundEffectStopResponse> stop(SoundEffectStopRequest request) {
+    throw UnimplementedError("stop() has not been implemented.");
+  }
+
+  /// Changes the volume of a voice.
+  Future<SoundEffectSetVolumeResponse> setVolume(
+      SoundEffectSetVolumeRequest request) {
+    throw UnimplementedError("setVolume() has not been implemented.");
+  }
+
+  /// Gets the trigger latency and cache statistics.
+  Future<SoundEffectGetStatisticsResponse> getStatistics(
+      SoundEffectGetStatisticsRequest request) {
+    throw UnimplementedError("getStatistics() has not been implemented.");
+  }
+}
+
+/// A nested platform interface for managing downloads.
+///
+/// Platform implementations should extend this class rather than implement
+/// it, for the same reasons as [AudioPlayerPlatform].
+abstract class DownloadManagerPlatform {
+  /// A stream of download state changes and progress updates.
+  Stream<DownloadMessage> get downloadMessageStream {
+    throw UnimplementedError(
+        'downloadMessageStream has not been implemented.');
+  }
+
+  /// Adds a download, or restarts a failed or removed one with the same id.
+  Future<AddDownloadResponse> addDownload(AddDownloadRequest request) {
+    throw UnimplementedError("addDownload() has not been implemented.");
+  }
+
+  /// Removes a download and deletes its downloaded data.
+  Future<RemoveDownloadResponse> removeDownload(RemoveDownloadRequest request) {
+    throw UnimplementedError("removeDownload() has not been implemented.");
+  }
+
+  /// Pauses or resumes all downloads.
+  Future<SetDownloadsPausedResponse> setDownloadsPaused(
+      SetDownloadsPausedRequest request) {
+    throw UnimplementedError("setDownloadsPaused() has not been implemented.");
+  }
+
+  /// Gets all downloads and the storage they use.
+  Future<GetDownloadsResponse> getDownloads(GetDownloadsRequest request) {
+    throw UnimplementedError("getDownloads() has not been implemented.");
+  }
 }
 
 /// A data update communicated from the platform implementation to the Flutter
@@ -236,6 +383,9 @@ class PlayerDataMessage {
   final double? pitch;
   final LoopModeMessage? loopMode;
   final ShuffleModeMessage? shuffleMode;
+  final PreloadProgressMessage? preloadProgress;
+  final TimingRecordMessage? timing;
+  final PlaybackMetricsMessage? metrics;
   // TODO: Eventually move other state here?
   // bufferedPosition, androidAudioSessionId, icyMetadata
 
@@ -246,6 +396,9 @@ class PlayerDataMessage {
     this.pitch,
     this.loopMode,
     this.shuffleMode,
+    this.preloadProgress,
+    this.timing,
+    this.metrics,
   });
 
   static PlayerDataMessage fromMap(Map<dynamic, dynamic> map) =>
@@ -260,6 +413,96 @@ class PlayerDataMessage {
         shuffleMode: map['shuffleMode'] != null
             ? ShuffleModeMessage.values[map['shuffleMode'] as int]
             : null,
+        preloadProgress: map['preloadProgress'] != null
+            ? PreloadProgressMessage.fromMap(
+                map['preloadProgress'] as Map<dynamic, dynamic>)
+            : null,
+        timing: map['timing'] != null
+            ? TimingRecordMessage.fromMap(map['timing'] as Map<dynamic, dynamic>)
+            : null,
+        metrics: map['metrics'] != null
+            ? PlaybackMetricsMessage.fromMap(
+                map['metrics'] as Map<dynamic, dynamic>)
+            : null,
+      );
+}
+
+/// A measurement of how long a stage of playback took, communicated from the
+/// platform implementation to the Flutter plugin.
+///
+/// The [type] is one of:
+///
+/// * `load`: from loading to the player first becoming ready.
+/// * `connection`: from opening a data source to its connection being open.
+/// * `firstByte`: from opening a data source to its first byte being read.
+/// * `prepare`: from the first byte of an item to its tracks being known.
+/// * `firstFrame`: from play to the first audio frame being played out.
+/// * `seek`: from a seek request to the seek completing.
+/// * `rebuffer`: from a stall during playback to playback resuming.
+class TimingRecordMessage {
+  final String type;
+
+  /// The id of the audio source this record applies to, if known.
+  final String? id;
+
+  /// The start time on a monotonic clock.
+  final Duration startTime;
+
+  /// The end time on the same monotonic clock as [startTime].
+  final Duration endTime;
+
+  /// For `connection` and `firstByte` records, whether the data source is a
+  /// network source.
+  final bool? network;
+
+  TimingRecordMessage({
+    required this.type,
+    required this.id,
+    required this.startTime,
+    required this.endTime,
+    this.network,
+  });
+
+  Duration get duration => endTime - startTime;
+
+  static TimingRecordMessage fromMap(Map<dynamic, dynamic> map) =>
+      TimingRecordMessage(
+        type: map['type'] as String,
+        id: map['id'] as String?,
+        startTime: Duration(microseconds: map['startTime'] as int),
+        endTime: Duration(microseconds: map['endTime'] as int),
+        network: map['network'] as bool?,
+      );
+}
+
+/// The progress of a preload communicated from the platform implementation to
+/// the Flutter plugin.
+class PreloadProgressMessage {
+  /// The id of the audio source being preloaded.
+  final String id;
+
+  /// The number of bytes of the requested range that are now cached.
+  final int bytesCached;
+
+  /// The number of bytes requested, or -1 if unknown.
+  final int length;
+
+  /// Whether the preload has finished successfully.
+  final bool completed;
+
+  PreloadProgressMessage({
+    required this.id,
+    required this.bytesCached,
+    required this.length,
+    required this.completed,
+  });
+
+  static PreloadProgressMessage fromMap(Map<dynamic, dynamic> map) =>
+      PreloadProgressMessage(
+        id: map['id'] as String,
+        bytesCached: map['bytesCached'] as int,
+        length: map['length'] as int,
+        completed: map['completed'] as bool,
       );
 }
 
@@ -390,12 +633,33 @@ class InitRequest {
   final List<AudioEffectMessage> darwinAudioEffects;
   final bool? androidOffloadSchedulingEnabled;
 
+  /// (Android) Whether playback events should be sent in the compact binary
+  /// delta encoding instead of via the standard message codec.
+  final bool? androidBinaryPlaybackEvents;
+
+  /// (Android) If set, a playback event that follows the previous one within
+  /// this window is deferred to the end of the window and merged with any
+  /// later events. Completed and idle states are always sent immediately.
+  final Duration? androidEventCoalescingWindow;
+
+  /// (Android) Whether the player and its method call handling should run on
+  /// a dedicated thread instead of the platform thread.
+  final bool? androidPlayerThreadEnabled;
+
+  /// (Android) If set, a snapshot of the playback metrics is sent via
+  /// [PlayerDataMessage.metrics] at this interval.
+  final Duration? androidMetricsSnapshotInterval;
+
   InitRequest({
     required this.id,
     this.audioLoadConfiguration,
     this.androidAudioEffects = const [],
     this.darwinAudioEffects = const [],
     this.androidOffloadSchedulingEnabled,
+    this.androidBinaryPlaybackEvents,
+    this.androidEventCoalescingWindow,
+    this.androidPlayerThreadEnabled,
+    this.androidMetricsSnapshotInterval,
   });
 
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -408,6 +672,12 @@ class InitRequest {
             .map((audioEffect) => audioEffect.toMap())
             .toList(),
         'androidOffloadSchedulingEnabled': androidOffloadSchedulingEnabled,
+        'androidBinaryPlaybackEvents': androidBinaryPlaybackEvents,
+        'androidEventCoalescingWindow':
+            androidEventCoalescingWindow?.inMicroseconds,
+        'androidPlayerThreadEnabled': androidPlayerThreadEnabled,
+        'androidMetricsSnapshotInterval':
+            androidMetricsSnapshotInterval?.inMicroseconds,
       };
 }
 
@@ -445,6 +715,39 @@ class DisposeAllPlayersResponse {
       DisposeAllPlayersResponse();
 }
 
+/// Information communicated to the platform implementation when configuring
+/// the player pool.
+class ConfigurePlayerPoolRequest {
+  /// The number of players to build ahead of time.
+  final int size;
+
+  /// The maximum number of idle players to keep.
+  final int maxIdleCount;
+
+  /// How long an idle player is kept before it is released, or `null` to keep
+  /// idle players indefinitely.
+  final Duration? idleTimeout;
+
+  ConfigurePlayerPoolRequest({
+    required this.size,
+    required this.maxIdleCount,
+    this.idleTimeout,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'size': size,
+        'maxIdleCount': maxIdleCount,
+        'idleTimeout': idleTimeout?.inMicroseconds,
+      };
+}
+
+/// Information returned by the platform implementation after configuring the
+/// player pool.
+class ConfigurePlayerPoolResponse {
+  static ConfigurePlayerPoolResponse fromMap(Map<dynamic, dynamic> map) =>
+      ConfigurePlayerPoolResponse();
+}
+
 /// Information communicated to the platform implementation when loading an
 /// audio source.
 class LoadRequest {
@@ -700,6 +1003,35 @@ class SetPreferredPeakBitRateResponse {
       SetPreferredPeakBitRateResponse();
 }
 
+/// Information communicated to the platform implementation when preloading
+/// audio sources into the media cache.
+class PreloadRequest {
+  /// The ids of the audio sources to preload.
+  final List<String>? ids;
+
+  /// The number of items following the current item in playback order to
+  /// preload.
+  final int? count;
+
+  /// The number of bytes to preload from the start of each audio source.
+  final int maxBytes;
+
+  PreloadRequest({this.ids, this.count, required this.maxBytes});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'ids': ids,
+        'count': count,
+        'maxBytes': maxBytes,
+      };
+}
+
+/// Information returned by the platform implementation after scheduling
+/// preloads.
+class PreloadResponse {
+  static PreloadResponse fromMap(Map<dynamic, dynamic> map) =>
+      PreloadResponse();
+}
+
 /// Information communicated to the platform implementation when seeking to a
 /// position and index.
 class SeekRequest {
@@ -854,11 +1186,41 @@ class AudioLoadConfigurationMessage {
   final DarwinLoadControlMessage? darwinLoadControl;
   final AndroidLoadControlMessage? androidLoadControl;
   final AndroidLivePlaybackSpeedControlMessage? androidLivePlaybackSpeedControl;
+  final AndroidMediaCacheMessage? androidMediaCache;
+  final AndroidBufferedPositionUpdatesMessage? androidBufferedPositionUpdates;
+
+  /// (Android) Whether local files and media cache files should be read
+  /// through memory mapped windows.
+  final bool? androidMemoryMappedFiles;
+
+  /// (Android) Whether seek indexes of MP3 files should be built and stored
+  /// on disk so that later seeks within the same files are exact.
+  final bool? androidSeekIndexCache;
+
+  /// (Android) If set, buffer targets can be changed while the player runs
+  /// via [AudioPlayerPlatform.androidSetLoadControl].
+  final AndroidAdaptiveLoadControlMessage? androidAdaptiveLoadControl;
+
+  /// (Android) How load errors are retried. If `null`, a default policy is
+  /// used.
+  final AndroidLoadErrorPolicyMessage? androidLoadErrorPolicy;
+
+  /// (Android) Whether startup, seek and rebuffer timings should be reported
+  /// in [PlayerDataMessage.timing]. Timing every data source has a cost, so
+  /// this is off by default.
+  final bool? androidPlaybackTimings;
 
   const AudioLoadConfigurationMessage({
     required this.darwinLoadControl,
     required this.androidLoadControl,
     required this.androidLivePlaybackSpeedControl,
+    this.androidMediaCache,
+    this.androidBufferedPositionUpdates,
+    this.androidMemoryMappedFiles,
+    this.androidSeekIndexCache,
+    this.androidAdaptiveLoadControl,
+    this.androidLoadErrorPolicy,
+    this.androidPlaybackTimings,
   });
 
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -866,6 +1228,97 @@ class AudioLoadConfigurationMessage {
         'androidLoadControl': androidLoadControl?.toMap(),
         'androidLivePlaybackSpeedControl':
             androidLivePlaybackSpeedControl?.toMap(),
+        'androidMediaCache': androidMediaCache?.toMap(),
+        'androidBufferedPositionUpdates':
+            androidBufferedPositionUpdates?.toMap(),
+        'androidMemoryMappedFiles': androidMemoryMappedFiles,
+        'androidSeekIndexCache': androidSeekIndexCache,
+        'androidAdaptiveLoadControl': androidAdaptiveLoadControl?.toMap(),
+        'androidLoadErrorPolicy': androidLoadErrorPolicy?.toMap(),
+        'androidPlaybackTimings': androidPlaybackTimings,
+      };
+}
+
+class AndroidLoadErrorPolicyMessage {
+  /// (Android) The number of times a failed request is retried before the
+  /// load fails, or `null` to keep ExoPlayer's defaults of 3 retries, or 6
+  /// for progressive live streams.
+  final int? maxRetries;
+
+  /// (Android) The delay before the first retry. Each further retry doubles
+  /// the delay.
+  final Duration initialRetryDelay;
+
+  /// (Android) The maximum delay between retries.
+  final Duration maxRetryDelay;
+
+  /// (Android) The fraction of each delay by which it is randomly lengthened
+  /// or shortened.
+  final double jitter;
+
+  /// (Android) The number of times an item that failed to load is prepared
+  /// again at its last position before skipping to the next item.
+  final int maxItemRetries;
+
+  /// (Android) The number of failed items that are skipped after a load
+  /// before playback stops at the next failed item.
+  final int maxSkippedItems;
+
+  const AndroidLoadErrorPolicyMessage({
+    this.maxRetries,
+    this.initialRetryDelay = const Duration(milliseconds: 500),
+    this.maxRetryDelay = const Duration(seconds: 8),
+    this.jitter = 0.2,
+    this.maxItemRetries = 3,
+    this.maxSkippedItems = 5,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxRetries': maxRetries,
+        'initialRetryDelay': initialRetryDelay.inMicroseconds,
+        'maxRetryDelay': maxRetryDelay.inMicroseconds,
+        'jitter': jitter,
+        'maxItemRetries': maxItemRetries,
+        'maxSkippedItems': maxSkippedItems,
+      };
+}
+
+/// The names of the Android load control presets.
+class AndroidLoadControlPreset {
+  /// The default ExoPlayer buffer targets.
+  static const standard = 'default';
+
+  /// A short buffer capped at 4MB with no back buffer.
+  static const lowMemory = 'lowMemory';
+
+  /// Starts playback once 500ms of audio is buffered.
+  static const lowLatencyStart = 'lowLatencyStart';
+
+  /// Buffers up to 5 minutes ahead, prioritizing time over size.
+  static const podcast = 'podcast';
+
+  /// A short buffer suited to following the live edge.
+  static const live = 'live';
+}
+
+class AndroidAdaptiveLoadControlMessage {
+  /// (Android) The initial [AndroidLoadControlPreset]. If `null`, the initial
+  /// targets are taken from [AudioLoadConfigurationMessage.androidLoadControl]
+  /// if set, or the default preset otherwise.
+  final String? preset;
+
+  /// (Android) Whether to scale the target buffer size by the device's memory
+  /// class and reduce it temporarily under memory pressure.
+  final bool memoryScaling;
+
+  const AndroidAdaptiveLoadControlMessage({
+    this.preset,
+    this.memoryScaling = false,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'preset': preset,
+        'memoryScaling': memoryScaling,
       };
 }
 
@@ -1008,6 +1461,51 @@ class AndroidLivePlaybackSpeedControlMessage {
       };
 }
 
+class AndroidMediaCacheMessage {
+  /// (Android) The maximum size in bytes of the on-disk media cache. The cache
+  /// is shared by all players, and least recently used content is evicted
+  /// once this size is exceeded.
+  final int maxCacheSize;
+
+  /// (Android) The names of query parameters to leave out of cache keys, such
+  /// as the tokens of signed URLs, so that the same media is cached once when
+  /// its URL changes. A name ending in `*` matches every parameter starting
+  /// with the rest of the name. Players sharing the cache should use the same
+  /// names.
+  final List<String> ignoredQueryParameters;
+
+  AndroidMediaCacheMessage({
+    required this.maxCacheSize,
+    this.ignoredQueryParameters = const [],
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxCacheSize': maxCacheSize,
+        'ignoredQueryParameters': ignoredQueryParameters,
+      };
+}
+
+class AndroidBufferedPositionUpdatesMessage {
+  /// (Android) The minimum interval between buffered position updates while
+  /// the player is loading. No updates are sent while the player is not
+  /// loading.
+  final Duration minUpdateInterval;
+
+  /// (Android) The amount by which the buffered position must change before
+  /// an update is sent.
+  final Duration minUpdateDelta;
+
+  AndroidBufferedPositionUpdatesMessage({
+    required this.minUpdateInterval,
+    required this.minUpdateDelta,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'minUpdateInterval': minUpdateInterval.inMicroseconds,
+        'minUpdateDelta': minUpdateDelta.inMicroseconds,
+      };
+}
+
 /// Information about an audio source to be communicated with the platform
 /// implementation.
 abstract class AudioSourceMessage {
@@ -1033,10 +1531,16 @@ abstract class UriAudioSourceMessage extends IndexedAudioSourceMessage {
   final String uri;
   final Map<String, String>? headers;
 
+  /// The user agent for HTTP requests, or `null` for the default. Platform
+  /// implementations that apply [headers] and [userAgent] natively do not
+  /// need requests to be routed through a local proxy.
+  final String? userAgent;
+
   UriAudioSourceMessage({
     required String id,
     required this.uri,
     this.headers,
+    this.userAgent,
     dynamic tag,
   }) : super(id: id, tag: tag);
 }
@@ -1044,12 +1548,23 @@ abstract class UriAudioSourceMessage extends IndexedAudioSourceMessage {
 /// Information about a progressive audio source to be communicated with the
 /// platform implementation.
 class ProgressiveAudioSourceMessage extends UriAudioSourceMessage {
+  /// The MIME type of the container format, if known.
+  final String? mimeType;
+
+  /// The key under which the media is cached and downloaded, or `null` to
+  /// derive it from [uri].
+  final String? cacheKey;
+
   ProgressiveAudioSourceMessage({
     required String id,
     required String uri,
     Map<String, String>? headers,
+    String? userAgent,
+    this.mimeType,
+    this.cacheKey,
     dynamic tag,
-  }) : super(id: id, uri: uri, headers: headers, tag: tag);
+  }) : super(
+            id: id, uri: uri, headers: headers, userAgent: userAgent, tag: tag);
 
   @override
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -1057,6 +1572,9 @@ class ProgressiveAudioSourceMessage extends UriAudioSourceMessage {
         'id': id,
         'uri': uri,
         'headers': headers,
+        'userAgent': userAgent,
+        'mimeType': mimeType,
+        'cacheKey': cacheKey,
       };
 }
 
@@ -1067,8 +1585,10 @@ class DashAudioSourceMessage extends UriAudioSourceMessage {
     required String id,
     required String uri,
     Map<String, String>? headers,
+    String? userAgent,
     dynamic tag,
-  }) : super(id: id, uri: uri, headers: headers, tag: tag);
+  }) : super(
+            id: id, uri: uri, headers: headers, userAgent: userAgent, tag: tag);
 
   @override
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -1076,6 +1596,7 @@ class DashAudioSourceMessage extends UriAudioSourceMessage {
         'id': id,
         'uri': uri,
         'headers': headers,
+        'userAgent': userAgent,
       };
 }
 
@@ -1086,8 +1607,10 @@ class HlsAudioSourceMessage extends UriAudioSourceMessage {
     required String id,
     required String uri,
     Map<String, String>? headers,
+    String? userAgent,
     dynamic tag,
-  }) : super(id: id, uri: uri, headers: headers, tag: tag);
+  }) : super(
+            id: id, uri: uri, headers: headers, userAgent: userAgent, tag: tag);
 
   @override
   Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
@@ -1095,6 +1618,7 @@ class HlsAudioSourceMessage extends UriAudioSourceMessage {
         'id': id,
         'uri': uri,
         'headers': headers,
+        'userAgent': userAgent,
       };
 }
 
@@ -1283,6 +1807,309 @@ class AndroidEqualizerBandSetGainResponse {
       AndroidEqualizerBandSetGainResponse();
 }
 
+/// Information communicated to the platform implementation when requesting the
+/// event channel statistics.
+class AndroidEventChannelGetStatisticsRequest {
+  AndroidEventChannelGetStatisticsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after requesting the
+/// event channel statistics.
+class AndroidEventChannelGetStatisticsResponse {
+  /// The number of events sent to the Flutter plugin.
+  final int emittedCount;
+
+  /// The number of events dropped as duplicates or merged into later events.
+  final int suppressedCount;
+
+  AndroidEventChannelGetStatisticsResponse({
+    required this.emittedCount,
+    required this.suppressedCount,
+  });
+
+  static AndroidEventChannelGetStatisticsResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidEventChannelGetStatisticsResponse(
+        emittedCount: map['emittedCount'] as int,
+        suppressedCount: map['suppressedCount'] as int,
+      );
+}
+
+/// Information communicated to the platform implementation when changing the
+/// Android buffer targets. Exactly one of [preset] and [loadControl] should be
+/// set.
+class AndroidSetLoadControlRequest {
+  /// The name of an [AndroidLoadControlPreset].
+  final String? preset;
+
+  /// Explicit buffer targets.
+  final AndroidLoadControlMessage? loadControl;
+
+  AndroidSetLoadControlRequest({this.preset, this.loadControl});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'preset': preset,
+        'loadControl': loadControl?.toMap(),
+      };
+}
+
+/// Information returned by the platform implementation after changing the
+/// Android buffer targets.
+class AndroidSetLoadControlResponse {
+  static AndroidSetLoadControlResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidSetLoadControlResponse();
+}
+
+/// Information communicated to the platform implementation when requesting the
+/// audio source registry statistics.
+class AndroidMediaSourcesGetStatisticsRequest {
+  AndroidMediaSourcesGetStatisticsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after requesting the
+/// audio source registry statistics.
+class AndroidMediaSourcesGetStatisticsResponse {
+  /// The number of audio sources currently held by the registry.
+  final int count;
+
+  /// The number of audio sources released since the player was created
+  /// because they were no longer part of the loaded audio source.
+  final int evictedCount;
+
+  /// The number of bytes of Java heap in use by the app process.
+  final int heapUsed;
+
+  AndroidMediaSourcesGetStatisticsResponse({
+    required this.count,
+    required this.evictedCount,
+    required this.heapUsed,
+  });
+
+  static AndroidMediaSourcesGetStatisticsResponse fromMap(
+          Map<dynamic, dynamic> map) =>
+      AndroidMediaSourcesGetStatisticsResponse(
+        count: map['count'] as int,
+        evictedCount: map['evictedCount'] as int,
+        heapUsed: map['heapUsed'] as int,
+      );
+}
+
+/// Information communicated to the platform implementation when requesting the
+/// playback metrics.
+class GetMetricsRequest {
+  GetMetricsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after requesting the
+/// playback metrics.
+class GetMetricsResponse {
+  final PlaybackMetricsMessage metrics;
+
+  GetMetricsResponse({required this.metrics});
+
+  static GetMetricsResponse fromMap(Map<dynamic, dynamic> map) =>
+      GetMetricsResponse(
+          metrics: PlaybackMetricsMessage.fromMap(
+              map['metrics'] as Map<dynamic, dynamic>));
+}
+
+/// Playback quality of service metrics aggregated over the lifetime of a
+/// player.
+class PlaybackMetricsMessage {
+  /// The total number of bytes loaded.
+  final int bytesLoaded;
+
+  /// The total time spent loading.
+  final Duration loadDuration;
+
+  /// The loads of each audio source, by audio source id.
+  final Map<String, SourceLoadMetricsMessage> sources;
+
+  /// The estimated bandwidth in bits per second, if known.
+  final int? bandwidthEstimate;
+
+  /// The number of times playback stalled to rebuffer.
+  final int rebufferCount;
+
+  /// The total time spent stalled.
+  final Duration stalledTime;
+
+  /// The number of audio output underruns.
+  final int underrunCount;
+
+  /// The name of the last audio decoder initialized.
+  final String? decoderName;
+
+  /// The number of times an audio decoder was initialized.
+  final int decoderInitCount;
+
+  /// The total time spent initializing audio decoders.
+  final Duration decoderInitDuration;
+
+  /// The audio format currently being decoded.
+  final AudioFormatMessage? format;
+
+  /// The number of failed load requests, including those that were retried.
+  final int loadErrorCount;
+
+  /// The number of times an item was prepared again after a player error.
+  final int retryCount;
+
+  /// The number of items skipped after running out of retries.
+  final int skipCount;
+
+  PlaybackMetricsMessage({
+    required this.bytesLoaded,
+    required this.loadDuration,
+    required this.sources,
+    required this.bandwidthEstimate,
+    required this.rebufferCount,
+    required this.stalledTime,
+    required this.underrunCount,
+    required this.decoderName,
+    required this.decoderInitCount,
+    required this.decoderInitDuration,
+    required this.format,
+    required this.loadErrorCount,
+    required this.retryCount,
+    required this.skipCount,
+  });
+
+  static PlaybackMetricsMessage fromMap(Map<dynamic, dynamic> map) =>
+      PlaybackMetricsMessage(
+        bytesLoaded: map['bytesLoaded'] as int,
+        loadDuration: Duration(microseconds: map['loadDuration'] as int),
+        sources: (map['sources'] as Map<dynamic, dynamic>).map(
+            (dynamic id, dynamic sourceMap) => MapEntry(
+                id as String,
+                SourceLoadMetricsMessage.fromMap(
+                    sourceMap as Map<dynamic, dynamic>))),
+        bandwidthEstimate: map['bandwidthEstimate'] as int?,
+        rebufferCount: map['rebufferCount'] as int,
+        stalledTime: Duration(microseconds: map['stalledTime'] as int),
+        underrunCount: map['underrunCount'] as int,
+        decoderName: map['decoderName'] as String?,
+        decoderInitCount: map['decoderInitCount'] as int,
+        decoderInitDuration:
+            Duration(microseconds: map['decoderInitDuration'] as int),
+        format: map['format'] != null
+            ? AudioFormatMessage.fromMap(map['format'] as Map<dynamic, dynamic>)
+            : null,
+        loadErrorCount: map['loadErrorCount'] as int,
+        retryCount: map['retryCount'] as int,
+        skipCount: map['skipCount'] as int,
+      );
+}
+
+/// The loads of a single audio source.
+class SourceLoadMetricsMessage {
+  final int bytesLoaded;
+  final Duration loadDuration;
+  final int loadCount;
+
+  SourceLoadMetricsMessage({
+    required this.bytesLoaded,
+    required this.loadDuration,
+    required this.loadCount,
+  });
+
+  static SourceLoadMetricsMessage fromMap(Map<dynamic, dynamic> map) =>
+      SourceLoadMetricsMessage(
+        bytesLoaded: map['bytesLoaded'] as int,
+        loadDuration: Duration(microseconds: map['loadDuration'] as int),
+        loadCount: map['loadCount'] as int,
+      );
+}
+
+/// A selected audio format.
+class AudioFormatMessage {
+  final String? mimeType;
+  final String? codecs;
+
+  /// The bitrate in bits per second, if known.
+  final int? bitrate;
+  final int? sampleRate;
+  final int? channelCount;
+
+  AudioFormatMessage({
+    required this.mimeType,
+    required this.codecs,
+    required this.bitrate,
+    required this.sampleRate,
+    required this.channelCount,
+  });
+
+  static AudioFormatMessage fromMap(Map<dynamic, dynamic> map) =>
+      AudioFormatMessage(
+        mimeType: map['mimeType'] as String?,
+        codecs: map['codecs'] as String?,
+        bitrate: map['bitrate'] as int?,
+        sampleRate: map['sampleRate'] as int?,
+        channelCount: map['channelCount'] as int?,
+      );
+}
+
+/// Information communicated to the platform implementation when requesting the
+/// media cache statistics.
+class AndroidCacheGetStatisticsRequest {
+  AndroidCacheGetStatisticsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation after requesting the
+/// media cache statistics.
+class AndroidCacheGetStatisticsResponse {
+  /// The statistics, or `null` if the media cache is not enabled.
+  final AndroidCacheStatisticsMessage? statistics;
+
+  AndroidCacheGetStatisticsResponse({required this.statistics});
+
+  static AndroidCacheGetStatisticsResponse fromMap(Map<dynamic, dynamic> map) =>
+      AndroidCacheGetStatisticsResponse(
+        statistics: map['statistics'] == null
+            ? null
+            : AndroidCacheStatisticsMessage.fromMap(
+                map['statistics'] as Map<dynamic, dynamic>),
+      );
+}
+
+/// Media cache statistics communicated from the platform implementation.
+class AndroidCacheStatisticsMessage {
+  /// The number of bytes this player has read from the cache.
+  final int hitBytes;
+
+  /// The number of bytes this player has read from the network.
+  final int missBytes;
+
+  /// The number of bytes currently held in the cache.
+  final int cacheSize;
+
+  /// The maximum number of bytes the cache may hold.
+  final int maxCacheSize;
+
+  AndroidCacheStatisticsMessage({
+    required this.hitBytes,
+    required this.missBytes,
+    required this.cacheSize,
+    required this.maxCacheSize,
+  });
+
+  static AndroidCacheStatisticsMessage fromMap(Map<dynamic, dynamic> map) =>
+      AndroidCacheStatisticsMessage(
+        hitBytes: map['hitBytes'] as int,
+        missBytes: map['missBytes'] as int,
+        cacheSize: map['cacheSize'] as int,
+        maxCacheSize: map['maxCacheSize'] as int,
+      );
+}
+
 /// Information about an audio effect to be communicated with the platform
 /// implementation.
 abstract class AudioEffectMessage {
@@ -1402,3 +2229,439 @@ class AndroidEqualizerMessage extends AudioEffectMessage {
         'parameters': parameters?.toMap(),
       };
 }
+
+/// Information communicated to the platform implementation when creating a
+/// sound effect player.
+class InitSoundEffectPlayerRequest {
+  final String id;
+
+  /// The maximum number of bytes of decoded audio to keep in memory.
+  final int maxCacheSize;
+
+  /// The maximum number of voices that can play at once. Starting a voice
+  /// beyond this limit stops the oldest one.
+  final int maxVoices;
+
+  InitSoundEffectPlayerRequest({
+    required this.id,
+    required this.maxCacheSize,
+    required this.maxVoices,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'id': id,
+        'maxCacheSize': maxCacheSize,
+        'maxVoices': maxVoices,
+      };
+}
+
+/// Information communicated to the platform implementation when disposing of
+/// a sound effect player.
+class DisposeSoundEffectPlayerRequest {
+  final String id;
+
+  DisposeSoundEffectPlayerRequest({required this.id});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'id': id,
+      };
+}
+
+/// Information returned by the platform implementation after disposing of a
+/// sound effect player.
+class DisposeSoundEffectPlayerResponse {
+  static DisposeSoundEffectPlayerResponse fromMap(Map<dynamic, dynamic> map) =>
+      DisposeSoundEffectPlayerResponse();
+}
+
+/// Information communicated to the platform implementation when loading a
+/// sound effect clip.
+class SoundEffectLoadRequest {
+  final String uri;
+  final Map<String, String>? headers;
+
+  SoundEffectLoadRequest({required this.uri, this.headers});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'uri': uri,
+        'headers': headers,
+      };
+}
+
+/// Information returned by the platform implementation after loading a sound
+/// effect clip.
+class SoundEffectLoadResponse {
+  final Duration duration;
+
+  SoundEffectLoadResponse({required this.duration});
+
+  static SoundEffectLoadResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectLoadResponse(
+          duration: Duration(microseconds: map['duration'] as int));
+}
+
+/// Information communicated to the platform implementation when unloading a
+/// sound effect clip.
+class SoundEffectUnloadRequest {
+  final String uri;
+
+  SoundEffectUnloadRequest({required this.uri});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'uri': uri,
+      };
+}
+
+/// Information returned by the platform implementation after unloading a
+/// sound effect clip.
+class SoundEffectUnloadResponse {
+  static SoundEffectUnloadResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectUnloadResponse();
+}
+
+/// Information communicated to the platform implementation when playing a
+/// sound effect clip.
+class SoundEffectPlayRequest {
+  final String uri;
+  final Map<String, String>? headers;
+  final double volume;
+  final bool loop;
+
+  SoundEffectPlayRequest({
+    required this.uri,
+    this.headers,
+    this.volume = 1.0,
+    this.loop = false,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'uri': uri,
+        'headers': headers,
+        'volume': volume,
+        'loop': loop,
+      };
+}
+
+/// Information returned by the platform implementation after starting a
+/// sound effect voice.
+class SoundEffectPlayResponse {
+  final int voiceId;
+
+  SoundEffectPlayResponse({required this.voiceId});
+
+  static SoundEffectPlayResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectPlayResponse(voiceId: map['voiceId'] as int);
+}
+
+/// Information communicated to the platform implementation when stopping a
+/// sound effect voice.
+class SoundEffectStopRequest {
+  /// The voice to stop, or `null` to stop all voices.
+  final int? voiceId;
+
+  SoundEffectStopRequest({this.voiceId});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'voiceId': voiceId,
+      };
+}
+
+/// Information returned by the platform implementation after stopping a sound
+/// effect voice.
+class SoundEffectStopResponse {
+  static SoundEffectStopResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectStopResponse();
+}
+
+/// Information communicated to the platform implementation when setting the
+/// volume of a sound effect voice.
+class SoundEffectSetVolumeRequest {
+  final int voiceId;
+  final double volume;
+
+  SoundEffectSetVolumeRequest({required this.voiceId, required this.volume});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'voiceId': voiceId,
+        'volume': volume,
+      };
+}
+
+/// Information returned by the platform implementation after setting the
+/// volume of a sound effect voice.
+class SoundEffectSetVolumeResponse {
+  static SoundEffectSetVolumeResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectSetVolumeResponse();
+}
+
+/// Information communicated to the platform implementation when getting the
+/// sound effect player statistics.
+class SoundEffectGetStatisticsRequest {
+  SoundEffectGetStatisticsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation with the sound effect
+/// player statistics. Latencies are measured from when a play request reaches
+/// the platform to when the first frame of the voice is expected to be output.
+class SoundEffectGetStatisticsResponse {
+  final int triggerCount;
+  final Duration? averageLatency;
+  final Duration? maxLatency;
+  final Duration? lastLatency;
+  final int voiceCount;
+  final int clipCount;
+  final int cacheSize;
+
+  SoundEffectGetStatisticsResponse({
+    required this.triggerCount,
+    required this.averageLatency,
+    required this.maxLatency,
+    required this.lastLatency,
+    required this.voiceCount,
+    required this.clipCount,
+    required this.cacheSize,
+  });
+
+  static Duration? _duration(dynamic us) =>
+      us == null ? null : Duration(microseconds: us as int);
+
+  static SoundEffectGetStatisticsResponse fromMap(Map<dynamic, dynamic> map) =>
+      SoundEffectGetStatisticsResponse(
+        triggerCount: map['triggerCount'] as int,
+        averageLatency: _duration(map['averageLatency']),
+        maxLatency: _duration(map['maxLatency']),
+        lastLatency: _duration(map['lastLatency']),
+        voiceCount: map['voiceCount'] as int,
+        clipCount: map['clipCount'] as int,
+        cacheSize: map['cacheSize'] as int,
+      );
+}
+
+/// Information communicated to the platform implementation when initializing
+/// the download manager.
+class InitDownloadManagerRequest {
+  /// The maximum number of downloads that run at once.
+  final int maxParallelDownloads;
+
+  /// The number of threads that download the segments of DASH and HLS
+  /// streams in parallel. This is fixed by the first initialization in the
+  /// process.
+  final int maxParallelSegments;
+
+  /// The maximum number of bytes to download, or `null` for no limit. Once
+  /// reached, all downloads are stopped with
+  /// [DownloadMessage.stopReasonQuota] until enough are removed.
+  final int? maxBytes;
+
+  /// How often the progress of running downloads is reported. Must be at
+  /// least 1ms.
+  final Duration progressInterval;
+
+  /// The names of query parameters to leave out of the keys of downloads, in
+  /// the format of [AndroidMediaCacheMessage.ignoredQueryParameters]. Audio
+  /// sources whose URIs differ only in these parameters play the same
+  /// download. Media downloaded before these names change is only found with
+  /// the names it was downloaded with.
+  final List<String> ignoredQueryParameters;
+
+  InitDownloadManagerRequest({
+    this.maxParallelDownloads = 3,
+    this.maxParallelSegments = 4,
+    this.maxBytes,
+    this.progressInterval = const Duration(milliseconds: 500),
+    this.ignoredQueryParameters = const [],
+  }) : assert(progressInterval >= const Duration(milliseconds: 1));
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'maxParallelDownloads': maxParallelDownloads,
+        'maxParallelSegments': maxParallelSegments,
+        'maxBytes': maxBytes,
+        'progressInterval': progressInterval.inMicroseconds,
+        'ignoredQueryParameters': ignoredQueryParameters,
+      };
+}
+
+/// The type of media to download.
+class DownloadType {
+  static const progressive = 'progressive';
+  static const dash = 'dash';
+  static const hls = 'hls';
+}
+
+/// Information communicated to the platform implementation when adding a
+/// download.
+class AddDownloadRequest {
+  final String id;
+
+  /// The URI of the media. Audio sources with this URI, or [cacheKey] if set,
+  /// are played from the download once it completes.
+  final String uri;
+
+  /// The [DownloadType] of the media.
+  final String type;
+
+  /// The key under which progressive media is stored, or `null` to use
+  /// [uri]. A [ProgressiveAudioSourceMessage] with the same
+  /// [ProgressiveAudioSourceMessage.cacheKey] plays the download.
+  final String? cacheKey;
+
+  /// The HTTP headers sent with every request of the download, including
+  /// those for the segments of DASH and HLS streams.
+  final Map<String, String>? headers;
+
+  /// The user agent of the download, or `null` for the default.
+  final String? userAgent;
+
+  AddDownloadRequest({
+    required this.id,
+    required this.uri,
+    required this.type,
+    this.cacheKey,
+    this.headers,
+    this.userAgent,
+  });
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'id': id,
+        'uri': uri,
+        'type': type,
+        'cacheKey': cacheKey,
+        'headers': headers,
+        'userAgent': userAgent,
+      };
+}
+
+/// Information returned by the platform implementation after adding a
+/// download.
+class AddDownloadResponse {
+  static AddDownloadResponse fromMap(Map<dynamic, dynamic> map) =>
+      AddDownloadResponse();
+}
+
+/// Information communicated to the platform implementation when removing a
+/// download.
+class RemoveDownloadRequest {
+  final String id;
+
+  RemoveDownloadRequest({required this.id});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'id': id,
+      };
+}
+
+/// Information returned by the platform implementation after removing a
+/// download.
+class RemoveDownloadResponse {
+  static RemoveDownloadResponse fromMap(Map<dynamic, dynamic> map) =>
+      RemoveDownloadResponse();
+}
+
+/// Information communicated to the platform implementation when pausing or
+/// resuming downloads.
+class SetDownloadsPausedRequest {
+  final bool paused;
+
+  SetDownloadsPausedRequest({required this.paused});
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{
+        'paused': paused,
+      };
+}
+
+/// Information returned by the platform implementation after pausing or
+/// resuming downloads.
+class SetDownloadsPausedResponse {
+  static SetDownloadsPausedResponse fromMap(Map<dynamic, dynamic> map) =>
+      SetDownloadsPausedResponse();
+}
+
+/// Information communicated to the platform implementation when getting the
+/// downloads.
+class GetDownloadsRequest {
+  GetDownloadsRequest();
+
+  Map<dynamic, dynamic> toMap() => <dynamic, dynamic>{};
+}
+
+/// Information returned by the platform implementation with the downloads.
+class GetDownloadsResponse {
+  final List<DownloadMessage> downloads;
+
+  /// The number of bytes of downloaded media stored.
+  final int downloadedBytes;
+
+  /// The maximum number of bytes to download, or 0 for no limit.
+  final int maxBytes;
+
+  GetDownloadsResponse({
+    required this.downloads,
+    required this.downloadedBytes,
+    required this.maxBytes,
+  });
+
+  static GetDownloadsResponse fromMap(Map<dynamic, dynamic> map) =>
+      GetDownloadsResponse(
+        downloads: (map['downloads'] as List<dynamic>)
+            .map((dynamic download) =>
+                DownloadMessage.fromMap(download as Map<dynamic, dynamic>))
+            .toList(),
+        downloadedBytes: map['downloadedBytes'] as int,
+        maxBytes: map['maxBytes'] as int,
+      );
+}
+
+/// The state of a download communicated from the platform implementation.
+class DownloadMessage {
+  /// The [stopReason] of downloads stopped by the storage quota.
+  static const stopReasonQuota = 1;
+
+  final String id;
+  final String uri;
+  final DownloadStateMessage state;
+  final int bytesDownloaded;
+
+  /// The total length of the media in bytes, or `null` if unknown.
+  final int? contentLength;
+
+  /// The percentage downloaded, or `null` if unknown.
+  final double? percentDownloaded;
+
+  /// Why the download is stopped, or 0 if it is not.
+  final int stopReason;
+
+  DownloadMessage({
+    required this.id,
+    required this.uri,
+    required this.state,
+    required this.bytesDownloaded,
+    required this.contentLength,
+    required this.percentDownloaded,
+    required this.stopReason,
+  });
+
+  static DownloadMessage fromMap(Map<dynamic, dynamic> map) => DownloadMessage(
+        id: map['id'] as String,
+        uri: map['uri'] as String,
+        state: DownloadStateMessage.values[map['state'] as int],
+        bytesDownloaded: map['bytesDownloaded'] as int,
+        contentLength: map['contentLength'] as int?,
+        percentDownloaded: map['percentDownloaded'] as double?,
+        stopReason: map['stopReason'] as int,
+      );
+}
+
+/// A download state communicated from the platform implementation. A download
+/// is [removed] once its data has been deleted.
+enum DownloadStateMessage {
+  queued,
+  stopped,
+  downloading,
+  completed,
+  failed,
+  removing,
+  restarting,
+  removed,
+}
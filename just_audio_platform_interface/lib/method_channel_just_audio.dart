@@ -1,4 +1,6 @@
 import 'dart:async';
+import 'dart:convert';
+import 'dart:typed_data';
 
 import 'package:flutter/services.dart';
 
@@ -10,8 +12,12 @@ class MethodChannelJustAudio extends JustAudioPlatform {
 
   @override
   Future<AudioPlayerPlatform> init(InitRequest request) async {
+    // The binary event handler must be registered before the platform player
+    // exists so that no delta is missed.
+    final player = MethodChannelAudioPlayer(request.id,
+        binaryPlaybackEvents: request.androidBinaryPlaybackEvents ?? false);
     await _mainChannel.invokeMethod<void>('init', request.toMap());
-    return MethodChannelAudioPlayer(request.id);
+    return player;
   }
 
   @override
@@ -29,22 +35,179 @@ class MethodChannelJustAudio extends JustAudioPlatform {
         (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
             'disposeAllPlayers', request.toMap()))!);
   }
+
+  @override
+  Future<ConfigurePlayerPoolResponse> configurePlayerPool(
+      ConfigurePlayerPoolRequest request) async {
+    return ConfigurePlayerPoolResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'configurePlayerPool', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectPlayerPlatform> initSoundEffectPlayer(
+      InitSoundEffectPlayerRequest request) async {
+    await _mainChannel.invokeMethod<void>(
+        'initSoundEffectPlayer', request.toMap());
+    return MethodChannelSoundEffectPlayer(request.id);
+  }
+
+  @override
+  Future<DisposeSoundEffectPlayerResponse> disposeSoundEffectPlayer(
+      DisposeSoundEffectPlayerRequest request) async {
+    return DisposeSoundEffectPlayerResponse.fromMap(
+        (await _mainChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'disposeSoundEffectPlayer', request.toMap()))!);
+  }
+
+  @override
+  Future<DownloadManagerPlatform> initDownloadManager(
+      InitDownloadManagerRequest request) async {
+    await _mainChannel.invokeMethod<void>(
+        'initDownloadManager', request.toMap());
+    return MethodChannelDownloadManager();
+  }
+}
+
+/// An implementation of [DownloadManagerPlatform] that uses method channels.
+class MethodChannelDownloadManager extends DownloadManagerPlatform {
+  static const _channel =
+      MethodChannel('com.ryanheise.just_audio.downloads.methods');
+
+  @override
+  Stream<DownloadMessage> get downloadMessageStream =>
+      const EventChannel('com.ryanheise.just_audio.downloads.events')
+          .receiveBroadcastStream()
+          .cast<Map<dynamic, dynamic>>()
+          .map((map) => DownloadMessage.fromMap(map));
+
+  @override
+  Future<AddDownloadResponse> addDownload(AddDownloadRequest request) async {
+    return AddDownloadResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'addDownload', request.toMap()))!);
+  }
+
+  @override
+  Future<RemoveDownloadResponse> removeDownload(
+      RemoveDownloadRequest request) async {
+    return RemoveDownloadResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'removeDownload', request.toMap()))!);
+  }
+
+  @override
+  Future<SetDownloadsPausedResponse> setDownloadsPaused(
+      SetDownloadsPausedRequest request) async {
+    return SetDownloadsPausedResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'setDownloadsPaused', request.toMap()))!);
+  }
+
+  @override
+  Future<GetDownloadsResponse> getDownloads(GetDownloadsRequest request) async {
+    return GetDownloadsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'getDownloads', request.toMap()))!);
+  }
+}
+
+/// An implementation of [SoundEffectPlayerPlatform] that uses method channels.
+class MethodChannelSoundEffectPlayer extends SoundEffectPlayerPlatform {
+  final MethodChannel _channel;
+
+  MethodChannelSoundEffectPlayer(String id)
+      : _channel =
+            MethodChannel('com.ryanheise.just_audio.sound_effects.methods.$id'),
+        super(id);
+
+  @override
+  Future<SoundEffectLoadResponse> load(SoundEffectLoadRequest request) async {
+    return SoundEffectLoadResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'load', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectUnloadResponse> unload(
+      SoundEffectUnloadRequest request) async {
+    return SoundEffectUnloadResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'unload', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectPlayResponse> play(SoundEffectPlayRequest request) async {
+    return SoundEffectPlayResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'play', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectStopResponse> stop(SoundEffectStopRequest request) async {
+    return SoundEffectStopResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'stop', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectSetVolumeResponse> setVolume(
+      SoundEffectSetVolumeRequest request) async {
+    return SoundEffectSetVolumeResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'setVolume', request.toMap()))!);
+  }
+
+  @override
+  Future<SoundEffectGetStatisticsResponse> getStatistics(
+      SoundEffectGetStatisticsRequest request) async {
+    return SoundEffectGetStatisticsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'getStatistics', request.toMap()))!);
+  }
 }
 
 /// An implementation of [AudioPlayerPlatform] that uses method channels.
 class MethodChannelAudioPlayer extends AudioPlayerPlatform {
   final MethodChannel _channel;
+  _BinaryPlaybackEventDecoder? _binaryPlaybackEventDecoder;
 
-  MethodChannelAudioPlayer(String id)
+  MethodChannelAudioPlayer(String id, {bool binaryPlaybackEvents = false})
       : _channel = MethodChannel('com.ryanheise.just_audio.methods.$id'),
-        super(id);
+        super(id) {
+    if (binaryPlaybackEvents) {
+      _binaryPlaybackEventDecoder = _BinaryPlaybackEventDecoder(
+          'com.ryanheise.just_audio.binary_events.$id');
+    }
+  }
 
   @override
-  Stream<PlaybackEventMessage> get playbackEventMessageStream =>
-      EventChannel('com.ryanheise.just_audio.events.$id')
-          .receiveBroadcastStream()
-          .cast<Map<dynamic, dynamic>>()
-          .map((map) => PlaybackEventMessage.fromMap(map));
+  Stream<PlaybackEventMessage> get playbackEventMessageStream {
+    final eventChannelStream =
+        EventChannel('com.ryanheise.just_audio.events.$id')
+            .receiveBroadcastStream()
+            .cast<Map<dynamic, dynamic>>()
+            .map((map) => PlaybackEventMessage.fromMap(map));
+    final decoder = _binaryPlaybackEventDecoder;
+    if (decoder == null) return eventChannelStream;
+    // Playback events arrive on the binary channel while errors still arrive
+    // on the event channel.
+    late StreamController<PlaybackEventMessage> controller;
+    StreamSubscription<PlaybackEventMessage>? binarySubscription;
+    StreamSubscription<PlaybackEventMessage>? eventChannelSubscription;
+    controller = StreamController<PlaybackEventMessage>.broadcast(
+      onListen: () {
+        binarySubscription = decoder.stream.listen(controller.add);
+        eventChannelSubscription = eventChannelStream.listen(controller.add,
+            onError: controller.addError, onDone: controller.close);
+      },
+      onCancel: () {
+        binarySubscription?.cancel();
+        eventChannelSubscription?.cancel();
+      },
+    );
+    return controller.stream;
+  }
 
   @override
   Stream<PlayerDataMessage> get playerDataMessageStream =>
@@ -163,6 +326,7 @@ class MethodChannelAudioPlayer extends AudioPlayerPlatform {
 
   @override
   Future<DisposeResponse> dispose(DisposeRequest request) async {
+    _binaryPlaybackEventDecoder?.dispose();
     return DisposeResponse.fromMap((await _channel
         .invokeMethod<Map<dynamic, dynamic>>('dispose', request.toMap()))!);
   }
@@ -223,4 +387,148 @@ class MethodChannelAudioPlayer extends AudioPlayerPlatform {
         (await _channel.invokeMethod<Map<dynamic, dynamic>>(
             'androidEqualizerBandSetGain', request.toMap()))!);
   }
+
+  @override
+  Future<AndroidCacheGetStatisticsResponse> androidCacheGetStatistics(
+      AndroidCacheGetStatisticsRequest request) async {
+    return AndroidCacheGetStatisticsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidCacheGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidEventChannelGetStatisticsResponse>
+      androidEventChannelGetStatistics(
+          AndroidEventChannelGetStatisticsRequest request) async {
+    return AndroidEventChannelGetStatisticsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidEventChannelGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidSetLoadControlResponse> androidSetLoadControl(
+      AndroidSetLoadControlRequest request) async {
+    return AndroidSetLoadControlResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidSetLoadControl', request.toMap()))!);
+  }
+
+  @override
+  Future<AndroidMediaSourcesGetStatisticsResponse>
+      androidMediaSourcesGetStatistics(
+          AndroidMediaSourcesGetStatisticsRequest request) async {
+    return AndroidMediaSourcesGetStatisticsResponse.fromMap(
+        (await _channel.invokeMethod<Map<dynamic, dynamic>>(
+            'androidMediaSourcesGetStatistics', request.toMap()))!);
+  }
+
+  @override
+  Future<PreloadResponse> preload(PreloadRequest request) async {
+    return PreloadResponse.fromMap((await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('preload', request.toMap()))!);
+  }
+
+  @override
+  Future<GetMetricsResponse> getMetrics(GetMetricsRequest request) async {
+    return GetMetricsResponse.fromMap((await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('getMetrics', request.toMap()))!);
+  }
+}
+
+/// Decodes the compact binary playback events sent by the Android platform
+/// implementation. Each message carries only the fields that changed since
+/// the previous message, so the decoder keeps the last known value of each
+/// field. The layout is documented in PlaybackEventEncoder.java.
+class _BinaryPlaybackEventDecoder {
+  static const _processingState = 0;
+  static const _updatePosition = 1;
+  static const _updateTime = 2;
+  static const _bufferedPosition = 3;
+  static const _duration = 4;
+  static const _currentIndex = 5;
+  static const _androidAudioSessionId = 6;
+  static const _fieldCount = 7;
+  static const _icyMetadata = _fieldCount;
+  // Long.MIN_VALUE
+  static const _null = -0x7FFFFFFFFFFFFFFF - 1;
+
+  final BasicMessageChannel<ByteData> _channel;
+  final _controller = StreamController<PlaybackEventMessage>.broadcast();
+  final _fields = List<int>.filled(_fieldCount, _null);
+  IcyMetadataMessage? _icyMetadata;
+
+  _BinaryPlaybackEventDecoder(String name)
+      : _channel = BasicMessageChannel<ByteData>(name, const BinaryCodec()) {
+    _channel.setMessageHandler((data) async {
+      if (data != null) _controller.add(_decode(data));
+      return ByteData(0);
+    });
+  }
+
+  Stream<PlaybackEventMessage> get stream => _controller.stream;
+
+  void dispose() {
+    _channel.setMessageHandler(null);
+    _controller.close();
+  }
+
+  PlaybackEventMessage _decode(ByteData data) {
+    var offset = 0;
+    final mask = data.getInt32(offset, Endian.little);
+    offset += 4;
+    for (var i = 0; i < _fieldCount; i++) {
+      if (mask & (1 << i) != 0) {
+        _fields[i] = data.getInt64(offset, Endian.little);
+        offset += 8;
+      }
+    }
+    if (mask & (1 << _icyMetadata) != 0) {
+      String? readString() {
+        final length = data.getInt32(offset, Endian.little);
+        offset += 4;
+        if (length < 0) return null;
+        final s = utf8.decode(
+            data.buffer.asUint8List(data.offsetInBytes + offset, length));
+        offset += length;
+        return s;
+      }
+
+      IcyInfoMessage? info;
+      IcyHeadersMessage? headers;
+      if (data.getInt8(offset++) != 0) {
+        info = IcyInfoMessage(title: readString(), url: readString());
+      }
+      if (data.getInt8(offset++) != 0) {
+        final bitrate = data.getInt32(offset, Endian.little);
+        offset += 4;
+        final genre = readString();
+        final name = readString();
+        final metadataInterval = data.getInt32(offset, Endian.little);
+        offset += 4;
+        final url = readString();
+        final isPublic = data.getInt8(offset++) != 0;
+        headers = IcyHeadersMessage(
+          bitrate: bitrate,
+          genre: genre,
+          name: name,
+          metadataInterval: metadataInterval,
+          url: url,
+          isPublic: isPublic,
+        );
+      }
+      _icyMetadata = IcyMetadataMessage(info: info, headers: headers);
+    }
+    int? nullable(int value) => value == _null ? null : value;
+    final duration = nullable(_fields[_duration]);
+    return PlaybackEventMessage(
+      processingState: ProcessingStateMessage.values[_fields[_processingState]],
+      updateTime: DateTime.fromMillisecondsSinceEpoch(_fields[_updateTime]),
+      updatePosition: Duration(microseconds: _fields[_updatePosition]),
+      bufferedPosition: Duration(microseconds: _fields[_bufferedPosition]),
+      duration: duration == null ? null : Duration(microseconds: duration),
+      icyMetadata: _icyMetadata,
+      currentIndex: nullable(_fields[_currentIndex]),
+      androidAudioSessionId: nullable(_fields[_androidAudioSessionId]),
+    );
+  }
 }